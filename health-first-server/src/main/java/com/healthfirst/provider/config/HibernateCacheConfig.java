@@ -0,0 +1,71 @@
+package com.healthfirst.provider.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for provider reference data, held in-process by Caffeine
+ * through JCache. Every region is declared here; Hibernate fails at startup on a region
+ * it does not find rather than creating an unbounded one.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String PROVIDER_REGION = "provider";
+    public static final String AVAILABILITY_REGION = "provider-availability";
+    public static final String SPECIAL_REQUIREMENTS_REGION = "provider-availability.special-requirements";
+
+    // Each application context gets its own cache manager, so test contexts sharing a JVM never share regions
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${hibernate-cache.entity.max-entries:100000}") long entityMaxEntries,
+            @Value("${hibernate-cache.query.max-entries:10000}") long queryMaxEntries,
+            @Value("${hibernate-cache.time-to-live:PT30M}") Duration timeToLive) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(PROVIDER_REGION, bounded(entityMaxEntries, timeToLive));
+        cacheManager.createCache(AVAILABILITY_REGION, bounded(entityMaxEntries, timeToLive));
+        cacheManager.createCache(SPECIAL_REQUIREMENTS_REGION, bounded(entityMaxEntries, timeToLive));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded(queryMaxEntries, timeToLive));
+        // Update timestamps decide whether a cached query result is still valid, so they must
+        // outlive every result: no size bound and no expiry (one entry per table)
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>().setStoreByValue(false));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheProperties(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Per-region hit and miss counts for SecondLevelCacheEndpoint
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    // Hibernate stores disassembled, immutable entries, so the JCache default of copying on every read and write is pure overhead
+    private static <K, V> CaffeineConfiguration<K, V> bounded(long maxEntries, Duration timeToLive) {
+        return new CaffeineConfiguration<K, V>()
+                .setStoreByValue(false)
+                .setMaximumSize(OptionalLong.of(maxEntries))
+                .setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+    }
+}
@@ -2,12 +2,17 @@ package com.healthfirst.provider.config;
 
 import com.healthfirst.provider.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -15,6 +20,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -29,10 +35,15 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Writes for one provider's roster; the controller checks the blocks are theirs
+                .requestMatchers(HttpMethod.POST, "/api/v1/provider/availability/bulk").authenticated()
+                // Onboarding; the controller refuses anyone but a provider
+                .requestMatchers(HttpMethod.POST, "/api/v1/provider/bulk-import").authenticated()
                 .requestMatchers(
                     "/swagger-ui/**",
                     "/swagger-ui.html",
                     "/v3/api-docs/**",
+                    "/actuator/health",
                     "/api/v1/provider/register",
                     "/api/v1/provider/login",
                     "/api/v1/provider/verify-test",
@@ -42,7 +53,8 @@ public class SecurityConfig {
                     "/api/v1/patient/login",
                     "/api/v1/patient/verify-test",
                     "/api/v1/patient/list-all",
-                    "/api/v1/availability/search"
+                    "/api/v1/availability/search",
+                    "/api/v1/availability/free-busy"
                 ).permitAll()
                 .anyRequest().authenticated()
             )
@@ -89,8 +101,28 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * New hashes are written as {id}hash using the configured encoder. Hashes stored before
+     * the prefix was introduced are plain BCrypt and are still accepted; they are rewritten
+     * on the next successful login.
+     */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.encoder:bcrypt}") String encoderId,
+            @Value("${security.password.bcrypt.strength:12}") int bcryptStrength,
+            @Value("${security.password.argon2.memory-kib:19456}") int argon2MemoryKib,
+            @Value("${security.password.argon2.iterations:2}") int argon2Iterations,
+            @Value("${security.password.argon2.parallelism:1}") int argon2Parallelism) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKib, argon2Iterations));
+
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalArgumentException("Unknown password encoder: " + encoderId);
+        }
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(encoderId, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 } 
\ No newline at end of file
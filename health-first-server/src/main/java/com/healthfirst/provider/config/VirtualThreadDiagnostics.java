@@ -0,0 +1,105 @@
+package com.healthfirst.provider.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports which thread model serves requests. In virtual-thread mode it also watches JFR
+ * for carrier pinning (a virtual thread blocking inside a synchronized block or native
+ * frame), counts it in {@code jvm.threads.virtual.pinned} and logs each distinct site once.
+ */
+@Component
+@Slf4j
+public class VirtualThreadDiagnostics {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 16;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Duration pinnedThreshold;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream pinnedEvents;
+
+    public VirtualThreadDiagnostics(Environment environment,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${diagnostics.virtual-threads.pinned-threshold:20ms}") Duration pinnedThreshold) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.pinnedThreshold = pinnedThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+                log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                        + "requests run on platform threads", Runtime.version().feature());
+            } else {
+                log.info("Requests run on platform threads");
+            }
+            return;
+        }
+
+        log.info("Requests run on virtual threads; reporting carrier pinning longer than {} ms", pinnedThreshold.toMillis());
+        Counter pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .register(meterRegistry);
+
+        pinnedEvents = new RecordingStream();
+        pinnedEvents.enable(PINNED_EVENT).withThreshold(pinnedThreshold).withStackTrace();
+        pinnedEvents.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            String site = topFrames(event);
+            if (reportedSites.add(site)) {
+                log.warn("Virtual thread pinned for {} ms at:\n{}", event.getDuration().toMillis(), site);
+            }
+        });
+        pinnedEvents.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (pinnedEvents != null) {
+            pinnedEvents.close();
+        }
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "\t(no stack trace)";
+        }
+        // JDK frames only show the park itself; the monitor is held further down
+        return event.getStackTrace().getFrames().stream()
+                .filter(frame -> !isJdkFrame(frame))
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadDiagnostics::describe)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static boolean isJdkFrame(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
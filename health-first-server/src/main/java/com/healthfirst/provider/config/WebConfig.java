@@ -1,17 +1,36 @@
 package com.healthfirst.provider.config;
 
+import jakarta.persistence.EntityManagerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig {
 
     @Bean
-    public WebMvcConfigurer corsConfigurer() {
+    public WebMvcConfigurer corsConfigurer(EntityManagerFactory entityManagerFactory) {
         return new WebMvcConfigurer() {
 
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // Replaces spring.jpa.open-in-view. Endpoints that wait on password hashing must not
+                // hold a pooled connection for the whole request, or a login burst drains the pool.
+                OpenEntityManagerInViewInterceptor openEntityManagerInView = new OpenEntityManagerInViewInterceptor();
+                openEntityManagerInView.setEntityManagerFactory(entityManagerFactory);
+                registry.addWebRequestInterceptor(openEntityManagerInView)
+                        .excludePathPatterns(
+                            "/api/v1/provider/login",
+                            "/api/v1/provider/register",
+                            "/api/v1/provider/bulk-import",
+                            "/api/v1/patient/login",
+                            "/api/v1/patient/register"
+                        );
+            }
+
             @Override
             public void addCorsMappings(CorsRegistry registry) {
                 registry.addMapping("/**")
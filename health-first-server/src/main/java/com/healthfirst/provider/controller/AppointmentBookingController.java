@@ -0,0 +1,85 @@
+package com.healthfirst.provider.controller;
+
+import com.healthfirst.provider.dto.BookAppointmentRequest;
+import com.healthfirst.provider.dto.BookingResponse;
+import com.healthfirst.provider.security.PatientPrincipal;
+import com.healthfirst.provider.service.AppointmentBookingService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/appointments")
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentBookingController {
+    
+    private final AppointmentBookingService bookingService;
+    
+    @PostMapping
+    public ResponseEntity<BookingResponse> bookAppointment(
+            @AuthenticationPrincipal PatientPrincipal patient,
+            @Valid @RequestBody BookAppointmentRequest request) {
+        if (patient == null) {
+            return patientsOnly();
+        }
+        try {
+            BookingResponse response = bookingService.bookSlot(request, patient.getPatientId());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalStateException e) {
+            // Lost the race for this slot
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(BookingResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build());
+        } catch (IllegalArgumentException e) {
+            log.error("Error booking appointment: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(BookingResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build());
+        } catch (Exception e) {
+            log.error("Unexpected error booking appointment", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(BookingResponse.builder()
+                    .success(false)
+                    .message("An unexpected error occurred")
+                    .build());
+        }
+    }
+    
+    @PostMapping("/{bookingReference}/cancel")
+    public ResponseEntity<BookingResponse> cancelAppointment(
+            @AuthenticationPrincipal PatientPrincipal patient,
+            @PathVariable String bookingReference) {
+        if (patient == null) {
+            return patientsOnly();
+        }
+        try {
+            return ResponseEntity.ok(bookingService.cancelBooking(bookingReference, patient.getPatientId()));
+        } catch (IllegalArgumentException e) {
+            log.error("Error cancelling appointment: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(BookingResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build());
+        } catch (Exception e) {
+            log.error("Unexpected error cancelling appointment", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(BookingResponse.builder()
+                    .success(false)
+                    .message("An unexpected error occurred")
+                    .build());
+        }
+    }
+    
+    // Provider tokens authenticate too, but only a patient books or cancels their own appointments
+    private static ResponseEntity<BookingResponse> patientsOnly() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(BookingResponse.builder()
+                .success(false)
+                .message("A patient token is required")
+                .build());
+    }
+}
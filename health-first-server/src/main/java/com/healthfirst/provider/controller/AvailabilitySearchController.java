@@ -1,14 +1,27 @@
 package com.healthfirst.provider.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.healthfirst.provider.dto.AvailabilitySearchRequest;
 import com.healthfirst.provider.dto.AvailabilitySearchResponse;
+import com.healthfirst.provider.dto.FreeBusyRequest;
+import com.healthfirst.provider.dto.FreeBusyResponse;
+import com.healthfirst.provider.service.AvailabilitySearchCache;
 import com.healthfirst.provider.service.AvailabilitySearchService;
+import com.healthfirst.provider.service.FreeBusyService;
+import com.healthfirst.provider.service.SlotIndexNotReadyException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -19,6 +32,9 @@ import java.time.LocalDate;
 public class AvailabilitySearchController {
     
     private final AvailabilitySearchService searchService;
+    private final AvailabilitySearchCache searchCache;
+    private final FreeBusyService freeBusyService;
+    private final ObjectMapper objectMapper;
     
     @GetMapping("/search")
     public ResponseEntity<AvailabilitySearchResponse> searchAvailability(
@@ -27,11 +43,24 @@ public class AvailabilitySearchController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) String specialization,
             @RequestParam(required = false) String location,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) String zip,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) String near,
+            @RequestParam(required = false) Double radiusMiles,
+            @RequestParam(required = false) Double minLatitude,
+            @RequestParam(required = false) Double maxLatitude,
+            @RequestParam(required = false) Double minLongitude,
+            @RequestParam(required = false) Double maxLongitude,
             @RequestParam(required = false) String appointmentType,
             @RequestParam(required = false) Boolean insuranceAccepted,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) String timezone,
-            @RequestParam(defaultValue = "true") Boolean availableOnly) {
+            @RequestParam(defaultValue = "true") Boolean availableOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         
         try {
             AvailabilitySearchRequest request = new AvailabilitySearchRequest();
@@ -40,14 +69,42 @@ public class AvailabilitySearchController {
             request.setEndDate(endDate);
             request.setSpecialization(specialization);
             request.setLocation(location);
+            request.setCity(city);
+            request.setState(state);
+            request.setZip(zip);
+            request.setLatitude(latitude);
+            request.setLongitude(longitude);
+            request.setNear(near);
+            request.setRadiusMiles(radiusMiles);
+            request.setMinLatitude(minLatitude);
+            request.setMaxLatitude(maxLatitude);
+            request.setMinLongitude(minLongitude);
+            request.setMaxLongitude(maxLongitude);
             request.setAppointmentType(appointmentType);
             request.setInsuranceAccepted(insuranceAccepted);
             request.setMaxPrice(maxPrice);
             request.setTimezone(timezone);
             request.setAvailableOnly(availableOnly);
+            request.setCursor(cursor);
+            request.setLimit(limit);
             
-            AvailabilitySearchResponse response = searchService.searchAvailability(request);
-            return ResponseEntity.ok(response);
+            // A matching If-None-Match gets a 304 with no body
+            AvailabilitySearchCache.CachedSearch result = searchCache.search(request, searchService::searchAvailability);
+            return ResponseEntity.ok()
+                    .eTag(result.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .body(result.response());
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid availability search: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(AvailabilitySearchResponse.builder()
+                    .success(false)
+                    .build());
+        } catch (SlotIndexNotReadyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(AvailabilitySearchResponse.builder()
+                            .success(false)
+                            .build());
         } catch (Exception e) {
             log.error("Error searching availability", e);
             return ResponseEntity.status(500).body(AvailabilitySearchResponse.builder()
@@ -55,4 +112,76 @@ public class AvailabilitySearchController {
                     .build());
         }
     }
-} 
\ No newline at end of file
+    
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAvailability(@ModelAttribute AvailabilitySearchRequest request) {
+        AvailabilitySearchService.AvailabilityStream stream;
+        try {
+            stream = searchService.streamAvailability(request);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid availability stream: {}", e.getMessage());
+            AvailabilitySearchResponse error = AvailabilitySearchResponse.builder()
+                    .success(false)
+                    .build();
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(outputStream -> objectMapper.writeValue(outputStream, error));
+        } catch (SlotIndexNotReadyException e) {
+            AvailabilitySearchResponse error = AvailabilitySearchResponse.builder()
+                    .success(false)
+                    .build();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(outputStream -> objectMapper.writeValue(outputStream, error));
+        }
+        
+        StreamingResponseBody body = outputStream -> {
+            try {
+                stream.forEach(result -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(result));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // Client went away mid-stream
+                log.debug("Availability stream closed: {}", e.getMessage());
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
+    // POST so a front desk can ask about hundreds of providers without hitting URL length limits
+    @PostMapping("/free-busy")
+    public ResponseEntity<FreeBusyResponse> getFreeBusy(@RequestBody FreeBusyRequest request) {
+        try {
+            return ResponseEntity.ok(freeBusyService.getFreeBusy(request));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid free/busy request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(FreeBusyResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build());
+        } catch (SlotIndexNotReadyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(FreeBusyResponse.builder()
+                            .success(false)
+                            .message(e.getMessage())
+                            .build());
+        } catch (Exception e) {
+            log.error("Error computing free/busy", e);
+            return ResponseEntity.status(500).body(FreeBusyResponse.builder()
+                    .success(false)
+                    .message("An unexpected error occurred")
+                    .build());
+        }
+    }
+}
@@ -2,9 +2,13 @@ package com.healthfirst.provider.controller;
 
 import com.healthfirst.provider.dto.PatientLoginRequest;
 import com.healthfirst.provider.dto.PatientLoginResponse;
+import com.healthfirst.provider.security.LoginRateLimitedException;
+import com.healthfirst.provider.security.PasswordHashingRejectedException;
 import com.healthfirst.provider.service.PatientAuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -27,6 +31,24 @@ public class PatientAuthController {
             errorResponse.setData(null);
             errorResponse.setErrorCode("INVALID_CREDENTIALS");
             return ResponseEntity.status(401).body(errorResponse);
+        } catch (LoginRateLimitedException e) {
+            PatientLoginResponse errorResponse = new PatientLoginResponse();
+            errorResponse.setSuccess(false);
+            errorResponse.setMessage(e.getMessage());
+            errorResponse.setData(null);
+            errorResponse.setErrorCode("TOO_MANY_ATTEMPTS");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(errorResponse);
+        } catch (PasswordHashingRejectedException e) {
+            PatientLoginResponse errorResponse = new PatientLoginResponse();
+            errorResponse.setSuccess(false);
+            errorResponse.setMessage(e.getMessage());
+            errorResponse.setData(null);
+            errorResponse.setErrorCode("SERVICE_BUSY");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(errorResponse);
         } catch (Exception e) {
             PatientLoginResponse errorResponse = new PatientLoginResponse();
             errorResponse.setSuccess(false);
@@ -4,10 +4,12 @@ import com.healthfirst.provider.dto.PatientRegistrationRequest;
 import com.healthfirst.provider.dto.PatientResponse;
 import com.healthfirst.provider.entity.Patient;
 import com.healthfirst.provider.repository.PatientRepository;
+import com.healthfirst.provider.security.PasswordHashingRejectedException;
 import com.healthfirst.provider.service.PatientService;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -38,6 +40,15 @@ public class PatientController {
             errorResponse.setData(null);
             errorResponse.setErrorCode("VALIDATION_ERROR");
             return ResponseEntity.badRequest().body(errorResponse);
+        } catch (PasswordHashingRejectedException e) {
+            PatientResponse errorResponse = new PatientResponse();
+            errorResponse.setSuccess(false);
+            errorResponse.setMessage(e.getMessage());
+            errorResponse.setData(null);
+            errorResponse.setErrorCode("SERVICE_BUSY");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(errorResponse);
         } catch (Exception e) {
             PatientResponse errorResponse = new PatientResponse();
             errorResponse.setSuccess(false);
@@ -2,9 +2,12 @@ package com.healthfirst.provider.controller;
 
 import com.healthfirst.provider.dto.ProviderLoginRequest;
 import com.healthfirst.provider.dto.ProviderLoginResponse;
+import com.healthfirst.provider.security.LoginRateLimitedException;
+import com.healthfirst.provider.security.PasswordHashingRejectedException;
 import com.healthfirst.provider.service.ProviderAuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,7 +20,18 @@ public class ProviderAuthController {
 
     @PostMapping("/login")
     public ResponseEntity<ProviderLoginResponse> login(@Valid @RequestBody ProviderLoginRequest request) {
-        ProviderLoginResponse response = providerAuthService.login(request);
+        ProviderLoginResponse response;
+        try {
+            response = providerAuthService.login(request);
+        } catch (LoginRateLimitedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(new ProviderLoginResponse(false, e.getMessage(), null, "TOO_MANY_ATTEMPTS"));
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(new ProviderLoginResponse(false, e.getMessage(), null, "SERVICE_BUSY"));
+        }
         
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -2,7 +2,12 @@ package com.healthfirst.provider.controller;
 
 import com.healthfirst.provider.dto.CreateAvailabilityRequest;
 import com.healthfirst.provider.dto.AvailabilityResponse;
+import com.healthfirst.provider.dto.BulkAvailabilityRequest;
+import com.healthfirst.provider.dto.BulkAvailabilityResponse;
 import com.healthfirst.provider.dto.GetAvailabilityResponse;
+import com.healthfirst.provider.security.ProviderPrincipal;
+import com.healthfirst.provider.service.BookedSlotsException;
+import com.healthfirst.provider.service.ProviderAvailabilityImportService;
 import com.healthfirst.provider.service.ProviderAvailabilityService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -23,6 +29,7 @@ import java.util.UUID;
 public class ProviderAvailabilityController {
     
     private final ProviderAvailabilityService availabilityService;
+    private final ProviderAvailabilityImportService availabilityImportService;
     
     @PostMapping("/availability")
     public ResponseEntity<AvailabilityResponse> createAvailability(
@@ -46,6 +53,34 @@ public class ProviderAvailabilityController {
         }
     }
     
+    @PostMapping("/availability/bulk")
+    public ResponseEntity<BulkAvailabilityResponse> importAvailability(
+            @AuthenticationPrincipal ProviderPrincipal provider,
+            @RequestBody BulkAvailabilityRequest request) {
+        if (provider == null || !ownsEveryBlock(request, provider.getProviderId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(BulkAvailabilityResponse.builder()
+                    .success(false)
+                    .message("Availability can only be imported with the owning provider's token")
+                    .build());
+        }
+        try {
+            BulkAvailabilityResponse response = availabilityImportService.importAvailability(request);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            log.error("Error importing availability: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(BulkAvailabilityResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build());
+        } catch (Exception e) {
+            log.error("Unexpected error importing availability", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(BulkAvailabilityResponse.builder()
+                    .success(false)
+                    .message("An unexpected error occurred")
+                    .build());
+        }
+    }
+    
     @GetMapping("/{providerId}/availability")
     public ResponseEntity<GetAvailabilityResponse> getProviderAvailability(
             @PathVariable UUID providerId,
@@ -106,6 +141,12 @@ public class ProviderAvailabilityController {
                     "success", true,
                     "message", "Availability slot deleted successfully"
             ));
+        } catch (BookedSlotsException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "success", false,
+                    "message", e.getMessage(),
+                    "bookedSlotIds", e.getSlotIds()
+            ));
         } catch (IllegalArgumentException e) {
             log.error("Error deleting availability slot: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of(
@@ -120,4 +161,11 @@ public class ProviderAvailabilityController {
             ));
         }
     }
-} 
\ No newline at end of file
+    
+    // Blocks without a provider id are left for validation to reject
+    private static boolean ownsEveryBlock(BulkAvailabilityRequest request, UUID providerId) {
+        return request.getBlocks() == null || request.getBlocks().stream()
+                .filter(block -> block != null && block.getProviderId() != null)
+                .allMatch(block -> block.getProviderId().equals(providerId));
+    }
+}
@@ -1,18 +1,38 @@
 package com.healthfirst.provider.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.healthfirst.provider.dto.ProviderDirectoryRequest;
+import com.healthfirst.provider.dto.ProviderDirectoryResponse;
+import com.healthfirst.provider.dto.ProviderImportResponse;
 import com.healthfirst.provider.dto.ProviderRegistrationRequest;
 import com.healthfirst.provider.dto.ProviderResponse;
 import com.healthfirst.provider.entity.Provider;
 import com.healthfirst.provider.repository.ProviderRepository;
+import com.healthfirst.provider.security.PasswordHashingRejectedException;
+import com.healthfirst.provider.security.ProviderPrincipal;
+import com.healthfirst.provider.service.ImportInProgressException;
+import com.healthfirst.provider.service.ProviderBulkImportService;
+import com.healthfirst.provider.service.ProviderDirectoryService;
 import com.healthfirst.provider.service.ProviderService;
 import jakarta.validation.ConstraintViolationException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,9 +41,13 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping("/api/v1/provider")
 @RequiredArgsConstructor
+@Slf4j
 public class ProviderController {
     private final ProviderService providerService;
     private final ProviderRepository providerRepository;
+    private final ProviderBulkImportService providerBulkImportService;
+    private final ProviderDirectoryService providerDirectoryService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/register")
     public ResponseEntity<?> registerProvider(@RequestBody ProviderRegistrationRequest request) {
@@ -46,6 +70,13 @@ public class ProviderController {
                     "success", false,
                     "message", ex.getMessage()
             ));
+        } catch (PasswordHashingRejectedException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                    .body(Map.of(
+                            "success", false,
+                            "message", ex.getMessage()
+                    ));
         } catch (Exception ex) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                     "success", false,
@@ -54,6 +85,46 @@ public class ProviderController {
         }
     }
 
+    /**
+     * Streams a CSV (header row first) or NDJSON body of registrations; rows that fail are
+     * listed in the response and the rest are imported. Only providers may onboard others; the
+     * authentication filter already turns away ones that are inactive or not yet verified.
+     */
+    @PostMapping(value = "/bulk-import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> bulkImportProviders(@AuthenticationPrincipal ProviderPrincipal provider,
+                                                 @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                 InputStream body) {
+        if (provider == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+                    "success", false,
+                    "message", "Providers can only be imported with a verified provider's token"
+            ));
+        }
+        ProviderBulkImportService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ProviderBulkImportService.Format.CSV
+                : ProviderBulkImportService.Format.NDJSON;
+        try {
+            ProviderImportResponse response = providerBulkImportService.importProviders(body, format);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                    "success", false,
+                    "message", ex.getMessage()
+            ));
+        } catch (ImportInProgressException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "success", false,
+                    "message", ex.getMessage()
+            ));
+        } catch (Exception ex) {
+            log.error("Provider import failed", ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Internal server error"
+            ));
+        }
+    }
+
     @PostMapping("/verify-test")
     public ResponseEntity<Map<String, Object>> verifyProviderForTest(@RequestParam String email) {
         try {
@@ -77,10 +148,57 @@ public class ProviderController {
         }
     }
 
+    @GetMapping("/directory")
+    public ResponseEntity<ProviderDirectoryResponse> getDirectory(@ModelAttribute ProviderDirectoryRequest request) {
+        try {
+            return ResponseEntity.ok(providerDirectoryService.getDirectory(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ProviderDirectoryResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build());
+        }
+    }
+
+    // The whole directory as one JSON array, written as rows come off the database cursor
+    @GetMapping("/directory/export")
+    public ResponseEntity<StreamingResponseBody> exportDirectory(@ModelAttribute ProviderDirectoryRequest request) {
+        ProviderDirectoryService.DirectoryExport export;
+        try {
+            export = providerDirectoryService.exportDirectory(request);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = Map.of("success", false, "message", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(outputStream -> objectMapper.writeValue(outputStream, error));
+        }
+
+        // Leave flushing to the generator's buffer rather than flushing after every provider
+        ObjectWriter entryWriter = objectMapper.writerFor(ProviderDirectoryResponse.DirectoryEntry.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                export.forEach(entry -> {
+                    try {
+                        entryWriter.writeValue(generator, entry);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // Superseded by /directory, which pages and filters; kept for existing callers
     @GetMapping("/list-all")
     public ResponseEntity<Map<String, Object>> listAllProviders() {
         try {
-            List<Provider> providers = providerRepository.findAll();
+            List<ProviderRepository.ProviderSummaryRow> providers = providerService.listProviders();
             List<Map<String, Object>> providerList = providers.stream()
                     .map(p -> {
                         Map<String, Object> providerMap = new HashMap<>();
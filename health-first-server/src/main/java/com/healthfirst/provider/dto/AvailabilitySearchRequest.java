@@ -1,6 +1,7 @@
 package com.healthfirst.provider.dto;
 
 import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -8,14 +9,33 @@ import java.time.LocalDate;
 @Data
 public class AvailabilitySearchRequest {
     
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate date;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate startDate;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate endDate;
     private String specialization;
     private String location;
+    // Exact matches, ignoring case; handy for narrowing down by a returned facet value
+    private String city;
+    private String state;
+    private String zip;
+    // Distance search from coordinates, or from a ZIP code's centroid; results nearest first
+    private Double latitude;
+    private Double longitude;
+    private String near;
+    private Double radiusMiles;
+    // Bounding box search, in decimal degrees
+    private Double minLatitude;
+    private Double maxLatitude;
+    private Double minLongitude;
+    private Double maxLongitude;
     private String appointmentType;
     private Boolean insuranceAccepted;
     private BigDecimal maxPrice;
     private String timezone;
     private Boolean availableOnly = true;
+    private String cursor;
+    private Integer limit;
 } 
\ No newline at end of file
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -26,6 +27,10 @@ public class AvailabilitySearchResponse {
         private SearchCriteria searchCriteria;
         private Integer totalResults;
         private List<SearchResult> results;
+        // Facet name -> value -> number of matching providers; first page only
+        private Map<String, Map<String, Integer>> facets;
+        private String nextCursor;
+        private Boolean hasMore;
     }
     
     @Data
@@ -36,6 +41,12 @@ public class AvailabilitySearchResponse {
         private String date;
         private String specialization;
         private String location;
+        private String city;
+        private String state;
+        private String zip;
+        private Double latitude;
+        private Double longitude;
+        private Double radiusMiles;
     }
     
     @Data
@@ -58,6 +69,8 @@ public class AvailabilitySearchResponse {
         private Integer yearsOfExperience;
         private Double rating;
         private String clinicAddress;
+        // Only set for distance searches
+        private Double distanceMiles;
     }
     
     @Data
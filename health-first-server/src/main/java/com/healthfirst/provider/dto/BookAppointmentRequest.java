@@ -0,0 +1,13 @@
+package com.healthfirst.provider.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class BookAppointmentRequest {
+    
+    @NotNull(message = "Slot ID is required")
+    private UUID slotId;
+}
@@ -0,0 +1,30 @@
+package com.healthfirst.provider.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingResponse {
+    
+    private Boolean success;
+    private String message;
+    private BookingData data;
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class BookingData {
+        private String bookingReference;
+        private UUID slotId;
+        private UUID patientId;
+        private String status;
+    }
+}
@@ -0,0 +1,23 @@
+package com.healthfirst.provider.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class BulkAvailabilityRequest {
+    
+    private List<Block> blocks;
+    
+    // One availability block for one provider; blocks are validated one by one so a bad
+    // row is reported instead of failing the whole roster
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Block extends CreateAvailabilityRequest {
+        @NotNull(message = "Provider id is required")
+        private UUID providerId;
+    }
+}
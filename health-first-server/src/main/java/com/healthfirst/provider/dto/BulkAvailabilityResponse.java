@@ -0,0 +1,60 @@
+package com.healthfirst.provider.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkAvailabilityResponse {
+    
+    private Boolean success;
+    private String message;
+    private BulkAvailabilityData data;
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class BulkAvailabilityData {
+        private Integer blocksSubmitted;
+        private Integer blocksCreated;
+        private Integer blocksRejected;
+        private Integer slotsCreated;
+        private List<CreatedBlock> created;
+        private List<RejectedBlock> rejected;
+    }
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class CreatedBlock {
+        // Position of the block in the submitted list
+        private Integer index;
+        private UUID providerId;
+        private UUID availabilityId;
+        private LocalDate date;
+        private Integer slotsCreated;
+    }
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RejectedBlock {
+        private Integer index;
+        private UUID providerId;
+        private LocalDate date;
+        private String startTime;
+        private String endTime;
+        private List<String> reasons;
+    }
+}
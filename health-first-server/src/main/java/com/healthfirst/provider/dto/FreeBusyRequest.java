@@ -0,0 +1,23 @@
+package com.healthfirst.provider.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class FreeBusyRequest {
+
+    private List<UUID> providerIds;
+
+    // Defaults to today in the requested timezone, and a week from the start date
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    // Defaults to UTC
+    private String timezone;
+
+    // Must divide an hour evenly; defaults to 15
+    private Integer bucketMinutes;
+}
@@ -0,0 +1,56 @@
+package com.healthfirst.provider.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FreeBusyResponse {
+
+    private Boolean success;
+    private String message;
+    private FreeBusyData data;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class FreeBusyData {
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private String timezone;
+        private Integer bucketMinutes;
+        private String encoding;
+        private List<ProviderFreeBusy> providers;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ProviderFreeBusy {
+        private UUID providerId;
+        private List<DayFreeBusy> days;
+    }
+
+    // Bit i covers the i-th bucket after local midnight: byte i / 8, bit i % 8 (least significant first)
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DayFreeBusy {
+        private LocalDate date;
+        // 96 for 15-minute buckets; 92 or 100 on daylight saving changes
+        private Integer buckets;
+        private String free;
+        private String busy;
+    }
+}
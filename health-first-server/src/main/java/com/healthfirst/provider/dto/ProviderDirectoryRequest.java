@@ -0,0 +1,16 @@
+package com.healthfirst.provider.dto;
+
+import lombok.Data;
+
+@Data
+public class ProviderDirectoryRequest {
+    
+    private String specialization;
+    private String verificationStatus;
+    // name (last, then first), email or createdAt
+    private String sort;
+    // asc or desc
+    private String direction;
+    private String cursor;
+    private Integer limit;
+}
@@ -0,0 +1,49 @@
+package com.healthfirst.provider.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProviderDirectoryResponse {
+    
+    private Boolean success;
+    private String message;
+    private DirectoryData data;
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DirectoryData {
+        private String sort;
+        private String direction;
+        private Integer count;
+        private List<DirectoryEntry> providers;
+        private String nextCursor;
+        private Boolean hasMore;
+    }
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DirectoryEntry {
+        private UUID id;
+        private String firstName;
+        private String lastName;
+        private String email;
+        private String specialization;
+        private String verificationStatus;
+        private Boolean isActive;
+        private Instant createdAt;
+    }
+}
@@ -0,0 +1,43 @@
+package com.healthfirst.provider.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProviderImportResponse {
+
+    private Boolean success;
+    private String message;
+    private ImportData data;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ImportData {
+        private Long totalRows;
+        private Long imported;
+        private Long failed;
+        private Long elapsedMillis;
+        private List<RowError> errors;
+        private Boolean errorsTruncated;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        // Line in the uploaded file where the record starts (the CSV header is line 1)
+        private Long row;
+        private String email;
+        private List<String> messages;
+    }
+}
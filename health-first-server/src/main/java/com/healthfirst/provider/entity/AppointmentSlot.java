@@ -6,11 +6,17 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "appointment_slots")
+@Table(name = "appointment_slots", indexes = {
+    @Index(name = "idx_slots_provider_start", columnList = "provider_id, slot_start_time"),
+    @Index(name = "idx_slots_status_start", columnList = "status, slot_start_time"),
+    @Index(name = "idx_slots_availability", columnList = "availability_id"),
+    @Index(name = "idx_slots_provider_date", columnList = "provider_id, slot_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,6 +35,10 @@ public class AppointmentSlot {
     @JoinColumn(name = "provider_id", nullable = false)
     private Provider provider;
     
+    // Calendar date of the slot in the availability's timezone
+    @Column(name = "slot_date", nullable = false)
+    private LocalDate slotDate;
+    
     @Column(name = "slot_start_time", nullable = false)
     private ZonedDateTime slotStartTime;
     
@@ -37,6 +47,7 @@ public class AppointmentSlot {
     
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
+    @Builder.Default
     private SlotStatus status = SlotStatus.AVAILABLE;
     
     @ManyToOne(fetch = FetchType.LAZY)
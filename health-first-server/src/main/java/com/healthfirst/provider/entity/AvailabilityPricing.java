@@ -19,8 +19,10 @@ public class AvailabilityPricing {
     private BigDecimal baseFee;
     
     @jakarta.persistence.Column(name = "insurance_accepted")
+    @Builder.Default
     private Boolean insuranceAccepted = false;
     
     @jakarta.persistence.Column(name = "currency", length = 3)
+    @Builder.Default
     private String currency = "USD";
 } 
\ No newline at end of file
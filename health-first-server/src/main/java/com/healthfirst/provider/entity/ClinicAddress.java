@@ -2,12 +2,17 @@ package com.healthfirst.provider.entity;
 
 import jakarta.persistence.Embeddable;
 
+import java.util.Objects;
+
 @Embeddable
 public class ClinicAddress {
     private String street;
     private String city;
     private String state;
     private String zip;
+    // Clinic location in decimal degrees; null when the ZIP code could not be geocoded
+    private Double latitude;
+    private Double longitude;
 
     public ClinicAddress() {}
     public ClinicAddress(String street, String city, String state, String zip) {
@@ -23,5 +28,16 @@ public class ClinicAddress {
     public String getState() { return state; }
     public void setState(String state) { this.state = state; }
     public String getZip() { return zip; }
-    public void setZip(String zip) { this.zip = zip; }
+    public void setZip(String zip) {
+        // Coordinates belong to the old ZIP code; ProviderGeocoder places the address again
+        if (!Objects.equals(this.zip, zip)) {
+            this.latitude = null;
+            this.longitude = null;
+        }
+        this.zip = zip;
+    }
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
 } 
\ No newline at end of file
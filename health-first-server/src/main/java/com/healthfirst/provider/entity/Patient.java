@@ -1,5 +1,6 @@
 package com.healthfirst.provider.entity;
 
+import com.healthfirst.provider.security.PatientAuthenticationListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,6 +14,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(PatientAuthenticationListener.class)
 @Table(name = "patients", uniqueConstraints = {
     @UniqueConstraint(columnNames = "email"),
     @UniqueConstraint(columnNames = "phone_number")
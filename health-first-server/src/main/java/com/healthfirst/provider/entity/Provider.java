@@ -1,6 +1,11 @@
 package com.healthfirst.provider.entity;
 
+import com.healthfirst.provider.config.HibernateCacheConfig;
+import com.healthfirst.provider.security.ProviderAuthenticationListener;
+import com.healthfirst.provider.service.ProviderIndexListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -9,7 +14,14 @@ import java.util.UUID;
     @UniqueConstraint(columnNames = {"email"}),
     @UniqueConstraint(columnNames = {"phone_number"}),
     @UniqueConstraint(columnNames = {"license_number"})
+}, indexes = {
+    @Index(name = "idx_providers_name", columnList = "last_name, first_name, id"),
+    @Index(name = "idx_providers_created", columnList = "created_at, id"),
+    @Index(name = "idx_providers_specialization_name", columnList = "specialization, last_name, first_name, id")
 })
+@EntityListeners({ProviderAuthenticationListener.class, ProviderIndexListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PROVIDER_REGION)
 public class Provider {
     @Id
     @GeneratedValue
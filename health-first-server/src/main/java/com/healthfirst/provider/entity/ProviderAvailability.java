@@ -1,10 +1,14 @@
 package com.healthfirst.provider.entity;
 
+import com.healthfirst.provider.config.HibernateCacheConfig;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -14,11 +18,16 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "provider_availability")
+@Table(name = "provider_availability", indexes = {
+    @Index(name = "idx_availability_provider_date_time", columnList = "provider_id, date, start_time, end_time"),
+    @Index(name = "idx_availability_recurring", columnList = "is_recurring, materialized_through")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.AVAILABILITY_REGION)
 public class ProviderAvailability {
     
     @Id
@@ -42,6 +51,7 @@ public class ProviderAvailability {
     private String timezone;
     
     @Column(name = "is_recurring", nullable = false)
+    @Builder.Default
     private Boolean isRecurring = false;
     
     @Enumerated(EnumType.STRING)
@@ -51,24 +61,34 @@ public class ProviderAvailability {
     @Column(name = "recurrence_end_date")
     private LocalDate recurrenceEndDate;
     
+    // Last date for which slots have been generated
+    @Column(name = "materialized_through", nullable = false)
+    private LocalDate materializedThrough;
+    
     @Column(name = "slot_duration", nullable = false)
+    @Builder.Default
     private Integer slotDuration = 30; // minutes
     
     @Column(name = "break_duration", nullable = false)
+    @Builder.Default
     private Integer breakDuration = 0; // minutes
     
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
+    @Builder.Default
     private AvailabilityStatus status = AvailabilityStatus.AVAILABLE;
     
     @Column(name = "max_appointments_per_slot", nullable = false)
+    @Builder.Default
     private Integer maxAppointmentsPerSlot = 1;
     
     @Column(name = "current_appointments", nullable = false)
+    @Builder.Default
     private Integer currentAppointments = 0;
     
     @Enumerated(EnumType.STRING)
     @Column(name = "appointment_type", nullable = false)
+    @Builder.Default
     private AppointmentType appointmentType = AppointmentType.CONSULTATION;
     
     @Embedded
@@ -81,6 +101,8 @@ public class ProviderAvailability {
     private String notes;
     
     @ElementCollection
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.SPECIAL_REQUIREMENTS_REGION)
     @CollectionTable(name = "availability_special_requirements", 
                      joinColumns = @JoinColumn(name = "availability_id"))
     @Column(name = "requirement")
@@ -0,0 +1,50 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Inserts generated slots with batched JDBC statements instead of one
+ * persist per row. Slots are not attached to the persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AppointmentSlotBatchWriter {
+
+    public static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SLOT_SQL =
+            "INSERT INTO appointment_slots (id, availability_id, provider_id, slot_date, slot_start_time, " +
+            "slot_end_time, status, appointment_type) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(Collection<AppointmentSlot> slots) {
+        if (slots.isEmpty()) {
+            return;
+        }
+
+        // Ids are assigned here so callers can index the slots without reading them back
+        slots.forEach(slot -> {
+            if (slot.getId() == null) {
+                slot.setId(UUID.randomUUID());
+            }
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_SLOT_SQL, slots, BATCH_SIZE, (ps, slot) -> {
+            ps.setObject(1, slot.getId());
+            ps.setObject(2, slot.getAvailability().getId());
+            ps.setObject(3, slot.getProvider().getId());
+            ps.setObject(4, slot.getSlotDate());
+            ps.setObject(5, slot.getSlotStartTime().toOffsetDateTime());
+            ps.setObject(6, slot.getSlotEndTime().toOffsetDateTime());
+            ps.setString(7, slot.getStatus().name());
+            ps.setString(8, slot.getAppointmentType());
+        });
+    }
+}
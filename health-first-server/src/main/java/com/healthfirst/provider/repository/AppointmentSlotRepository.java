@@ -1,35 +1,47 @@
 package com.healthfirst.provider.repository;
 
 import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.AvailabilityLocation;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot, UUID> {
+public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot, UUID>, AvailableSlotSearchRepository {
     
+    // Explicit queries on provider.id use the provider_id column directly instead of the
+    // providers join that derived queries generate, so idx_slots_provider_start applies
+    @Query("SELECT s FROM AppointmentSlot s WHERE s.provider.id = :providerId " +
+           "AND s.slotStartTime BETWEEN :startTime AND :endTime " +
+           "ORDER BY s.slotStartTime ASC")
     List<AppointmentSlot> findByProviderIdAndSlotStartTimeBetweenOrderBySlotStartTimeAsc(
-            UUID providerId, ZonedDateTime startTime, ZonedDateTime endTime);
-    
-    List<AppointmentSlot> findByProviderIdAndStatus(UUID providerId, AppointmentSlot.SlotStatus status);
-    
-    Optional<AppointmentSlot> findByBookingReference(String bookingReference);
-    
-    @Query("SELECT as FROM AppointmentSlot as WHERE (:providerId IS NULL OR as.provider.id = :providerId) " +
-           "AND as.slotStartTime >= :startTime " +
-           "AND as.slotStartTime < :endTime " +
-           "AND as.status = 'AVAILABLE'")
-    List<AppointmentSlot> findAvailableSlotsInTimeRange(
             @Param("providerId") UUID providerId,
             @Param("startTime") ZonedDateTime startTime,
             @Param("endTime") ZonedDateTime endTime);
     
+    @Query("SELECT s FROM AppointmentSlot s WHERE s.provider.id = :providerId AND s.status = :status")
+    List<AppointmentSlot> findByProviderIdAndStatus(
+            @Param("providerId") UUID providerId,
+            @Param("status") AppointmentSlot.SlotStatus status);
+    
+    Optional<AppointmentSlot> findByBookingReference(String bookingReference);
+    
     @Query("SELECT COUNT(as) FROM AppointmentSlot as WHERE as.provider.id = :providerId " +
            "AND as.slotStartTime >= :startTime " +
            "AND as.slotStartTime < :endTime " +
@@ -39,7 +51,135 @@ public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot
             @Param("startTime") ZonedDateTime startTime,
             @Param("endTime") ZonedDateTime endTime);
     
+    @Query("SELECT COUNT(s) > 0 FROM AppointmentSlot s WHERE s.provider.id = :providerId " +
+           "AND s.slotStartTime = :startTime " +
+           "AND s.slotEndTime = :endTime " +
+           "AND s.status != :status")
     boolean existsByProviderIdAndSlotStartTimeAndSlotEndTimeAndStatusNot(
-            UUID providerId, ZonedDateTime startTime, ZonedDateTime endTime, 
-            AppointmentSlot.SlotStatus status);
-} 
\ No newline at end of file
+            @Param("providerId") UUID providerId,
+            @Param("startTime") ZonedDateTime startTime,
+            @Param("endTime") ZonedDateTime endTime,
+            @Param("status") AppointmentSlot.SlotStatus status);
+    
+    // Only one concurrent caller can move a slot out of AVAILABLE; the row lock is held per slot.
+    // Native SQL skips re-translating the DML on every call, which dominates on this hot path.
+    // Naming the table keeps Hibernate from clearing every second-level cache region on each booking.
+    // Selecting from the update's FINAL TABLE returns the booked row, so the search index needs no
+    // second lookup to find the slot's provider and start; no row means the slot was not bookable.
+    // Native results map uuid columns to byte[], so the provider id comes back as text.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "appointment_slots"))
+    @Query(value = "SELECT CAST(provider_id AS VARCHAR) AS providerId, slot_start_time AS slotStartTime FROM FINAL TABLE (" +
+                   "UPDATE appointment_slots SET status = 'BOOKED', patient_id = :patientId, " +
+                   "booking_reference = :bookingReference " +
+                   "WHERE id = :slotId AND status = 'AVAILABLE' AND slot_start_time > :now)",
+           nativeQuery = true)
+    Optional<BookedSlot> bookIfAvailable(
+            @Param("slotId") UUID slotId,
+            @Param("patientId") UUID patientId,
+            @Param("bookingReference") String bookingReference,
+            @Param("now") OffsetDateTime now);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AppointmentSlot s SET s.status = 'AVAILABLE', s.patient = null, s.bookingReference = null " +
+           "WHERE s.id = :slotId AND s.bookingReference = :bookingReference " +
+           "AND s.patient.id = :patientId AND s.status = 'BOOKED'")
+    int releaseBooking(
+            @Param("slotId") UUID slotId,
+            @Param("bookingReference") String bookingReference,
+            @Param("patientId") UUID patientId);
+    
+    @Query("SELECT s FROM AppointmentSlot s WHERE s.availability.id = :availabilityId " +
+           "AND s.slotStartTime >= :startTime")
+    List<AppointmentSlot> findByAvailabilityIdStartingFrom(
+            @Param("availabilityId") UUID availabilityId,
+            @Param("startTime") ZonedDateTime startTime);
+    
+    // Leaves booked slots in place, also ones booked after they were loaded for deletion
+    @Modifying
+    @Query("DELETE FROM AppointmentSlot s WHERE s.id IN :slotIds AND s.status <> 'BOOKED'")
+    int deleteUnbookedByIdIn(@Param("slotIds") Collection<UUID> slotIds);
+    
+    @Query("SELECT s.id FROM AppointmentSlot s WHERE s.id IN :slotIds AND s.status = 'BOOKED'")
+    List<UUID> findBookedIdsByIdIn(@Param("slotIds") Collection<UUID> slotIds);
+    
+    @Query("SELECT s FROM AppointmentSlot s " +
+           "JOIN FETCH s.provider " +
+           "JOIN FETCH s.availability " +
+           "WHERE s.id IN :slotIds")
+    List<AppointmentSlot> findAllForSearchByIdIn(@Param("slotIds") Collection<UUID> slotIds);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.id AS id, s.provider.id AS providerId, s.slotStartTime AS slotStartTime, " +
+           "s.slotEndTime AS slotEndTime, s.status AS status, s.appointmentType AS appointmentType, " +
+           "a.pricing.insuranceAccepted AS insuranceAccepted, a.pricing.baseFee AS baseFee " +
+           "FROM AppointmentSlot s JOIN s.availability a " +
+           "WHERE s.slotStartTime >= :startTime AND s.status IN ('AVAILABLE', 'BOOKED', 'BLOCKED')")
+    Stream<SlotIndexRow> streamIndexRowsStartingFrom(@Param("startTime") ZonedDateTime startTime);
+    
+    // Only the columns the calendar shows; neither entity is loaded
+    @Query("SELECT s.id AS id, s.slotDate AS slotDate, s.slotStartTime AS slotStartTime, " +
+           "s.slotEndTime AS slotEndTime, s.status AS status, s.appointmentType AS appointmentType, " +
+           "a.location.type AS locationType, a.location.address AS locationAddress, " +
+           "a.location.roomNumber AS roomNumber, a.pricing.baseFee AS baseFee, " +
+           "a.pricing.insuranceAccepted AS insuranceAccepted " +
+           "FROM AppointmentSlot s JOIN s.availability a " +
+           "WHERE s.provider.id = :providerId " +
+           "AND s.slotDate BETWEEN :startDate AND :endDate " +
+           "AND (:status IS NULL OR a.status = :status) " +
+           "AND (:appointmentType IS NULL OR a.appointmentType = :appointmentType) " +
+           "ORDER BY s.slotStartTime ASC")
+    List<CalendarSlotRow> findCalendarSlots(
+            @Param("providerId") UUID providerId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("status") ProviderAvailability.AvailabilityStatus status,
+            @Param("appointmentType") ProviderAvailability.AppointmentType appointmentType);
+    
+    @Query("SELECT s.status AS status, COUNT(s) AS slotCount FROM AppointmentSlot s JOIN s.availability a " +
+           "WHERE s.provider.id = :providerId " +
+           "AND s.slotDate BETWEEN :startDate AND :endDate " +
+           "AND (:status IS NULL OR a.status = :status) " +
+           "AND (:appointmentType IS NULL OR a.appointmentType = :appointmentType) " +
+           "GROUP BY s.status")
+    List<SlotStatusCount> countCalendarSlotsByStatus(
+            @Param("providerId") UUID providerId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("status") ProviderAvailability.AvailabilityStatus status,
+            @Param("appointmentType") ProviderAvailability.AppointmentType appointmentType);
+    
+    interface SlotIndexRow {
+        UUID getId();
+        UUID getProviderId();
+        ZonedDateTime getSlotStartTime();
+        ZonedDateTime getSlotEndTime();
+        AppointmentSlot.SlotStatus getStatus();
+        String getAppointmentType();
+        Boolean getInsuranceAccepted();
+        BigDecimal getBaseFee();
+    }
+    
+    interface BookedSlot {
+        UUID getProviderId();
+        OffsetDateTime getSlotStartTime();
+    }
+    
+    interface CalendarSlotRow {
+        UUID getId();
+        LocalDate getSlotDate();
+        ZonedDateTime getSlotStartTime();
+        ZonedDateTime getSlotEndTime();
+        AppointmentSlot.SlotStatus getStatus();
+        String getAppointmentType();
+        AvailabilityLocation.LocationType getLocationType();
+        String getLocationAddress();
+        String getRoomNumber();
+        BigDecimal getBaseFee();
+        Boolean getInsuranceAccepted();
+    }
+    
+    interface SlotStatusCount {
+        AppointmentSlot.SlotStatus getStatus();
+        long getSlotCount();
+    }
+}
@@ -0,0 +1,72 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AvailabilityLocation;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Availability search in SQL: every optional filter becomes a predicate, and rows carry only
+ * the columns a search result shows. Mixed into {@link AppointmentSlotRepository}.
+ */
+public interface AvailableSlotSearchRepository {
+
+    /**
+     * Available slots matching the filter in (slotStartTime, id) order, at most {@code limit}.
+     */
+    List<AvailableSlotRow> searchAvailableSlots(SlotSearchFilter filter, int limit);
+
+    /**
+     * Optional filters; nulls do not filter. Text matches ignore case, and {@code location}
+     * matches anywhere in "city, state zip". {@code afterStartTime} and {@code afterSlotId}
+     * continue after a previous page's last row.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    class SlotSearchFilter {
+        Collection<UUID> slotIds;
+        ZonedDateTime startTime;
+        ZonedDateTime endTime;
+        String appointmentType;
+        String specialization;
+        String city;
+        String state;
+        String zip;
+        String location;
+        Boolean insuranceAccepted;
+        BigDecimal maxPrice;
+        Double minLatitude;
+        Double maxLatitude;
+        Double minLongitude;
+        Double maxLongitude;
+        ZonedDateTime afterStartTime;
+        UUID afterSlotId;
+    }
+
+    record AvailableSlotRow(
+            UUID slotId,
+            ZonedDateTime slotStartTime,
+            ZonedDateTime slotEndTime,
+            String appointmentType,
+            UUID availabilityId,
+            AvailabilityLocation.LocationType locationType,
+            String locationAddress,
+            String roomNumber,
+            BigDecimal baseFee,
+            Boolean insuranceAccepted,
+            String currency,
+            UUID providerId,
+            String firstName,
+            String lastName,
+            String specialization,
+            Integer yearsOfExperience,
+            String street,
+            String city,
+            String state) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class AvailableSlotSearchRepositoryImpl implements AvailableSlotSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<AvailableSlotRow> searchAvailableSlots(SlotSearchFilter filter, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AvailableSlotRow> query = cb.createQuery(AvailableSlotRow.class);
+        Root<AppointmentSlot> slot = query.from(AppointmentSlot.class);
+        // Plain joins: the selected columns come along without loading either entity
+        Join<AppointmentSlot, ProviderAvailability> availability = slot.join("availability");
+        Join<AppointmentSlot, Provider> provider = slot.join("provider");
+        Path<Object> pricing = availability.get("pricing");
+        Path<Object> location = availability.get("location");
+        Path<Object> address = provider.get("clinicAddress");
+
+        query.select(cb.construct(AvailableSlotRow.class,
+                slot.get("id"), slot.get("slotStartTime"), slot.get("slotEndTime"), slot.get("appointmentType"),
+                availability.get("id"), location.get("type"), location.get("address"), location.get("roomNumber"),
+                pricing.get("baseFee"), pricing.get("insuranceAccepted"), pricing.get("currency"),
+                provider.get("id"), provider.get("firstName"), provider.get("lastName"), provider.get("specialization"),
+                provider.get("yearsOfExperience"), address.get("street"), address.get("city"), address.get("state")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(slot.get("status"), AppointmentSlot.SlotStatus.AVAILABLE));
+        if (filter.getSlotIds() != null) {
+            predicates.add(slot.get("id").in(filter.getSlotIds()));
+        }
+        if (filter.getStartTime() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(slot.<ZonedDateTime>get("slotStartTime"), filter.getStartTime()));
+        }
+        if (filter.getEndTime() != null) {
+            predicates.add(cb.lessThan(slot.<ZonedDateTime>get("slotStartTime"), filter.getEndTime()));
+        }
+        if (filter.getAfterStartTime() != null && filter.getAfterSlotId() != null) {
+            predicates.add(cb.or(
+                    cb.greaterThan(slot.<ZonedDateTime>get("slotStartTime"), filter.getAfterStartTime()),
+                    cb.and(cb.equal(slot.get("slotStartTime"), filter.getAfterStartTime()),
+                            cb.greaterThan(slot.<UUID>get("id"), filter.getAfterSlotId()))));
+        }
+        addEqualsIgnoreCase(predicates, cb, slot.<String>get("appointmentType"), filter.getAppointmentType());
+        addEqualsIgnoreCase(predicates, cb, provider.<String>get("specialization"), filter.getSpecialization());
+        addEqualsIgnoreCase(predicates, cb, address.<String>get("city"), filter.getCity());
+        addEqualsIgnoreCase(predicates, cb, address.<String>get("state"), filter.getState());
+        addEqualsIgnoreCase(predicates, cb, address.<String>get("zip"), filter.getZip());
+        if (filter.getLocation() != null) {
+            Expression<String> label = cb.concat(cb.concat(cb.concat(cb.concat(
+                    cb.coalesce(address.<String>get("city"), ""), ", "), cb.coalesce(address.<String>get("state"), "")), " "),
+                    cb.coalesce(address.<String>get("zip"), ""));
+            predicates.add(cb.like(cb.lower(label), "%" + escapeLike(filter.getLocation().toLowerCase(Locale.ROOT)) + "%", '\\'));
+        }
+        if (filter.getInsuranceAccepted() != null) {
+            predicates.add(cb.equal(pricing.get("insuranceAccepted"), filter.getInsuranceAccepted()));
+        }
+        if (filter.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(pricing.<BigDecimal>get("baseFee"), filter.getMaxPrice()));
+        }
+        if (filter.getMinLatitude() != null) {
+            predicates.add(cb.between(address.<Double>get("latitude"), filter.getMinLatitude(), filter.getMaxLatitude()));
+            predicates.add(cb.between(address.<Double>get("longitude"), filter.getMinLongitude(), filter.getMaxLongitude()));
+        }
+
+        query.where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(slot.get("slotStartTime")), cb.asc(slot.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static void addEqualsIgnoreCase(List<Predicate> predicates, CriteriaBuilder cb, Path<String> path, String value) {
+        if (value != null) {
+            predicates.add(cb.equal(cb.lower(path), value.trim().toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,11 +1,20 @@
 package com.healthfirst.provider.repository;
 
 import com.healthfirst.provider.entity.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, UUID> {
@@ -14,7 +23,23 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
     
     Optional<Patient> findByPhoneNumber(String phoneNumber);
     
-    boolean existsByEmail(String email);
+    // UNION ALL rather than OR so each branch is a unique-index lookup
+    @Query("SELECT p.email AS email, p.phoneNumber AS phoneNumber FROM Patient p WHERE p.email = :email " +
+           "UNION ALL SELECT p.email, p.phoneNumber FROM Patient p WHERE p.phoneNumber = :phoneNumber")
+    List<PatientIdentityRow> findIdentityConflicts(@Param("email") String email, @Param("phoneNumber") String phoneNumber);
     
-    boolean existsByPhoneNumber(String phoneNumber);
-} 
\ No newline at end of file
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.email AS email, p.phoneNumber AS phoneNumber FROM Patient p")
+    Stream<PatientIdentityRow> streamIdentities();
+    
+    // Conditional so a password change that lands in between is not overwritten
+    @Transactional
+    @Modifying
+    @Query("UPDATE Patient p SET p.passwordHash = :newHash WHERE p.id = :id AND p.passwordHash = :oldHash")
+    int updatePasswordHash(@Param("id") UUID id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+    
+    interface PatientIdentityRow {
+        String getEmail();
+        String getPhoneNumber();
+    }
+} 
@@ -1,24 +1,41 @@
 package com.healthfirst.provider.repository;
 
 import com.healthfirst.provider.entity.ProviderAvailability;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProviderAvailabilityRepository extends JpaRepository<ProviderAvailability, UUID> {
     
+    @Query("SELECT pa FROM ProviderAvailability pa WHERE pa.provider.id = :providerId " +
+           "AND pa.date BETWEEN :startDate AND :endDate " +
+           "ORDER BY pa.date ASC, pa.startTime ASC")
     List<ProviderAvailability> findByProviderIdAndDateBetweenOrderByDateAscStartTimeAsc(
-            UUID providerId, LocalDate startDate, LocalDate endDate);
+            @Param("providerId") UUID providerId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
     
+    @Query("SELECT pa FROM ProviderAvailability pa WHERE pa.provider.id = :providerId " +
+           "AND pa.date = :date " +
+           "AND pa.status = :status")
     List<ProviderAvailability> findByProviderIdAndDateAndStatus(
-            UUID providerId, LocalDate date, ProviderAvailability.AvailabilityStatus status);
+            @Param("providerId") UUID providerId,
+            @Param("date") LocalDate date,
+            @Param("status") ProviderAvailability.AvailabilityStatus status);
     
     @Query("SELECT pa FROM ProviderAvailability pa WHERE pa.provider.id = :providerId " +
            "AND pa.date BETWEEN :startDate AND :endDate " +
@@ -31,16 +48,26 @@ public interface ProviderAvailabilityRepository extends JpaRepository<ProviderAv
             @Param("status") ProviderAvailability.AvailabilityStatus status,
             @Param("appointmentType") ProviderAvailability.AppointmentType appointmentType);
     
-    @Query("SELECT COUNT(pa) FROM ProviderAvailability pa WHERE pa.provider.id = :providerId " +
-           "AND pa.date = :date " +
-           "AND pa.startTime < :endTime " +
-           "AND pa.endTime > :startTime " +
-           "AND pa.status != 'CANCELLED'")
-    long countOverlappingSlots(
-            @Param("providerId") UUID providerId,
-            @Param("date") LocalDate date,
-            @Param("startTime") String startTime,
-            @Param("endTime") String endTime);
+    // Blocks that can still occur on or after :from, for the overlap index rebuild
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT pa.id AS id, pa.provider.id AS providerId, pa.date AS date, " +
+           "pa.startTime AS startTime, pa.endTime AS endTime, pa.isRecurring AS isRecurring, " +
+           "pa.recurrencePattern AS recurrencePattern, pa.recurrenceEndDate AS recurrenceEndDate " +
+           "FROM ProviderAvailability pa WHERE pa.status != 'CANCELLED' " +
+           "AND (pa.date >= :from OR (pa.isRecurring = true " +
+           "AND (pa.recurrenceEndDate IS NULL OR pa.recurrenceEndDate >= :from)))")
+    Stream<OverlapRow> streamOverlapRowsFrom(@Param("from") LocalDate from);
+    
+    // Saved blocks of these providers that can occur between :from and :until; the final overlap check for new blocks
+    @Query("SELECT pa.id AS id, pa.provider.id AS providerId, pa.date AS date, " +
+           "pa.startTime AS startTime, pa.endTime AS endTime, pa.isRecurring AS isRecurring, " +
+           "pa.recurrencePattern AS recurrencePattern, pa.recurrenceEndDate AS recurrenceEndDate " +
+           "FROM ProviderAvailability pa WHERE pa.provider.id IN :providerIds AND pa.status != 'CANCELLED' " +
+           "AND pa.date <= :until AND (pa.date >= :from OR (pa.isRecurring = true " +
+           "AND (pa.recurrenceEndDate IS NULL OR pa.recurrenceEndDate >= :from)))")
+    List<OverlapRow> findOverlapRows(@Param("providerIds") Collection<UUID> providerIds,
+                                     @Param("from") LocalDate from,
+                                     @Param("until") LocalDate until);
     
     @Query("SELECT COUNT(pa) > 0 FROM ProviderAvailability pa WHERE pa.provider.id = :providerId " +
            "AND pa.date = :date " +
@@ -53,4 +80,59 @@ public interface ProviderAvailabilityRepository extends JpaRepository<ProviderAv
             @Param("startTime") LocalTime startTime, 
             @Param("endTime") LocalTime endTime, 
             @Param("status") ProviderAvailability.AvailabilityStatus status);
-} 
\ No newline at end of file
+    
+    // The daily horizon job's work list
+    @Query("SELECT pa.id FROM ProviderAvailability pa WHERE pa.isRecurring = true " +
+           "AND pa.materializedThrough < :through " +
+           "AND (pa.recurrenceEndDate IS NULL OR pa.materializedThrough < pa.recurrenceEndDate) " +
+           "AND pa.status != 'CANCELLED'")
+    List<UUID> findRecurringIdsDueForMaterialization(@Param("through") LocalDate through);
+    
+    // Reads past the horizon extend only the providers they show; almost always empty, so cached
+    // until provider_availability changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT pa.id FROM ProviderAvailability pa WHERE pa.provider.id IN :providerIds " +
+           "AND pa.isRecurring = true " +
+           "AND pa.materializedThrough < :through " +
+           "AND (pa.recurrenceEndDate IS NULL OR pa.materializedThrough < pa.recurrenceEndDate) " +
+           "AND pa.status != 'CANCELLED'")
+    List<UUID> findRecurringIdsDueForMaterializationIn(
+            @Param("providerIds") Collection<UUID> providerIds,
+            @Param("through") LocalDate through);
+    
+    @Query("SELECT pa FROM ProviderAvailability pa JOIN FETCH pa.provider WHERE pa.id = :id")
+    Optional<ProviderAvailability> findWithProviderById(@Param("id") UUID id);
+    
+    @Query("SELECT pa.materializedThrough FROM ProviderAvailability pa WHERE pa.id = :id")
+    Optional<LocalDate> findMaterializedThroughById(@Param("id") UUID id);
+    
+    // Only one caller can advance a rule from a given materialized_through value
+    @Modifying
+    @Query("UPDATE ProviderAvailability pa SET pa.materializedThrough = :through " +
+           "WHERE pa.id = :id AND pa.materializedThrough = :expected")
+    int advanceMaterializedThrough(
+            @Param("id") UUID id,
+            @Param("expected") LocalDate expected,
+            @Param("through") LocalDate through);
+    
+    // One row per requirement, so a page of search results needs a single query instead of one per availability
+    @Query("SELECT pa.id AS availabilityId, r AS requirement FROM ProviderAvailability pa " +
+           "JOIN pa.specialRequirements r WHERE pa.id IN :ids")
+    List<SpecialRequirementRow> findSpecialRequirementsByIdIn(@Param("ids") Collection<UUID> ids);
+    
+    interface SpecialRequirementRow {
+        UUID getAvailabilityId();
+        String getRequirement();
+    }
+    
+    interface OverlapRow {
+        UUID getId();
+        UUID getProviderId();
+        LocalDate getDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        Boolean getIsRecurring();
+        ProviderAvailability.RecurrencePattern getRecurrencePattern();
+        LocalDate getRecurrenceEndDate();
+    }
+}
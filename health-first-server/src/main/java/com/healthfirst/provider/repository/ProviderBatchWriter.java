@@ -0,0 +1,93 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.security.JwtAuthenticationCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inserts providers with batched JDBC statements for bulk onboarding, and backfills
+ * clinic coordinates. Providers are not attached to the persistence context and entity
+ * listeners do not run; the second-level cache and cached authentications are told about
+ * each write.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProviderBatchWriter {
+
+    public static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_PROVIDER_SQL =
+            "INSERT INTO providers (id, first_name, last_name, email, phone_number, password_hash, specialization, " +
+            "license_number, years_of_experience, street, city, state, zip, latitude, longitude, verification_status, " +
+            "is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_COORDINATES_SQL =
+            "UPDATE providers SET latitude = ?, longitude = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final JwtAuthenticationCache authenticationCache;
+
+    public void insertAll(Collection<Provider> providers) {
+        if (providers.isEmpty()) {
+            return;
+        }
+
+        providers.forEach(provider -> {
+            if (provider.getId() == null) {
+                provider.setId(UUID.randomUUID());
+            }
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_PROVIDER_SQL, providers, BATCH_SIZE, (ps, provider) -> {
+            ps.setObject(1, provider.getId());
+            ps.setString(2, provider.getFirstName());
+            ps.setString(3, provider.getLastName());
+            ps.setString(4, provider.getEmail());
+            ps.setString(5, provider.getPhoneNumber());
+            ps.setString(6, provider.getPasswordHash());
+            ps.setString(7, provider.getSpecialization());
+            ps.setString(8, provider.getLicenseNumber());
+            if (provider.getYearsOfExperience() != null) {
+                ps.setInt(9, provider.getYearsOfExperience());
+            } else {
+                ps.setNull(9, Types.INTEGER);
+            }
+            ps.setString(10, provider.getClinicAddress().getStreet());
+            ps.setString(11, provider.getClinicAddress().getCity());
+            ps.setString(12, provider.getClinicAddress().getState());
+            ps.setString(13, provider.getClinicAddress().getZip());
+            ps.setObject(14, provider.getClinicAddress().getLatitude(), Types.DOUBLE);
+            ps.setObject(15, provider.getClinicAddress().getLongitude(), Types.DOUBLE);
+            ps.setString(16, provider.getVerificationStatus().name());
+            ps.setBoolean(17, provider.isActive());
+            ps.setObject(18, provider.getCreatedAt().atOffset(ZoneOffset.UTC));
+            ps.setObject(19, provider.getUpdatedAt().atOffset(ZoneOffset.UTC));
+        });
+        cacheEvictor.providersInserted();
+        // A token for an id that did not exist yet is cached as unauthenticated
+        authenticationCache.providersChanged(providers.stream().map(Provider::getId).toList());
+    }
+
+    public void updateCoordinates(Collection<Coordinates> coordinates) {
+        jdbcTemplate.batchUpdate(UPDATE_COORDINATES_SQL, coordinates, BATCH_SIZE, (ps, row) -> {
+            ps.setDouble(1, row.latitude());
+            ps.setDouble(2, row.longitude());
+            ps.setObject(3, row.providerId());
+        });
+        List<UUID> providerIds = coordinates.stream().map(Coordinates::providerId).toList();
+        cacheEvictor.providersUpdated(providerIds);
+        authenticationCache.providersChanged(providerIds);
+    }
+
+    public record Coordinates(UUID providerId, double latitude, double longitude) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.Provider;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset-paged provider directory. Mixed into {@link ProviderRepository}.
+ */
+public interface ProviderDirectoryRepository {
+
+    /**
+     * Providers matching the query in its sort order, continuing after {@code query.after}
+     * when set, at most {@code limit}.
+     */
+    List<ProviderDirectoryRow> findDirectoryPage(DirectoryQuery query, int limit);
+
+    // Each order ends with the id so that positions are unique
+    enum SortField {
+        NAME, EMAIL, CREATED_AT
+    }
+
+    /**
+     * Null filters do not filter. {@code after} only needs the sort fields and the id.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    class DirectoryQuery {
+        String specialization;
+        Provider.VerificationStatus verificationStatus;
+        @Builder.Default
+        SortField sort = SortField.NAME;
+        boolean descending;
+        ProviderDirectoryRow after;
+    }
+
+    record ProviderDirectoryRow(
+            UUID id,
+            String firstName,
+            String lastName,
+            String email,
+            String specialization,
+            Provider.VerificationStatus verificationStatus,
+            boolean active,
+            Instant createdAt) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.Provider;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class ProviderDirectoryRepositoryImpl implements ProviderDirectoryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<ProviderDirectoryRow> findDirectoryPage(DirectoryQuery query, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProviderDirectoryRow> criteria = cb.createQuery(ProviderDirectoryRow.class);
+        Root<Provider> provider = criteria.from(Provider.class);
+        criteria.select(cb.construct(ProviderDirectoryRow.class,
+                provider.get("id"), provider.get("firstName"), provider.get("lastName"), provider.get("email"),
+                provider.get("specialization"), provider.get("verificationStatus"), provider.get("isActive"),
+                provider.get("createdAt")));
+
+        List<Path<? extends Comparable<?>>> keys = sortKeys(provider, query.getSort());
+        List<Predicate> predicates = new ArrayList<>();
+        if (query.getSpecialization() != null) {
+            predicates.add(cb.equal(provider.get("specialization"), query.getSpecialization()));
+        }
+        if (query.getVerificationStatus() != null) {
+            predicates.add(cb.equal(provider.get("verificationStatus"), query.getVerificationStatus()));
+        }
+        if (query.getAfter() != null) {
+            predicates.add(after(cb, keys, positionOf(query.getAfter(), query.getSort()), query.isDescending()));
+        }
+
+        List<Order> orders = keys.stream()
+                .map(key -> query.isDescending() ? cb.desc(key) : cb.asc(key))
+                .toList();
+        criteria.where(predicates.toArray(Predicate[]::new)).orderBy(orders);
+        return entityManager.createQuery(criteria)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static List<Path<? extends Comparable<?>>> sortKeys(Root<Provider> provider, SortField sort) {
+        return switch (sort) {
+            case NAME -> List.of(provider.<String>get("lastName"), provider.<String>get("firstName"), provider.<UUID>get("id"));
+            case EMAIL -> List.of(provider.<String>get("email"), provider.<UUID>get("id"));
+            case CREATED_AT -> List.of(provider.<Instant>get("createdAt"), provider.<UUID>get("id"));
+        };
+    }
+
+    private static List<Comparable<?>> positionOf(ProviderDirectoryRow row, SortField sort) {
+        return switch (sort) {
+            case NAME -> List.of(row.lastName(), row.firstName(), row.id());
+            case EMAIL -> List.of(row.email(), row.id());
+            case CREATED_AT -> List.of(row.createdAt(), row.id());
+        };
+    }
+
+    // (k1, k2, ..) > (v1, v2, ..) spelled out, led by k1 >= v1 so the database can seek
+    // into the matching index instead of testing every row against the OR
+    private static Predicate after(CriteriaBuilder cb, List<Path<? extends Comparable<?>>> keys,
+                                   List<Comparable<?>> values, boolean descending) {
+        Predicate tail = null;
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            Predicate beyond = beyond(cb, keys.get(i), values.get(i), descending, true);
+            tail = tail == null ? beyond : cb.or(beyond, cb.and(cb.equal(keys.get(i), values.get(i)), tail));
+        }
+        return cb.and(beyond(cb, keys.get(0), values.get(0), descending, false), tail);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate beyond(CriteriaBuilder cb, Path<? extends Comparable<?>> key, Comparable<?> value,
+                                    boolean descending, boolean strict) {
+        Expression path = key;
+        Comparable bound = value;
+        if (descending) {
+            return strict ? cb.lessThan(path, bound) : cb.lessThanOrEqualTo(path, bound);
+        }
+        return strict ? cb.greaterThan(path, bound) : cb.greaterThanOrEqualTo(path, bound);
+    }
+}
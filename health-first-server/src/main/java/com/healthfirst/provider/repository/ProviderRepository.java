@@ -1,12 +1,117 @@
 package com.healthfirst.provider.repository;
 
 import com.healthfirst.provider.entity.Provider;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface ProviderRepository extends JpaRepository<Provider, UUID> {
+public interface ProviderRepository extends JpaRepository<Provider, UUID>, ProviderDirectoryRepository {
+    // Login lookup: the cached result is the provider id, and the row itself comes from the entity cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Provider> findByEmail(String email);
     Optional<Provider> findByPhoneNumber(String phoneNumber);
     Optional<Provider> findByLicenseNumber(String licenseNumber);
-} 
\ No newline at end of file
+
+    // UNION ALL rather than OR so each branch is a unique-index lookup
+    @Query("SELECT p.email AS email, p.phoneNumber AS phoneNumber, p.licenseNumber AS licenseNumber " +
+           "FROM Provider p WHERE p.email = :email " +
+           "UNION ALL SELECT p.email, p.phoneNumber, p.licenseNumber FROM Provider p WHERE p.phoneNumber = :phoneNumber " +
+           "UNION ALL SELECT p.email, p.phoneNumber, p.licenseNumber FROM Provider p WHERE p.licenseNumber = :licenseNumber")
+    List<ProviderIdentityRow> findIdentityConflicts(@Param("email") String email,
+                                                    @Param("phoneNumber") String phoneNumber,
+                                                    @Param("licenseNumber") String licenseNumber);
+
+    @Query("SELECT p.email AS email, p.phoneNumber AS phoneNumber, p.licenseNumber AS licenseNumber " +
+           "FROM Provider p WHERE p.email IN :emails " +
+           "UNION ALL SELECT p.email, p.phoneNumber, p.licenseNumber FROM Provider p WHERE p.phoneNumber IN :phoneNumbers " +
+           "UNION ALL SELECT p.email, p.phoneNumber, p.licenseNumber FROM Provider p WHERE p.licenseNumber IN :licenseNumbers")
+    List<ProviderIdentityRow> findIdentityConflictsIn(@Param("emails") Collection<String> emails,
+                                                      @Param("phoneNumbers") Collection<String> phoneNumbers,
+                                                      @Param("licenseNumbers") Collection<String> licenseNumbers);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.email AS email, p.phoneNumber AS phoneNumber, p.licenseNumber AS licenseNumber FROM Provider p")
+    Stream<ProviderIdentityRow> streamIdentities();
+
+    // Availability writers lock their providers' rows so overlap checks for one provider take turns
+    // across instances; rows are locked in id order so two writers never deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Provider p WHERE p.id IN :ids ORDER BY p.id")
+    List<Provider> lockAllById(@Param("ids") Collection<UUID> ids);
+
+    // Conditional so a password change that lands in between is not overwritten
+    @Transactional
+    @Modifying
+    @Query("UPDATE Provider p SET p.passwordHash = :newHash WHERE p.id = :id AND p.passwordHash = :oldHash")
+    int updatePasswordHash(@Param("id") UUID id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    @Query("SELECT DISTINCT p.id AS id, p.specialization AS specialization, p.clinicAddress.city AS city, " +
+           "p.clinicAddress.state AS state, p.clinicAddress.zip AS zip, " +
+           "p.clinicAddress.latitude AS latitude, p.clinicAddress.longitude AS longitude " +
+           "FROM AppointmentSlot s JOIN s.provider p " +
+           "WHERE s.slotStartTime >= :startTime AND s.status = 'AVAILABLE'")
+    List<ProviderIndexRow> findIndexRowsWithAvailableSlotsFrom(@Param("startTime") ZonedDateTime startTime);
+
+    @Query("SELECT p.id AS id, p.clinicAddress.zip AS zip FROM Provider p " +
+           "WHERE p.clinicAddress.latitude IS NULL AND p.clinicAddress.zip IS NOT NULL")
+    List<ProviderZipRow> findZipsWithoutCoordinates();
+
+    @Query("SELECT p.id AS id, p.email AS email, p.firstName AS firstName, p.lastName AS lastName, " +
+           "p.verificationStatus AS verificationStatus, p.isActive AS active FROM Provider p")
+    List<ProviderSummaryRow> findAllSummaries();
+
+    // Directory export: read through a JDBC cursor in fetch-size batches, unsorted, so rows
+    // can be written out as they arrive without the result ever being held in memory
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.healthfirst.provider.repository.ProviderDirectoryRepository$ProviderDirectoryRow(" +
+           "p.id, p.firstName, p.lastName, p.email, p.specialization, p.verificationStatus, p.isActive, p.createdAt) " +
+           "FROM Provider p " +
+           "WHERE (:specialization IS NULL OR p.specialization = :specialization) " +
+           "AND (:verificationStatus IS NULL OR p.verificationStatus = :verificationStatus)")
+    Stream<ProviderDirectoryRow> streamDirectory(@Param("specialization") String specialization,
+                                                 @Param("verificationStatus") Provider.VerificationStatus verificationStatus);
+
+    interface ProviderSummaryRow {
+        UUID getId();
+        String getEmail();
+        String getFirstName();
+        String getLastName();
+        Provider.VerificationStatus getVerificationStatus();
+        boolean isActive();
+    }
+
+    interface ProviderIdentityRow {
+        String getEmail();
+        String getPhoneNumber();
+        String getLicenseNumber();
+    }
+
+    interface ProviderIndexRow {
+        UUID getId();
+        String getSpecialization();
+        String getCity();
+        String getState();
+        String getZip();
+        Double getLatitude();
+        Double getLongitude();
+    }
+
+    interface ProviderZipRow {
+        UUID getId();
+        String getZip();
+    }
+}
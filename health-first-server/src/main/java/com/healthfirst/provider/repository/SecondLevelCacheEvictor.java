@@ -0,0 +1,50 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.Provider;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Eviction hooks for writes Hibernate does not see (batched JDBC). Entity and query
+ * cache entries are dropped right away and again after commit, since a request between
+ * the write and the commit may have cached the old rows again.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void providersUpdated(Collection<UUID> providerIds) {
+        runNowAndAfterCommit(cache -> {
+            providerIds.forEach(providerId -> cache.evict(Provider.class, providerId));
+            cache.evictDefaultQueryRegion();
+        });
+    }
+
+    // New rows can change cached query results, e.g. a login lookup that found nobody
+    public void providersInserted() {
+        runNowAndAfterCommit(Cache::evictDefaultQueryRegion);
+    }
+
+    private void runNowAndAfterCommit(Consumer<Cache> eviction) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        eviction.accept(cache);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.accept(cache);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.healthfirst.provider.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.jsonwebtoken.Claims;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verified tokens keyed by their SHA-256 hash. Entries expire with the token and are
+ * dropped whenever the provider or patient they belong to changes; an index from each
+ * owner to its cached keys keeps that proportional to the owner's own tokens.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private final Cache<String, CachedToken> cache;
+
+    // Guarded per owner by the maps' compute methods
+    private final Map<UUID, Set<String>> keysByProvider = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<String>> keysByPatient = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so loads that raced with one are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public JwtAuthenticationCache(@org.springframework.beans.factory.annotation.Value("${security.jwt.cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, CachedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedToken token, long currentTime) {
+                        return remainingNanos(token);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedToken token, long currentTime, long currentDuration) {
+                        return remainingNanos(token);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .evictionListener((String key, CachedToken token, RemovalCause cause) -> unindex(key, token))
+                .build();
+    }
+
+    public CachedToken get(String token) {
+        return cache.getIfPresent(hash(token));
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a token loaded while {@code loadedAtGeneration} was current, unless a
+     * provider or patient was invalidated in the meantime.
+     */
+    public void put(String token, CachedToken cachedToken, long loadedAtGeneration) {
+        String key = hash(token);
+        // Indexed before it is cached, so an eviction always finds the key to unindex
+        index(keysByProvider, cachedToken.getProviderId(), key);
+        index(keysByPatient, cachedToken.getPatientId(), key);
+        cache.put(key, cachedToken);
+        if (generation.get() != loadedAtGeneration) {
+            cache.invalidate(key);
+            unindex(key, cachedToken);
+        }
+    }
+
+    public void invalidateProvider(UUID providerId) {
+        invalidate(keysByProvider, providerId);
+    }
+
+    public void invalidatePatient(UUID patientId) {
+        invalidate(keysByPatient, patientId);
+    }
+
+    /**
+     * Drops the providers' tokens now and again once the current transaction commits:
+     * requests between the write and the commit may have re-read the old rows.
+     */
+    public void providersChanged(Collection<UUID> providerIds) {
+        nowAndAfterCommit(() -> providerIds.forEach(this::invalidateProvider));
+    }
+
+    /**
+     * Like {@link #providersChanged(Collection)}, for patients.
+     */
+    public void patientsChanged(Collection<UUID> patientIds) {
+        nowAndAfterCommit(() -> patientIds.forEach(this::invalidatePatient));
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private void invalidate(Map<UUID, Set<String>> keysByOwner, UUID ownerId) {
+        generation.incrementAndGet();
+        Set<String> keys = keysByOwner.remove(ownerId);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    private static void nowAndAfterCommit(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private static void index(Map<UUID, Set<String>> keysByOwner, UUID ownerId, String key) {
+        if (ownerId != null) {
+            keysByOwner.compute(ownerId, (id, keys) -> {
+                Set<String> indexed = keys != null ? keys : new HashSet<>();
+                indexed.add(key);
+                return indexed;
+            });
+        }
+    }
+
+    private void unindex(String key, CachedToken token) {
+        unindex(keysByProvider, token.getProviderId(), key);
+        unindex(keysByPatient, token.getPatientId(), key);
+    }
+
+    private static void unindex(Map<UUID, Set<String>> keysByOwner, UUID ownerId, String key) {
+        if (ownerId != null) {
+            keysByOwner.computeIfPresent(ownerId, (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private static long remainingNanos(CachedToken token) {
+        return Math.max(0, Duration.between(Instant.now(), token.getExpiresAt()).toNanos());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Outcome of verifying a token. {@code principal} is a {@link ProviderPrincipal} or a
+     * {@link PatientPrincipal}, or null when the token is valid but its owner may not
+     * authenticate (inactive, unverified or missing).
+     */
+    @Value
+    public static class CachedToken {
+        UUID providerId;
+        UUID patientId;
+        Claims claims;
+        Object principal;
+        Instant expiresAt;
+    }
+}
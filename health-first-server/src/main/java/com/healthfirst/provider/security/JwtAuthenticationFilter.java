@@ -1,6 +1,8 @@
 package com.healthfirst.provider.security;
 
+import com.healthfirst.provider.entity.Patient;
 import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.PatientRepository;
 import com.healthfirst.provider.repository.ProviderRepository;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
@@ -11,20 +13,20 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final ProviderRepository providerRepository;
+    private final PatientRepository patientRepository;
+    private final JwtAuthenticationCache authenticationCache;
+    private final JwtUtil jwtUtil;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -39,19 +41,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             String token = authHeader.substring(7); // Remove "Bearer "
-            Claims claims = JwtUtil.validateToken(token);
             
-            String providerId = claims.get("provider_id", String.class);
-            String email = claims.getSubject();
-            
-            // Verify provider exists and is active
-            Provider provider = providerRepository.findById(UUID.fromString(providerId))
-                    .orElse(null);
+            // Hot path: a token already verified is a single hash lookup
+            JwtAuthenticationCache.CachedToken cachedToken = authenticationCache.get(token);
+            if (cachedToken == null) {
+                cachedToken = verify(token);
+            }
             
-            if (provider != null && provider.isActive() && "verified".equals(provider.getVerificationStatus())) {
-                // Create authentication token
+            if (cachedToken.getPrincipal() != null) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    provider, null, new ArrayList<>()
+                    cachedToken.getPrincipal(), null, List.of()
                 );
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
@@ -65,4 +64,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-} 
\ No newline at end of file
+
+    private JwtAuthenticationCache.CachedToken verify(String token) {
+        long generation = authenticationCache.generation();
+        Claims claims = jwtUtil.validateToken(token);
+        
+        String providerIdClaim = claims.get("provider_id", String.class);
+        UUID providerId = providerIdClaim != null ? UUID.fromString(providerIdClaim) : null;
+        String patientIdClaim = claims.get("patient_id", String.class);
+        UUID patientId = providerId == null && patientIdClaim != null ? UUID.fromString(patientIdClaim) : null;
+        
+        Object principal = null;
+        if (providerId != null) {
+            // Verify provider exists, is active and verified
+            Provider provider = providerRepository.findById(providerId).orElse(null);
+            if (provider != null && provider.isActive()
+                    && provider.getVerificationStatus() == Provider.VerificationStatus.VERIFIED) {
+                principal = ProviderPrincipal.from(provider);
+            }
+        } else if (patientId != null) {
+            // Same rules as patient login: active with a verified email
+            Patient patient = patientRepository.findById(patientId).orElse(null);
+            if (patient != null && patient.isActive() && patient.isEmailVerified()) {
+                principal = PatientPrincipal.from(patient);
+            }
+        }
+        
+        JwtAuthenticationCache.CachedToken cachedToken = new JwtAuthenticationCache.CachedToken(
+                providerId, patientId, claims, principal, claims.getExpiration().toInstant());
+        authenticationCache.put(token, cachedToken, generation);
+        return cachedToken;
+    }
+}
@@ -1,52 +1,57 @@
 package com.healthfirst.provider.security;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.Map;
-import javax.crypto.SecretKey;
 
 @Component
 public class JwtUtil {
-    private static final String SECRET = "super-secret-key-for-provider-jwt-auth-should-be-long";
-    private static final SecretKey KEY = Keys.hmacShaKeyFor(SECRET.getBytes());
-    private static final long DEFAULT_EXPIRATION_MS = 3600_000; // 1 hour
+    private final SecretKey key;
+    // JwtParser is immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
+    private final long expirationMs;
+
+    public JwtUtil(@Value("${security.jwt.secret}") String secret,
+                   @Value("${security.jwt.expiration-ms:3600000}") long expirationMs) {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.expirationMs = expirationMs;
+    }
 
-    public static String generateToken(Map<String, Object> claims, String subject) {
-        return generateToken(claims, subject, DEFAULT_EXPIRATION_MS);
+    public String generateToken(Map<String, Object> claims, String subject) {
+        return generateToken(claims, subject, expirationMs);
     }
     
-    public static String generateToken(Map<String, Object> claims, long expirationSeconds) {
+    public String generateToken(Map<String, Object> claims, long expirationSeconds) {
         return generateToken(claims, "health-first", expirationSeconds * 1000);
     }
     
-    public static String generateToken(Map<String, Object> claims, String subject, long expirationMs) {
+    public String generateToken(Map<String, Object> claims, String subject, long expirationMs) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + expirationMs);
         return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(now)
-                .setExpiration(expiry)
-                .signWith(KEY, SignatureAlgorithm.HS256)
+                .claims(claims)
+                .subject(subject)
+                .issuedAt(now)
+                .expiration(expiry)
+                .signWith(key, Jwts.SIG.HS256)
                 .compact();
     }
 
-    public static Claims validateToken(String token) throws JwtException {
-        return Jwts.parser()
-                .verifyWith(KEY)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public Claims validateToken(String token) throws JwtException {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    public static long getDefaultExpirationMs() {
-        return DEFAULT_EXPIRATION_MS;
+    public long getExpirationMs() {
+        return expirationMs;
     }
-} 
\ No newline at end of file
+}
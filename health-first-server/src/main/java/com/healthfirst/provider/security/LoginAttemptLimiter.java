@@ -0,0 +1,77 @@
+package com.healthfirst.provider.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Counts failed logins per account in a fixed window. Once an account reaches the limit,
+ * further attempts are refused before the password is hashed, so a brute-force run costs
+ * a map lookup instead of a BCrypt round.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private final Cache<String, Window> failures;
+    private final Ticker ticker;
+    private final int maxFailures;
+    private final long windowNanos;
+
+    @Autowired
+    public LoginAttemptLimiter(@Value("${security.login.max-failures:5}") int maxFailures,
+                               @Value("${security.login.failure-window:PT15M}") Duration window,
+                               @Value("${security.login.max-tracked-accounts:100000}") long maxTrackedAccounts) {
+        this(maxFailures, window, maxTrackedAccounts, Ticker.systemTicker());
+    }
+
+    LoginAttemptLimiter(int maxFailures, Duration window, long maxTrackedAccounts, Ticker ticker) {
+        this.maxFailures = maxFailures;
+        this.windowNanos = window.toNanos();
+        this.ticker = ticker;
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(maxTrackedAccounts)
+                .expireAfterWrite(window)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Throws {@link LoginRateLimitedException} when the account has used up its failures.
+     */
+    public void checkAllowed(String role, String email) {
+        Window window = failures.getIfPresent(key(role, email));
+        if (window == null) {
+            return;
+        }
+        long remainingNanos = window.startedAt + windowNanos - ticker.read();
+        if (window.count >= maxFailures && remainingNanos > 0) {
+            throw new LoginRateLimitedException("Too many failed login attempts, please try again later",
+                    Math.max(1, Duration.ofNanos(remainingNanos).toSeconds()));
+        }
+    }
+
+    public void recordFailure(String role, String email) {
+        long now = ticker.read();
+        failures.asMap().compute(key(role, email), (key, window) ->
+                window == null || now - window.startedAt >= windowNanos
+                        ? new Window(now, 1)
+                        : new Window(window.startedAt, window.count + 1));
+    }
+
+    public void recordSuccess(String role, String email) {
+        failures.invalidate(key(role, email));
+    }
+
+    private static String key(String role, String email) {
+        return role + ':' + (email == null ? "" : email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private record Window(long startedAt, int count) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.healthfirst.provider.security;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an account has too many recent failed logins. Controllers answer 429 with
+ * a Retry-After header.
+ */
+@Getter
+public class LoginRateLimitedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public LoginRateLimitedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,20 @@
+package com.healthfirst.provider.security;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the password hashing executor is saturated. Controllers answer 503 with
+ * a Retry-After header instead of queueing the request thread behind the backlog.
+ */
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
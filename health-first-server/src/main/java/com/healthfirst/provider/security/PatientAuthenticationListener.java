@@ -0,0 +1,26 @@
+package com.healthfirst.provider.security;
+
+import com.healthfirst.provider.entity.Patient;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops cached authentications when a patient row changes, so deactivation or a change to
+ * email verification takes effect on the next request.
+ */
+@Component
+@RequiredArgsConstructor
+public class PatientAuthenticationListener {
+
+    private final JwtAuthenticationCache authenticationCache;
+
+    @PostUpdate
+    @PostRemove
+    public void patientChanged(Patient patient) {
+        authenticationCache.patientsChanged(List.of(patient.getId()));
+    }
+}
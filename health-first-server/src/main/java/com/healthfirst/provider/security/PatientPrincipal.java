@@ -0,0 +1,19 @@
+package com.healthfirst.provider.security;
+
+import com.healthfirst.provider.entity.Patient;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of an authenticated patient, safe to share across requests.
+ */
+@Value
+public class PatientPrincipal {
+    UUID patientId;
+    String email;
+
+    public static PatientPrincipal from(Patient patient) {
+        return new PatientPrincipal(patient.getId(), patient.getEmail());
+    }
+}
@@ -0,0 +1,27 @@
+package com.healthfirst.provider.security;
+
+import com.healthfirst.provider.entity.Provider;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops cached authentications when a provider row changes, so deactivation or a
+ * verification status change takes effect on the next request. Bulk JPQL updates and the
+ * JDBC writers skip entity listeners and call {@link JwtAuthenticationCache} themselves.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProviderAuthenticationListener {
+
+    private final JwtAuthenticationCache authenticationCache;
+
+    @PostUpdate
+    @PostRemove
+    public void providerChanged(Provider provider) {
+        authenticationCache.providersChanged(List.of(provider.getId()));
+    }
+}
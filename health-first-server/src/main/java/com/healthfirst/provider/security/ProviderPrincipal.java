@@ -0,0 +1,22 @@
+package com.healthfirst.provider.security;
+
+import com.healthfirst.provider.entity.Provider;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of an authenticated provider, safe to share across requests.
+ */
+@Value
+public class ProviderPrincipal {
+    UUID providerId;
+    String email;
+    String specialization;
+    Provider.VerificationStatus verificationStatus;
+
+    public static ProviderPrincipal from(Provider provider) {
+        return new ProviderPrincipal(provider.getId(), provider.getEmail(),
+                provider.getSpecialization(), provider.getVerificationStatus());
+    }
+}
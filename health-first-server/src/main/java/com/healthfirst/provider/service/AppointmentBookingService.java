@@ -0,0 +1,113 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.dto.BookAppointmentRequest;
+import com.healthfirst.provider.dto.BookingResponse;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Patient;
+import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.PatientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentBookingService {
+
+    private static final char[] REFERENCE_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
+    private static final int REFERENCE_LENGTH = 10;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final AppointmentSlotRepository slotRepository;
+    private final PatientRepository patientRepository;
+    private final AvailabilitySlotIndex slotIndex;
+
+    @Transactional
+    public BookingResponse bookSlot(BookAppointmentRequest request, UUID patientId) {
+        // A single conditional update decides the winner. Losers match zero rows and only ever wait
+        // on the slot's own row lock, so attempts on different slots never serialise.
+        String bookingReference = generateBookingReference();
+        Optional<AppointmentSlotRepository.BookedSlot> booked;
+        try {
+            booked = slotRepository.bookIfAvailable(
+                    request.getSlotId(), patientId, bookingReference, OffsetDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            // Only a missing patient is the caller's fault; anything else (e.g. a reference collision) is not
+            if (!patientRepository.existsById(patientId)) {
+                throw new IllegalArgumentException("Patient not found");
+            }
+            throw e;
+        }
+        
+        if (booked.isEmpty()) {
+            if (!slotRepository.existsById(request.getSlotId())) {
+                throw new IllegalArgumentException("Slot not found");
+            }
+            throw new IllegalStateException("Slot is no longer available");
+        }
+        
+        // Only the winner pays for the patient lookup; throwing here rolls the booking back
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new IllegalArgumentException("Patient not found"));
+        if (!Boolean.TRUE.equals(patient.getIsActive())) {
+            throw new IllegalArgumentException("Patient is not active");
+        }
+        
+        // The update never loaded the slot; the row it returned places it in the search index
+        slotIndex.updateStatus(booked.get().getProviderId(), request.getSlotId(),
+                booked.get().getSlotStartTime().toInstant(), AppointmentSlot.SlotStatus.BOOKED);
+
+        return BookingResponse.builder()
+                .success(true)
+                .message("Appointment booked successfully")
+                .data(BookingResponse.BookingData.builder()
+                        .bookingReference(bookingReference)
+                        .slotId(request.getSlotId())
+                        .patientId(patient.getId())
+                        .status(AppointmentSlot.SlotStatus.BOOKED.name())
+                        .build())
+                .build();
+    }
+
+    @Transactional
+    public BookingResponse cancelBooking(String bookingReference, UUID patientId) {
+        AppointmentSlot slot = slotRepository.findByBookingReference(bookingReference)
+                .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
+
+        if (slotRepository.releaseBooking(slot.getId(), bookingReference, patientId) == 0) {
+            throw new IllegalArgumentException("Booking not found");
+        }
+
+        // The slot is bookable again; reload it with its availability for the search index
+        AppointmentSlot released = slotRepository.findAllForSearchByIdIn(List.of(slot.getId())).get(0);
+        slotIndex.put(released);
+
+        return BookingResponse.builder()
+                .success(true)
+                .message("Appointment cancelled successfully")
+                .data(BookingResponse.BookingData.builder()
+                        .bookingReference(bookingReference)
+                        .slotId(slot.getId())
+                        .patientId(patientId)
+                        .status(released.getStatus().name())
+                        .build())
+                .build();
+    }
+
+    private static String generateBookingReference() {
+        StringBuilder reference = new StringBuilder("HF-");
+        for (int i = 0; i < REFERENCE_LENGTH; i++) {
+            reference.append(REFERENCE_ALPHABET[RANDOM.nextInt(REFERENCE_ALPHABET.length)]);
+        }
+        return reference.toString();
+    }
+}
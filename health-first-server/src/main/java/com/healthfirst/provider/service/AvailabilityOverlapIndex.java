@@ -0,0 +1,274 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import com.healthfirst.provider.repository.ProviderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory overlap index of every provider's non-cancelled availability blocks, including
+ * recurring rules. It rejects most overlapping blocks without a query, but it never sees
+ * blocks saved by other instances, so a block that passes it is checked once more against
+ * the database under a lock on its provider's row. New blocks are reserved here before they
+ * are saved; a reservation is dropped if its transaction rolls back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityOverlapIndex {
+
+    // Recurring rules without an end date can occur on any later date
+    private static final LocalDate OPEN_ENDED = LocalDate.of(9999, 12, 31);
+
+    private final ProviderAvailabilityRepository availabilityRepository;
+    private final ProviderRepository providerRepository;
+
+    // Replaced as a whole by rebuild(), so a check never sees a half-loaded index
+    private volatile ConcurrentMap<UUID, ProviderBlocks> providers = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        // Times are wall-clock in each block's own zone; a day of slack covers every offset
+        LocalDate from = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        ConcurrentMap<UUID, ProviderBlocks> rebuilt = new ConcurrentHashMap<>();
+
+        int[] blocks = {0};
+        try (Stream<ProviderAvailabilityRepository.OverlapRow> rows = availabilityRepository.streamOverlapRowsFrom(from)) {
+            rows.forEach(row -> {
+                rebuilt.computeIfAbsent(row.getProviderId(), id -> new ProviderBlocks()).addCommitted(block(row));
+                blocks[0]++;
+            });
+        }
+        // Blocks reserved while this ran may be missing until the next rebuild; the database check still sees them
+        providers = rebuilt;
+
+        log.info("Availability overlap index rebuilt with {} blocks for {} providers", blocks[0], rebuilt.size());
+    }
+
+    @Scheduled(cron = "0 20 0 * * *", zone = "UTC")
+    public void evictEnded() {
+        LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        providers.values().forEach(blocks -> blocks.evictEndedBefore(cutoff));
+    }
+
+    /**
+     * Adds the block to its provider's schedule unless it overlaps one already there. Call
+     * within the transaction that saves the block: the reservation is dropped on rollback.
+     *
+     * @return false when the block overlaps existing availability
+     */
+    public boolean tryReserve(ProviderAvailability availability) {
+        return !tryReserveAll(List.of(availability)).isEmpty();
+    }
+
+    /**
+     * Reserves each candidate, in order, that overlaps neither existing availability nor a
+     * candidate reserved before it. Call within the transaction that saves them, before they
+     * are flushed; the providers' rows stay locked until it ends.
+     *
+     * @return the reserved candidates, compared by identity
+     */
+    public Set<ProviderAvailability> tryReserveAll(List<ProviderAvailability> candidates) {
+        // Most clashes are caught here without a query
+        Map<ProviderAvailability, AvailabilitySchedule.Block> clear = new IdentityHashMap<>();
+        for (ProviderAvailability candidate : candidates) {
+            AvailabilitySchedule.Block block = AvailabilitySchedule.Block.of(candidate);
+            ProviderBlocks blocks = providers.get(candidate.getProvider().getId());
+            if (blocks == null || !blocks.overlaps(block, null)) {
+                clear.put(candidate, block);
+            }
+        }
+        Set<ProviderAvailability> reserved = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (clear.isEmpty()) {
+            return reserved;
+        }
+
+        Map<UUID, AvailabilitySchedule> saved = loadSaved(
+                clear.keySet().stream().map(candidate -> candidate.getProvider().getId()).toList(),
+                clear.values().stream().map(AvailabilitySchedule.Block::getDate).min(LocalDate::compareTo).orElseThrow(),
+                clear.values().stream().map(AvailabilityOverlapIndex::lastDate).max(LocalDate::compareTo).orElseThrow());
+        for (ProviderAvailability candidate : candidates) {
+            AvailabilitySchedule.Block block = clear.get(candidate);
+            if (block == null) {
+                continue;
+            }
+            AvailabilitySchedule savedBlocks = saved.get(candidate.getProvider().getId());
+            if (savedBlocks != null && savedBlocks.findConflict(block, other -> false).isPresent()) {
+                continue;
+            }
+            ProviderBlocks blocks = blocksFor(candidate.getProvider().getId());
+            if (blocks.tryAdd(block)) {
+                reserved.add(candidate);
+                afterCompletion(committed -> {
+                    if (committed) {
+                        blocks.commit(block, candidate.getId());
+                    } else {
+                        blocks.remove(block);
+                    }
+                });
+            }
+        }
+        return reserved;
+    }
+
+    /**
+     * Whether [startTime, endTime) on {@code date} overlaps any of the provider's blocks other
+     * than {@code availabilityId}; used when a slot is moved. An end at or before the start
+     * is read as midnight. Call within the transaction that saves the move.
+     */
+    public boolean overlapsOtherBlock(UUID providerId, UUID availabilityId, LocalDate date,
+                                      LocalTime startTime, LocalTime endTime) {
+        AvailabilitySchedule.Block candidate = new AvailabilitySchedule.Block(null, date, startTime, endTime, null, null);
+        ProviderBlocks blocks = providers.get(providerId);
+        if (blocks != null && blocks.overlaps(candidate, availabilityId)) {
+            return true;
+        }
+        AvailabilitySchedule saved = loadSaved(List.of(providerId), date, date).get(providerId);
+        return saved != null && saved.findConflict(candidate,
+                block -> availabilityId != null && availabilityId.equals(block.getAvailabilityId())).isPresent();
+    }
+
+    /**
+     * Re-reads a block whose dates, times or status changed, once the transaction commits.
+     */
+    public void update(ProviderAvailability availability) {
+        UUID providerId = availability.getProvider().getId();
+        AvailabilitySchedule.Block block = availability.getStatus() == ProviderAvailability.AvailabilityStatus.CANCELLED
+                ? null
+                : AvailabilitySchedule.Block.of(availability);
+        afterCompletion(committed -> {
+            if (committed) {
+                blocksFor(providerId).replace(availability.getId(), block);
+            }
+        });
+    }
+
+    public int size() {
+        return providers.values().stream().mapToInt(ProviderBlocks::size).sum();
+    }
+
+    private ProviderBlocks blocksFor(UUID providerId) {
+        return providers.computeIfAbsent(providerId, id -> new ProviderBlocks());
+    }
+
+    // Locks the providers' rows, then reads their saved blocks that can occur in [from, until]
+    private Map<UUID, AvailabilitySchedule> loadSaved(Collection<UUID> providerIds, LocalDate from, LocalDate until) {
+        Set<UUID> distinctIds = new HashSet<>(providerIds);
+        providerRepository.lockAllById(distinctIds);
+        Map<UUID, AvailabilitySchedule> saved = new HashMap<>();
+        for (ProviderAvailabilityRepository.OverlapRow row : availabilityRepository.findOverlapRows(distinctIds, from, until)) {
+            saved.computeIfAbsent(row.getProviderId(), id -> new AvailabilitySchedule()).add(block(row));
+        }
+        return saved;
+    }
+
+    private static AvailabilitySchedule.Block block(ProviderAvailabilityRepository.OverlapRow row) {
+        boolean recurring = Boolean.TRUE.equals(row.getIsRecurring()) && row.getRecurrencePattern() != null;
+        return new AvailabilitySchedule.Block(row.getId(), row.getDate(), row.getStartTime(), row.getEndTime(),
+                recurring ? row.getRecurrencePattern() : null, row.getRecurrenceEndDate());
+    }
+
+    private static LocalDate lastDate(AvailabilitySchedule.Block block) {
+        return block.getUntil() != null ? block.getUntil() : OPEN_ENDED;
+    }
+
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            action.accept(true);
+        }
+    }
+
+    // One provider's schedule and its saved blocks by id; all access holds the monitor
+    private static final class ProviderBlocks {
+        private final AvailabilitySchedule schedule = new AvailabilitySchedule();
+        private final Map<UUID, AvailabilitySchedule.Block> byId = new HashMap<>();
+
+        synchronized boolean tryAdd(AvailabilitySchedule.Block block) {
+            if (schedule.findConflict(block, other -> false).isPresent()) {
+                return false;
+            }
+            schedule.add(block);
+            return true;
+        }
+
+        // Idempotent, so a block both streamed by a rebuild and committed during it is held once
+        synchronized void addCommitted(AvailabilitySchedule.Block block) {
+            AvailabilitySchedule.Block previous = byId.put(block.getAvailabilityId(), block);
+            if (previous != null) {
+                schedule.remove(previous);
+            }
+            schedule.add(block);
+        }
+
+        synchronized void commit(AvailabilitySchedule.Block block, UUID availabilityId) {
+            block.setAvailabilityId(availabilityId);
+            byId.put(availabilityId, block);
+        }
+
+        synchronized void remove(AvailabilitySchedule.Block block) {
+            schedule.remove(block);
+        }
+
+        synchronized void replace(UUID availabilityId, AvailabilitySchedule.Block block) {
+            AvailabilitySchedule.Block previous = byId.remove(availabilityId);
+            if (previous != null) {
+                schedule.remove(previous);
+            }
+            if (block != null) {
+                addCommitted(block);
+            }
+        }
+
+        synchronized boolean overlaps(AvailabilitySchedule.Block candidate, UUID ignoredAvailabilityId) {
+            return schedule.findConflict(candidate,
+                    block -> ignoredAvailabilityId != null && ignoredAvailabilityId.equals(block.getAvailabilityId()))
+                    .isPresent();
+        }
+
+        synchronized void evictEndedBefore(LocalDate cutoff) {
+            for (AvailabilitySchedule.Block block : schedule.endedBefore(cutoff)) {
+                schedule.remove(block);
+                if (block.getAvailabilityId() != null) {
+                    byId.remove(block.getAvailabilityId());
+                }
+            }
+        }
+
+        synchronized int size() {
+            return schedule.size();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.ProviderAvailability;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * One provider's availability blocks, one-off and recurring, for overlap checks. Blocks are
+ * bucketed by the dates they can fall on (a specific date, every day, a weekday, or a day
+ * of the month), and each bucket keeps its intervals sorted by start time, so checking a
+ * single date costs a few O(log n) lookups. Times are wall-clock times as stored on the
+ * block. Not thread-safe; {@link AvailabilityOverlapIndex} serializes access per provider.
+ */
+final class AvailabilitySchedule {
+
+    // Two blocks on a fixed weekday and day of month line up within 28 years
+    private static final int MAX_OCCURRENCES_COMPARED = 400;
+
+    private final TreeMap<LocalDate, Intervals> oneOff = new TreeMap<>();
+    private final Intervals daily = new Intervals();
+    private final EnumMap<DayOfWeek, Intervals> weekly = new EnumMap<>(DayOfWeek.class);
+    private final TreeMap<Integer, Intervals> monthly = new TreeMap<>();
+    private int size;
+
+    /**
+     * A block that occurs on at least one date the candidate does, at an overlapping time.
+     */
+    Optional<Block> findConflict(Block candidate, Predicate<Block> ignore) {
+        Predicate<Block> sharesDate = candidate.pattern == null
+                ? block -> block.occursOn(candidate.date)
+                : block -> sharesDate(candidate, block);
+        Predicate<Block> conflicts = block -> !ignore.test(block) && sharesDate.test(block);
+
+        if (candidate.pattern == null) {
+            // Only blocks that can fall on this one date need checking
+            return firstOverlap(bucketsFor(candidate.date), candidate, conflicts);
+        }
+
+        List<Intervals> buckets = new ArrayList<>();
+        buckets.add(daily);
+        buckets.addAll(weekly.values());
+        buckets.addAll(monthly.values());
+        NavigableMap<LocalDate, Intervals> dates = candidate.until == null
+                ? oneOff.tailMap(candidate.date, true)
+                : candidate.until.isBefore(candidate.date) ? Collections.emptyNavigableMap()
+                : oneOff.subMap(candidate.date, true, candidate.until, true);
+        dates.forEach((date, intervals) -> {
+            if (candidate.occursOn(date)) {
+                buckets.add(intervals);
+            }
+        });
+        return firstOverlap(buckets, candidate, conflicts);
+    }
+
+    void add(Block block) {
+        bucketFor(block, true).add(block);
+        size++;
+    }
+
+    boolean remove(Block block) {
+        Intervals bucket = bucketFor(block, false);
+        if (bucket == null || !bucket.remove(block)) {
+            return false;
+        }
+        size--;
+        if (bucket.isEmpty() && block.pattern == null) {
+            oneOff.remove(block.date);
+        }
+        return true;
+    }
+
+    /**
+     * Blocks that can no longer occur on or after {@code date}.
+     */
+    List<Block> endedBefore(LocalDate date) {
+        List<Block> ended = new ArrayList<>();
+        oneOff.headMap(date, false).values().forEach(intervals -> intervals.forEach(ended::add));
+        List<Intervals> recurring = new ArrayList<>();
+        recurring.add(daily);
+        recurring.addAll(weekly.values());
+        recurring.addAll(monthly.values());
+        for (Intervals intervals : recurring) {
+            intervals.forEach(block -> {
+                if (block.until != null && block.until.isBefore(date)) {
+                    ended.add(block);
+                }
+            });
+        }
+        return ended;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private List<Intervals> bucketsFor(LocalDate date) {
+        List<Intervals> buckets = new ArrayList<>(4);
+        Intervals dated = oneOff.get(date);
+        if (dated != null) {
+            buckets.add(dated);
+        }
+        buckets.add(daily);
+        Intervals weekday = weekly.get(date.getDayOfWeek());
+        if (weekday != null) {
+            buckets.add(weekday);
+        }
+        Intervals dayOfMonth = monthly.get(date.getDayOfMonth());
+        if (dayOfMonth != null) {
+            buckets.add(dayOfMonth);
+        }
+        // Monthly blocks on the 29th-31st fall on the last day of shorter months
+        if (date.getDayOfMonth() == date.lengthOfMonth()) {
+            buckets.addAll(monthly.tailMap(date.getDayOfMonth(), false).values());
+        }
+        return buckets;
+    }
+
+    private Intervals bucketFor(Block block, boolean create) {
+        if (block.pattern == null) {
+            return create ? oneOff.computeIfAbsent(block.date, date -> new Intervals()) : oneOff.get(block.date);
+        }
+        return switch (block.pattern) {
+            case DAILY -> daily;
+            case WEEKLY -> create
+                    ? weekly.computeIfAbsent(block.date.getDayOfWeek(), day -> new Intervals())
+                    : weekly.get(block.date.getDayOfWeek());
+            case MONTHLY -> create
+                    ? monthly.computeIfAbsent(block.date.getDayOfMonth(), day -> new Intervals())
+                    : monthly.get(block.date.getDayOfMonth());
+        };
+    }
+
+    private static Optional<Block> firstOverlap(List<Intervals> buckets, Block candidate, Predicate<Block> filter) {
+        for (Intervals bucket : buckets) {
+            Optional<Block> match = bucket.firstOverlapping(candidate.startMinute, candidate.endMinute, filter);
+            if (match.isPresent()) {
+                return match;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Whether two blocks have an occurrence on the same date. Walks the occurrences of the
+     * sparser one inside the range both are active in, testing each against the other.
+     */
+    private static boolean sharesDate(Block a, Block b) {
+        if (a.pattern == null) {
+            return b.occursOn(a.date);
+        }
+        if (b.pattern == null) {
+            return a.occursOn(b.date);
+        }
+        LocalDate from = a.date.isAfter(b.date) ? a.date : b.date;
+        LocalDate to = a.until == null ? b.until
+                : b.until == null ? a.until
+                : a.until.isBefore(b.until) ? a.until : b.until;
+        if (to != null && from.isAfter(to)) {
+            return false;
+        }
+
+        Block sparse = a.pattern.compareTo(b.pattern) >= 0 ? a : b;
+        Block other = sparse == a ? b : a;
+        ChronoUnit unit = unit(sparse.pattern);
+        long n = Math.max(0, unit.between(sparse.date, from));
+        for (int i = 0; i < MAX_OCCURRENCES_COMPARED; i++, n++) {
+            LocalDate date = sparse.date.plus(n, unit);
+            if (to != null && date.isAfter(to)) {
+                return false;
+            }
+            if (!date.isBefore(from) && other.occursOn(date)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ChronoUnit unit(ProviderAvailability.RecurrencePattern pattern) {
+        return switch (pattern) {
+            case DAILY -> ChronoUnit.DAYS;
+            case WEEKLY -> ChronoUnit.WEEKS;
+            case MONTHLY -> ChronoUnit.MONTHS;
+        };
+    }
+
+    /**
+     * An availability block as a recurring interval: [startMinute, endMinute) of the day on
+     * {@code date} and, for recurring blocks, on every occurrence through {@code until}.
+     */
+    static final class Block {
+        // Null while the block has not been saved yet
+        private volatile UUID availabilityId;
+        private final LocalDate date;
+        private final int startMinute;
+        private final int endMinute;
+        private final ProviderAvailability.RecurrencePattern pattern;
+        private final LocalDate until;
+
+        Block(UUID availabilityId, LocalDate date, LocalTime startTime, LocalTime endTime,
+              ProviderAvailability.RecurrencePattern pattern, LocalDate until) {
+            this.availabilityId = availabilityId;
+            this.date = date;
+            this.startMinute = minuteOfDay(startTime);
+            // An end at or before the start runs to midnight
+            int end = minuteOfDay(endTime);
+            this.endMinute = end > startMinute ? end : 24 * 60;
+            this.pattern = pattern;
+            this.until = pattern == null ? date : until;
+        }
+
+        static Block of(ProviderAvailability availability) {
+            boolean recurring = Boolean.TRUE.equals(availability.getIsRecurring()) && availability.getRecurrencePattern() != null;
+            return new Block(availability.getId(), availability.getDate(), availability.getStartTime(),
+                    availability.getEndTime(), recurring ? availability.getRecurrencePattern() : null,
+                    availability.getRecurrenceEndDate());
+        }
+
+        UUID getAvailabilityId() {
+            return availabilityId;
+        }
+
+        LocalDate getDate() {
+            return date;
+        }
+
+        // The last date the block can occur on; null for a recurring block without an end
+        LocalDate getUntil() {
+            return until;
+        }
+
+        void setAvailabilityId(UUID availabilityId) {
+            this.availabilityId = availabilityId;
+        }
+
+        // Same stepping as RecurringAvailabilityMaterializer: always from the base date
+        boolean occursOn(LocalDate day) {
+            if (day.isBefore(date) || (until != null && day.isAfter(until))) {
+                return false;
+            }
+            if (pattern == null) {
+                return day.equals(date);
+            }
+            return switch (pattern) {
+                case DAILY -> true;
+                case WEEKLY -> ChronoUnit.DAYS.between(date, day) % 7 == 0;
+                case MONTHLY -> {
+                    long n = ChronoUnit.MONTHS.between(date, day);
+                    yield date.plusMonths(n).equals(day) || date.plusMonths(n + 1).equals(day);
+                }
+            };
+        }
+
+        private static int minuteOfDay(LocalTime time) {
+            return time.getHour() * 60 + time.getMinute();
+        }
+    }
+
+    /**
+     * Intervals sorted by start minute. Any interval overlapping [start, end) starts after
+     * {@code start - longest}, so a query reads one sub-map instead of the whole bucket.
+     */
+    private static final class Intervals {
+        private final TreeMap<Integer, List<Block>> byStart = new TreeMap<>();
+        private int longest;
+
+        void add(Block block) {
+            byStart.computeIfAbsent(block.startMinute, start -> new ArrayList<>(1)).add(block);
+            longest = Math.max(longest, block.endMinute - block.startMinute);
+        }
+
+        boolean remove(Block block) {
+            List<Block> blocks = byStart.get(block.startMinute);
+            if (blocks == null || !blocks.remove(block)) {
+                return false;
+            }
+            if (blocks.isEmpty()) {
+                byStart.remove(block.startMinute);
+            }
+            return true;
+        }
+
+        Optional<Block> firstOverlapping(int start, int end, Predicate<Block> filter) {
+            for (List<Block> blocks : byStart.subMap(start - longest, false, end, false).values()) {
+                for (Block block : blocks) {
+                    if (block.endMinute > start && filter.test(block)) {
+                        return Optional.of(block);
+                    }
+                }
+            }
+            return Optional.empty();
+        }
+
+        void forEach(Consumer<Block> action) {
+            byStart.values().forEach(blocks -> blocks.forEach(action));
+        }
+
+        boolean isEmpty() {
+            return byStart.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.healthfirst.provider.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.healthfirst.provider.dto.AvailabilitySearchRequest;
+import com.healthfirst.provider.dto.AvailabilitySearchResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Recent search responses keyed by the normalized request, each with an ETag computed once
+ * from its JSON. Entries live for a short TTL and are dropped as soon as a slot they could
+ * show changes: the slot starts inside the entry's window and its provider passes the
+ * entry's provider filters. Slot filters (type, insurance, price) are not checked, so a
+ * change may drop a few entries it did not affect.
+ */
+@Component
+public class AvailabilitySearchCache {
+
+    private final Cache<SearchKey, CachedSearch> cache;
+    private final ObjectMapper objectMapper;
+    private final ZipCentroids zipCentroids;
+
+    // Bumped on every invalidation so searches that raced with one are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public AvailabilitySearchCache(AvailabilitySlotIndex slotIndex,
+                                   ObjectMapper objectMapper,
+                                   ZipCentroids zipCentroids,
+                                   @Value("${availability-search.cache.max-entries:10000}") long maxEntries,
+                                   @Value("${availability-search.cache.time-to-live:PT30S}") Duration timeToLive) {
+        this.objectMapper = objectMapper;
+        this.zipCentroids = zipCentroids;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(timeToLive)
+                .build();
+        slotIndex.addChangeListener(new AvailabilitySlotIndex.ChangeListener() {
+            @Override
+            public void slotsChanged(UUID providerId, AvailabilitySlotIndex.IndexedProvider provider,
+                                     Collection<Instant> startTimes) {
+                invalidate(provider, startTimes);
+            }
+
+            @Override
+            public void providerChanged(UUID providerId, AvailabilitySlotIndex.IndexedProvider before,
+                                        AvailabilitySlotIndex.IndexedProvider after) {
+                generation.incrementAndGet();
+                cache.asMap().keySet().removeIf(key -> mayShow(key, before) || mayShow(key, after));
+            }
+
+            @Override
+            public void rebuilt() {
+                generation.incrementAndGet();
+                cache.invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * The cached response for the request, or {@code search}'s, which is then cached. Concurrent
+     * identical requests wait for one search instead of each running it.
+     */
+    public CachedSearch search(AvailabilitySearchRequest request,
+                               Function<AvailabilitySearchRequest, AvailabilitySearchResponse> search) {
+        SearchKey key = SearchKey.of(request);
+        long loadedAtGeneration = generation.get();
+        boolean[] loaded = {false};
+        CachedSearch result = cache.get(key, k -> {
+            loaded[0] = true;
+            AvailabilitySearchResponse response = search.apply(request);
+            return new CachedSearch(response, etag(response));
+        });
+        if (loaded[0] && generation.get() != loadedAtGeneration) {
+            cache.invalidate(key);
+        }
+        return result;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private void invalidate(AvailabilitySlotIndex.IndexedProvider provider, Collection<Instant> startTimes) {
+        generation.incrementAndGet();
+        // Sorted once per change, so each entry's window is checked with one lookup
+        NavigableSet<Instant> starts = new TreeSet<>(startTimes);
+        cache.asMap().keySet().removeIf(key -> key.coversAny(starts) && mayShow(key, provider));
+    }
+
+    // Whether the entry's provider filters let the provider through; unknown providers always do
+    private boolean mayShow(SearchKey key, AvailabilitySlotIndex.IndexedProvider provider) {
+        if (provider == null) {
+            return true;
+        }
+        if (!equalsIgnoreCase(key.specialization, provider.getSpecialization())
+                || !equalsIgnoreCase(key.city, provider.getCity())
+                || !equalsIgnoreCase(key.state, provider.getState())
+                || !equalsIgnoreCase(key.zip, provider.getZip())) {
+            return false;
+        }
+        if (key.location != null) {
+            String label = Objects.toString(provider.getCity(), "") + ", " + Objects.toString(provider.getState(), "")
+                    + " " + Objects.toString(provider.getZip(), "");
+            if (!label.toLowerCase(Locale.ROOT).contains(key.location.toLowerCase(Locale.ROOT))) {
+                return false;
+            }
+        }
+        if (!key.hasArea()) {
+            return true;
+        }
+        // Area searches never show providers without coordinates
+        if (provider.getLatitude() == null || provider.getLongitude() == null) {
+            return false;
+        }
+        if (key.minLatitude != null && key.maxLatitude != null && key.minLongitude != null && key.maxLongitude != null
+                && !new GeoBox(key.minLatitude, key.minLongitude, key.maxLatitude, key.maxLongitude)
+                        .contains(provider.getLatitude(), provider.getLongitude())) {
+            return false;
+        }
+        GeoPoint origin = key.latitude != null && key.longitude != null
+                ? new GeoPoint(key.latitude, key.longitude)
+                : key.hasNear() ? zipCentroids.find(key.near).orElse(null) : null;
+        if (origin == null) {
+            return true;
+        }
+        double radiusMiles = key.radiusMiles != null ? key.radiusMiles : AvailabilitySearchService.DEFAULT_RADIUS_MILES;
+        // A little slack so rounding never keeps a stale entry at the edge of the circle
+        return origin.distanceMiles(provider.getLatitude(), provider.getLongitude()) <= radiusMiles * 1.001;
+    }
+
+    private static boolean equalsIgnoreCase(String filter, String value) {
+        return filter == null || filter.equalsIgnoreCase(Objects.toString(value, "").trim());
+    }
+
+    private String etag(AvailabilitySearchResponse response) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(response));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize search response", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record CachedSearch(AvailabilitySearchResponse response, String etag) {
+    }
+
+    /**
+     * A request with surrounding whitespace dropped from text, which searches ignore, the
+     * page size resolved and the search window resolved to instants, so requests without
+     * dates stop sharing an entry at midnight. Text keeps its case since responses echo it.
+     */
+    record SearchKey(Instant from, Instant to, LocalDate date,
+                     String specialization, String location, String city, String state, String zip,
+                     Double latitude, Double longitude, String near, Double radiusMiles,
+                     Double minLatitude, Double maxLatitude, Double minLongitude, Double maxLongitude,
+                     String appointmentType, Boolean insuranceAccepted, BigDecimal maxPrice,
+                     Boolean availableOnly, String cursor, int limit) {
+
+        static SearchKey of(AvailabilitySearchRequest request) {
+            AvailabilitySearchService.SearchWindow window = AvailabilitySearchService.searchWindow(request);
+            return new SearchKey(window.from(), window.to(), request.getDate(),
+                    text(request.getSpecialization()), text(request.getLocation()), text(request.getCity()),
+                    text(request.getState()), text(request.getZip()),
+                    request.getLatitude(), request.getLongitude(), text(request.getNear()), request.getRadiusMiles(),
+                    request.getMinLatitude(), request.getMaxLatitude(), request.getMinLongitude(), request.getMaxLongitude(),
+                    text(request.getAppointmentType()), request.getInsuranceAccepted(),
+                    request.getMaxPrice() != null ? request.getMaxPrice().stripTrailingZeros() : null,
+                    request.getAvailableOnly(), text(request.getCursor()),
+                    AvailabilitySearchService.resolvePageSize(request.getLimit()));
+        }
+
+        boolean coversAny(NavigableSet<Instant> startTimes) {
+            Instant first = startTimes.ceiling(from);
+            return first != null && first.isBefore(to);
+        }
+
+        boolean hasArea() {
+            return latitude != null || longitude != null || hasNear()
+                    || minLatitude != null || maxLatitude != null || minLongitude != null || maxLongitude != null;
+        }
+
+        // Searches ignore a blank ZIP code to search near
+        boolean hasNear() {
+            return near != null && !near.isEmpty();
+        }
+
+        private static String text(String value) {
+            return value != null ? value.trim() : null;
+        }
+    }
+}
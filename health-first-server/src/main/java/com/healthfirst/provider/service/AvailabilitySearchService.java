@@ -2,142 +2,384 @@ package com.healthfirst.provider.service;
 
 import com.healthfirst.provider.dto.AvailabilitySearchRequest;
 import com.healthfirst.provider.dto.AvailabilitySearchResponse;
-import com.healthfirst.provider.entity.AppointmentSlot;
-import com.healthfirst.provider.entity.Provider;
-import com.healthfirst.provider.entity.ProviderAvailability;
 import com.healthfirst.provider.repository.AppointmentSlotRepository;
-import com.healthfirst.provider.repository.ProviderRepository;
-import lombok.RequiredArgsConstructor;
+import com.healthfirst.provider.repository.AvailableSlotSearchRepository.AvailableSlotRow;
+import com.healthfirst.provider.repository.AvailableSlotSearchRepository.SlotSearchFilter;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AvailabilitySearchService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int STREAM_CHUNK_SIZE = 100;
+    static final double DEFAULT_RADIUS_MILES = 25;
+    private static final double MAX_RADIUS_MILES = 500;
+    
     private final AppointmentSlotRepository slotRepository;
-    private final ProviderRepository providerRepository;
+    private final ProviderAvailabilityRepository availabilityRepository;
+    private final AvailabilitySlotIndex slotIndex;
+    private final RecurringAvailabilityMaterializer materializer;
+    private final ZipCentroids zipCentroids;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    public AvailabilitySearchService(AppointmentSlotRepository slotRepository,
+                                     ProviderAvailabilityRepository availabilityRepository,
+                                     AvailabilitySlotIndex slotIndex,
+                                     RecurringAvailabilityMaterializer materializer,
+                                     ZipCentroids zipCentroids,
+                                     PlatformTransactionManager transactionManager) {
+        this.slotRepository = slotRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.slotIndex = slotIndex;
+        this.materializer = materializer;
+        this.zipCentroids = zipCentroids;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
     
+    /**
+     * Runs outside a transaction: materializing takes a connection of its own per rule, which
+     * must not be requested while this request already holds one.
+     */
     public AvailabilitySearchResponse searchAvailability(AvailabilitySearchRequest request) {
+        AreaSearch area = resolveArea(request);
+        
         // Build search criteria
         AvailabilitySearchResponse.SearchCriteria searchCriteria = AvailabilitySearchResponse.SearchCriteria.builder()
                 .date(request.getDate() != null ? request.getDate().toString() : null)
                 .specialization(request.getSpecialization())
                 .location(request.getLocation())
+                .city(request.getCity())
+                .state(request.getState())
+                .zip(request.getZip())
+                .latitude(area != null && area.origin != null ? area.origin.latitude() : null)
+                .longitude(area != null && area.origin != null ? area.origin.longitude() : null)
+                .radiusMiles(area != null && area.origin != null ? area.radiusMiles : null)
                 .build();
         
-        // Determine date range for search
-        LocalDate startDate = request.getDate() != null ? request.getDate() : request.getStartDate();
-        LocalDate endDate = request.getDate() != null ? request.getDate() : request.getEndDate();
-        
-        if (startDate == null) {
-            startDate = LocalDate.now();
-        }
-        if (endDate == null) {
-            endDate = startDate.plusDays(7); // Default to 1 week search
+        // Fetch one slot past the page to know whether another page exists
+        int pageSize = resolvePageSize(request.getLimit());
+        List<UUID> providerIds = resolveProviders(request, area);
+        ensureMaterialized(providerIds, request);
+        AvailabilitySlotIndex.IndexedSlot after = decodeCursor(request.getCursor());
+        List<AvailabilitySlotIndex.IndexedSlot> page = findMatchingSlots(request, area, providerIds, after, pageSize + 1);
+        boolean hasMore = page.size() > pageSize;
+        if (hasMore) {
+            page = page.subList(0, pageSize);
         }
         
-        // Convert to ZonedDateTime for database query
-        ZoneId zoneId = request.getTimezone() != null ? ZoneId.of(request.getTimezone()) : ZoneId.systemDefault();
-        ZonedDateTime searchStartTime = startDate.atStartOfDay(zoneId);
-        ZonedDateTime searchEndTime = endDate.plusDays(1).atStartOfDay(zoneId);
-        
-        // Get all available slots in the date range
-        List<AppointmentSlot> availableSlots = slotRepository.findAvailableSlotsInTimeRange(
-                null, searchStartTime, searchEndTime);
+        List<AvailabilitySlotIndex.IndexedSlot> pageSlots = page;
+        List<AvailabilitySearchResponse.SearchResult> results = readOnlyTransaction.execute(
+                status -> buildSearchResults(pageSlots, request, area));
         
-        // Filter by appointment type if specified
-        if (request.getAppointmentType() != null) {
-            availableSlots = availableSlots.stream()
-                    .filter(slot -> slot.getAppointmentType().equalsIgnoreCase(request.getAppointmentType()))
-                    .collect(Collectors.toList());
+        // Facet counts cover the whole result rather than the page, so only the first page carries them
+        Map<String, Map<String, Integer>> facets = null;
+        if (after == null && providerIds != null) {
+            SearchWindow window = searchWindow(request);
+            facets = slotIndex.countFacets(providerIds, window.from, window.to, slot -> matchesSlot(slot, request));
         }
         
-        // Group slots by provider
-        var slotsByProvider = availableSlots.stream()
-                .collect(Collectors.groupingBy(AppointmentSlot::getProvider));
-        
-        // Build search results
-        List<AvailabilitySearchResponse.SearchResult> results = slotsByProvider.entrySet().stream()
-                .map(entry -> buildSearchResult(entry.getKey(), entry.getValue(), request))
-                .filter(result -> result != null) // Filter out results that don't match criteria
-                .collect(Collectors.toList());
-        
         return AvailabilitySearchResponse.builder()
                 .success(true)
                 .data(AvailabilitySearchResponse.SearchData.builder()
                         .searchCriteria(searchCriteria)
                         .totalResults(results.size())
                         .results(results)
+                        .facets(facets)
+                        .nextCursor(hasMore ? encodeCursor(page.get(page.size() - 1)) : null)
+                        .hasMore(hasMore)
                         .build())
                 .build();
     }
     
-    private AvailabilitySearchResponse.SearchResult buildSearchResult(Provider provider, 
-                                                                     List<AppointmentSlot> slots,
-                                                                     AvailabilitySearchRequest request) {
-        // Filter by specialization if specified
-        if (request.getSpecialization() != null && 
-            !provider.getSpecialization().equalsIgnoreCase(request.getSpecialization())) {
-            return null;
+    /**
+     * Checks the request now, so bad requests fail before any output is written, and returns
+     * a stream that reads matching slots chunk by chunk when it is run.
+     */
+    public AvailabilityStream streamAvailability(AvailabilitySearchRequest request) {
+        AreaSearch area = resolveArea(request);
+        AvailabilitySlotIndex.IndexedSlot start = decodeCursor(request.getCursor());
+        searchWindow(request);
+        List<UUID> providerIds = resolveProviders(request, area);
+        ensureMaterialized(providerIds, request);
+        
+        return sink -> {
+            AvailabilitySlotIndex.IndexedSlot after = start;
+            while (true) {
+                List<AvailabilitySlotIndex.IndexedSlot> chunk = findMatchingSlots(request, area, providerIds, after, STREAM_CHUNK_SIZE);
+                if (chunk.isEmpty()) {
+                    return;
+                }
+                
+                // Hydrate each chunk in its own short read-only transaction so the persistence
+                // context and the connection are released before results are written out
+                List<AvailabilitySearchResponse.SearchResult> results = readOnlyTransaction.execute(
+                        status -> buildSearchResults(chunk, request, area));
+                results.forEach(sink);
+                
+                if (chunk.size() < STREAM_CHUNK_SIZE) {
+                    return;
+                }
+                after = chunk.get(chunk.size() - 1);
+            }
+        };
+    }
+    
+    @FunctionalInterface
+    public interface AvailabilityStream {
+        void forEach(Consumer<AvailabilitySearchResponse.SearchResult> sink);
+    }
+    
+    private List<AvailabilitySlotIndex.IndexedSlot> findMatchingSlots(AvailabilitySearchRequest request,
+                                                                      AreaSearch area,
+                                                                      List<UUID> providerIds,
+                                                                      AvailabilitySlotIndex.IndexedSlot after,
+                                                                      int limit) {
+        if (providerIds == null) {
+            return readOnlyTransaction.execute(status -> searchDatabase(request, area, after, limit));
         }
+        SearchWindow window = searchWindow(request);
+        // Provider filters were applied when the candidates were resolved; only a box around a distance search is left
+        Predicate<AvailabilitySlotIndex.IndexedProvider> providerFilter = provider ->
+                area == null || area.box == null || area.box.contains(provider.getLatitude(), provider.getLongitude());
+        Predicate<AvailabilitySlotIndex.SlotAttributes> slotFilter = slot -> matchesSlot(slot, request);
         
-        // Filter by location if specified
-        if (request.getLocation() != null && 
-            !matchesLocation(provider, request.getLocation())) {
+        if (area != null && area.origin != null) {
+            // Nearest providers first, each with its slots in time order
+            return slotIndex.findAvailableSlotsInProviderOrder(
+                    providerIds, window.from, window.to, providerFilter, slotFilter, after, limit);
+        }
+        return slotIndex.findAvailableSlots(providerIds, window.from, window.to, providerFilter, slotFilter, after, limit);
+    }
+    
+    // Only the candidates, through the end of the window; nothing to do within the horizon the daily
+    // job keeps. Without candidates (index still loading) the startup materialization is still running anyway
+    private void ensureMaterialized(List<UUID> providerIds, AvailabilitySearchRequest request) {
+        if (providerIds != null) {
+            materializer.ensureMaterializedThrough(providerIds, searchEndDate(request));
+        }
+    }
+    
+    // Providers that can match the request's provider filters and area, intersected in the facet index
+    // before any timeline is looked at; distance searches keep nearest-first order. Null while the
+    // slot index is still loading, when searches other than by distance go to the database instead.
+    private List<UUID> resolveProviders(AvailabilitySearchRequest request, AreaSearch area) {
+        if (!slotIndex.isReady()) {
             return null;
         }
+        AvailabilitySlotIndex.ProviderQuery query = AvailabilitySlotIndex.ProviderQuery.builder()
+                .specialization(request.getSpecialization())
+                .city(request.getCity())
+                .state(request.getState())
+                .zip(request.getZip())
+                .location(request.getLocation())
+                .appointmentType(request.getAppointmentType())
+                .insuranceAccepted(request.getInsuranceAccepted())
+                .build();
+        if (area == null) {
+            return slotIndex.findProviderIds(query);
+        }
+        List<UUID> inArea = area.origin != null
+                ? List.copyOf(area.distances.keySet())
+                : slotIndex.findProvidersWithin(area.box);
+        if (query.isEmpty()) {
+            return inArea;
+        }
+        Set<UUID> matching = new HashSet<>(slotIndex.findProviderIds(query));
+        return inArea.stream().filter(matching::contains).toList();
+    }
+    
+    // The same search in SQL, keyset paged like the index; only the positions are kept since pages
+    // are hydrated by slot id either way
+    private List<AvailabilitySlotIndex.IndexedSlot> searchDatabase(AvailabilitySearchRequest request, AreaSearch area,
+                                                                   AvailabilitySlotIndex.IndexedSlot after, int limit) {
+        SlotSearchFilter.SlotSearchFilterBuilder filter = searchFilter(request, area).toBuilder();
+        if (after != null) {
+            filter.afterStartTime(after.getStartTime().atZone(ZoneOffset.UTC)).afterSlotId(after.getSlotId());
+        }
+        return slotRepository.searchAvailableSlots(filter.build(), limit).stream()
+                .map(row -> AvailabilitySlotIndex.IndexedSlot.position(
+                        row.slotStartTime().toInstant(), row.slotId(), row.providerId()))
+                .toList();
+    }
+    
+    private static SlotSearchFilter searchFilter(AvailabilitySearchRequest request, AreaSearch area) {
+        SearchWindow window = searchWindow(request);
+        GeoBox box = area != null ? area.box : null;
+        return SlotSearchFilter.builder()
+                .startTime(window.from.atZone(ZoneOffset.UTC))
+                .endTime(window.to.atZone(ZoneOffset.UTC))
+                .appointmentType(request.getAppointmentType())
+                .specialization(request.getSpecialization())
+                .city(request.getCity())
+                .state(request.getState())
+                .zip(request.getZip())
+                .location(request.getLocation())
+                .insuranceAccepted(request.getInsuranceAccepted())
+                .maxPrice(request.getMaxPrice())
+                .minLatitude(box != null ? box.minLatitude() : null)
+                .maxLatitude(box != null ? box.maxLatitude() : null)
+                .minLongitude(box != null ? box.minLongitude() : null)
+                .maxLongitude(box != null ? box.maxLongitude() : null)
+                .build();
+    }
+    
+    static SearchWindow searchWindow(AvailabilitySearchRequest request) {
+        ZoneId zoneId = resolveZone(request.getTimezone());
+        ZonedDateTime searchStartTime = searchStartDate(request).atStartOfDay(zoneId);
+        ZonedDateTime searchEndTime = searchEndDate(request).plusDays(1).atStartOfDay(zoneId);
+        return new SearchWindow(searchStartTime.toInstant(), searchEndTime.toInstant());
+    }
+    
+    private static ZoneId resolveZone(String timezone) {
+        if (timezone == null) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown timezone: " + timezone);
+        }
+    }
+    
+    private AreaSearch resolveArea(AvailabilitySearchRequest request) {
+        GeoPoint origin = null;
+        if (request.getLatitude() != null || request.getLongitude() != null) {
+            if (request.getLatitude() == null || request.getLongitude() == null) {
+                throw new IllegalArgumentException("Latitude and longitude must be given together");
+            }
+            origin = new GeoPoint(request.getLatitude(), request.getLongitude());
+        } else if (request.getNear() != null && !request.getNear().isBlank()) {
+            origin = zipCentroids.find(request.getNear())
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown ZIP code: " + request.getNear()));
+        }
         
-        // Filter by insurance acceptance if specified
-        if (request.getInsuranceAccepted() != null) {
-            slots = slots.stream()
-                    .filter(slot -> {
-                        var pricing = slot.getAvailability().getPricing();
-                        return pricing != null && 
-                               pricing.getInsuranceAccepted().equals(request.getInsuranceAccepted());
-                    })
-                    .collect(Collectors.toList());
+        GeoBox box = null;
+        List<Double> bounds = Arrays.asList(request.getMinLatitude(), request.getMinLongitude(),
+                request.getMaxLatitude(), request.getMaxLongitude());
+        if (bounds.stream().anyMatch(Objects::nonNull)) {
+            if (bounds.contains(null)) {
+                throw new IllegalArgumentException("A bounding box needs minLatitude, minLongitude, maxLatitude and maxLongitude");
+            }
+            box = new GeoBox(bounds.get(0), bounds.get(1), bounds.get(2), bounds.get(3));
         }
         
-        // Filter by max price if specified
-        if (request.getMaxPrice() != null) {
-            slots = slots.stream()
-                    .filter(slot -> {
-                        var pricing = slot.getAvailability().getPricing();
-                        return pricing != null && 
-                               pricing.getBaseFee() != null &&
-                               pricing.getBaseFee().compareTo(request.getMaxPrice()) <= 0;
-                    })
-                    .collect(Collectors.toList());
+        if (origin == null) {
+            if (request.getRadiusMiles() != null) {
+                throw new IllegalArgumentException("A radius needs latitude and longitude or a ZIP code to search near");
+            }
+            return box == null ? null : new AreaSearch(null, 0, box, Map.of());
+        }
+        double radiusMiles = request.getRadiusMiles() != null ? request.getRadiusMiles() : DEFAULT_RADIUS_MILES;
+        if (!(radiusMiles > 0 && radiusMiles <= MAX_RADIUS_MILES)) {
+            throw new IllegalArgumentException("Radius must be greater than 0 and at most " + (int) MAX_RADIUS_MILES + " miles");
         }
+        // Distances come from the index only; the database search can take just the bounding box
+        slotIndex.requireReady();
+        Map<UUID, Double> distances = new LinkedHashMap<>();
+        slotIndex.findProvidersNear(origin, radiusMiles)
+                .forEach(nearby -> distances.put(nearby.getProviderId(), nearby.getDistanceMiles()));
+        return new AreaSearch(origin, radiusMiles, box, distances);
+    }
+    
+    private static LocalDate searchStartDate(AvailabilitySearchRequest request) {
+        LocalDate startDate = request.getDate() != null ? request.getDate() : request.getStartDate();
+        return startDate != null ? startDate : LocalDate.now();
+    }
+    
+    private static LocalDate searchEndDate(AvailabilitySearchRequest request) {
+        LocalDate endDate = request.getDate() != null ? request.getDate() : request.getEndDate();
+        return endDate != null ? endDate : searchStartDate(request).plusDays(7); // Default to 1 week search
+    }
+    
+    private List<AvailabilitySearchResponse.SearchResult> buildSearchResults(List<AvailabilitySlotIndex.IndexedSlot> page,
+                                                                             AvailabilitySearchRequest request,
+                                                                             AreaSearch area) {
+        // Hydrate only the slots on this page, as projections, keeping index order
+        Map<UUID, AvailableSlotRow> rows = loadRows(page, request, area);
+        Map<UUID, List<AvailableSlotRow>> rowsByProvider = new LinkedHashMap<>();
+        for (AvailabilitySlotIndex.IndexedSlot indexedSlot : page) {
+            // The slot may have been booked since it was indexed, which the query leaves out
+            AvailableSlotRow row = rows.get(indexedSlot.getSlotId());
+            if (row != null) {
+                rowsByProvider.computeIfAbsent(row.providerId(), id -> new ArrayList<>()).add(row);
+            }
+        }
+        Map<UUID, List<String>> specialRequirements = loadSpecialRequirements(rows.values());
         
-        if (slots.isEmpty()) {
+        return rowsByProvider.values().stream()
+                .map(providerRows -> buildSearchResult(providerRows, specialRequirements,
+                        area != null ? area.distances.get(providerRows.get(0).providerId()) : null))
+                .collect(Collectors.toList());
+    }
+    
+    static int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+    
+    // Cursors encode the (slotStartTime, slotId, providerId) of the last slot on the previous page;
+    // distance searches go provider by provider and need to know which one they stopped in
+    private static String encodeCursor(AvailabilitySlotIndex.IndexedSlot slot) {
+        String position = slot.getStartTime() + "|" + slot.getSlotId() + "|" + slot.getProviderId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static AvailabilitySlotIndex.IndexedSlot decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
             return null;
         }
-        
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            return AvailabilitySlotIndex.IndexedSlot.position(Instant.parse(position[0]), UUID.fromString(position[1]),
+                    position.length > 2 ? UUID.fromString(position[2]) : null);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    private AvailabilitySearchResponse.SearchResult buildSearchResult(List<AvailableSlotRow> rows,
+                                                                      Map<UUID, List<String>> specialRequirements,
+                                                                      Double distanceMiles) {
         // Build provider info
+        AvailableSlotRow provider = rows.get(0);
         AvailabilitySearchResponse.ProviderInfo providerInfo = AvailabilitySearchResponse.ProviderInfo.builder()
-                .id(provider.getId())
-                .name(provider.getFirstName() + " " + provider.getLastName())
-                .specialization(provider.getSpecialization())
-                .yearsOfExperience(provider.getYearsOfExperience())
+                .id(provider.providerId())
+                .name(provider.firstName() + " " + provider.lastName())
+                .specialization(provider.specialization())
+                .yearsOfExperience(provider.yearsOfExperience())
                 .rating(4.5) // TODO: Implement rating system
-                .clinicAddress(provider.getClinicAddress().getStreet() + ", " + 
-                              provider.getClinicAddress().getCity() + ", " + 
-                              provider.getClinicAddress().getState())
+                .clinicAddress(provider.street() + ", " + provider.city() + ", " + provider.state())
+                .distanceMiles(distanceMiles != null ? Math.round(distanceMiles * 10) / 10.0 : null)
                 .build();
         
         // Build available slots
-        List<AvailabilitySearchResponse.AvailableSlot> availableSlots = slots.stream()
-                .map(this::buildAvailableSlot)
+        List<AvailabilitySearchResponse.AvailableSlot> availableSlots = rows.stream()
+                .map(row -> buildAvailableSlot(row, specialRequirements.getOrDefault(row.availabilityId(), List.of())))
                 .collect(Collectors.toList());
         
         return AvailabilitySearchResponse.SearchResult.builder()
@@ -146,39 +388,74 @@ public class AvailabilitySearchService {
                 .build();
     }
     
-    private boolean matchesLocation(Provider provider, String searchLocation) {
-        String providerLocation = provider.getClinicAddress().getCity() + ", " + 
-                                 provider.getClinicAddress().getState() + " " + 
-                                 provider.getClinicAddress().getZip();
+    private boolean matchesSlot(AvailabilitySlotIndex.SlotAttributes slot, AvailabilitySearchRequest request) {
+        // Filter by appointment type if specified
+        if (request.getAppointmentType() != null &&
+            !request.getAppointmentType().equalsIgnoreCase(slot.getAppointmentType())) {
+            return false;
+        }
         
-        return providerLocation.toLowerCase().contains(searchLocation.toLowerCase()) ||
-               provider.getClinicAddress().getCity().toLowerCase().contains(searchLocation.toLowerCase()) ||
-               provider.getClinicAddress().getState().toLowerCase().contains(searchLocation.toLowerCase()) ||
-               provider.getClinicAddress().getZip().contains(searchLocation);
+        // Filter by insurance acceptance if specified
+        if (request.getInsuranceAccepted() != null &&
+            !request.getInsuranceAccepted().equals(slot.getInsuranceAccepted())) {
+            return false;
+        }
+        
+        // Filter by max price if specified
+        return request.getMaxPrice() == null ||
+               (slot.getBaseFee() != null && slot.getBaseFee().compareTo(request.getMaxPrice()) <= 0);
     }
     
-    private AvailabilitySearchResponse.AvailableSlot buildAvailableSlot(AppointmentSlot slot) {
-        var availability = slot.getAvailability();
-        var location = availability.getLocation();
-        var pricing = availability.getPricing();
-        
+    private Map<UUID, AvailableSlotRow> loadRows(List<AvailabilitySlotIndex.IndexedSlot> indexedSlots,
+                                                 AvailabilitySearchRequest request, AreaSearch area) {
+        if (indexedSlots.isEmpty()) {
+            return Map.of();
+        }
+        List<UUID> slotIds = indexedSlots.stream()
+                .map(AvailabilitySlotIndex.IndexedSlot::getSlotId)
+                .collect(Collectors.toList());
+        // The request's filters go along too, so a slot whose pricing changed after indexing drops out
+        SlotSearchFilter filter = searchFilter(request, area).toBuilder().slotIds(slotIds).build();
+        return slotRepository.searchAvailableSlots(filter, slotIds.size()).stream()
+                .collect(Collectors.toMap(AvailableSlotRow::slotId, Function.identity()));
+    }
+    
+    private Map<UUID, List<String>> loadSpecialRequirements(Collection<AvailableSlotRow> rows) {
+        Set<UUID> availabilityIds = rows.stream().map(AvailableSlotRow::availabilityId).collect(Collectors.toSet());
+        if (availabilityIds.isEmpty()) {
+            return Map.of();
+        }
+        return availabilityRepository.findSpecialRequirementsByIdIn(availabilityIds).stream()
+                .collect(Collectors.groupingBy(ProviderAvailabilityRepository.SpecialRequirementRow::getAvailabilityId,
+                        Collectors.mapping(ProviderAvailabilityRepository.SpecialRequirementRow::getRequirement,
+                                Collectors.toList())));
+    }
+    
+    private AvailabilitySearchResponse.AvailableSlot buildAvailableSlot(AvailableSlotRow row, List<String> specialRequirements) {
         return AvailabilitySearchResponse.AvailableSlot.builder()
-                .slotId(slot.getId())
-                .date(slot.getSlotStartTime().toLocalDate().toString())
-                .startTime(slot.getSlotStartTime().toLocalTime().toString())
-                .endTime(slot.getSlotEndTime().toLocalTime().toString())
-                .appointmentType(slot.getAppointmentType())
+                .slotId(row.slotId())
+                .date(row.slotStartTime().toLocalDate().toString())
+                .startTime(row.slotStartTime().toLocalTime().toString())
+                .endTime(row.slotEndTime().toLocalTime().toString())
+                .appointmentType(row.appointmentType())
                 .location(AvailabilitySearchResponse.LocationInfo.builder()
-                        .type(location != null ? location.getType().name() : null)
-                        .address(location != null ? location.getAddress() : null)
-                        .roomNumber(location != null ? location.getRoomNumber() : null)
+                        .type(row.locationType() != null ? row.locationType().name() : null)
+                        .address(row.locationAddress())
+                        .roomNumber(row.roomNumber())
                         .build())
                 .pricing(AvailabilitySearchResponse.PricingInfo.builder()
-                        .baseFee(pricing != null ? pricing.getBaseFee() : null)
-                        .insuranceAccepted(pricing != null ? pricing.getInsuranceAccepted() : false)
-                        .currency(pricing != null ? pricing.getCurrency() : "USD")
+                        .baseFee(row.baseFee())
+                        .insuranceAccepted(row.insuranceAccepted() != null ? row.insuranceAccepted() : false)
+                        .currency(row.currency() != null ? row.currency() : "USD")
                         .build())
-                .specialRequirements(availability.getSpecialRequirements())
+                .specialRequirements(specialRequirements)
                 .build();
     }
-} 
\ No newline at end of file
+    
+    // Where to search; distances are by provider id, nearest first, for distance searches only
+    private record AreaSearch(GeoPoint origin, double radiusMiles, GeoBox box, Map<UUID, Double> distances) {
+    }
+    
+    record SearchWindow(Instant from, Instant to) {
+    }
+}
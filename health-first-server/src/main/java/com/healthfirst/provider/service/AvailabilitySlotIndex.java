@@ -0,0 +1,750 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.AvailabilityPricing;
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.ProviderRepository;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of upcoming slots, one compact {@link SlotTimeline} per provider. Slot
+ * times are kept to the minute and the slot's appointment type, insurance and fee are
+ * shared through a small attribute table, so a slot costs about 30 bytes instead of a
+ * few hundred. Booked and blocked slots stay in the timeline with their status; searches
+ * only return available ones. Changes are applied after the surrounding transaction commits.
+ *
+ * <p>Provider filters go through a {@link ProviderFacetIndex}, so a search only opens the
+ * timelines of providers that can match.
+ *
+ * <p>{@link ChangeListener}s hear about every applied change, e.g. to drop cached searches.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilitySlotIndex {
+
+    private static final AppointmentSlot.SlotStatus[] STATUSES = AppointmentSlot.SlotStatus.values();
+    private static final byte AVAILABLE = status(AppointmentSlot.SlotStatus.AVAILABLE);
+    // Slots never run longer than a day, so nothing starting earlier can reach into a window
+    private static final int MAX_SLOT_MINUTES = 24 * 60;
+    // The startup rebuild takes seconds
+    private static final long LOADING_RETRY_SECONDS = 5;
+
+    private final AppointmentSlotRepository slotRepository;
+    private final ProviderRepository providerRepository;
+
+    private final ConcurrentMap<UUID, SlotTimeline> timelines = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, IndexedProvider> providers = new ConcurrentHashMap<>();
+    private final ProviderGeoGrid geoGrid = new ProviderGeoGrid();
+    private final ProviderFacetIndex facets = new ProviderFacetIndex();
+    // Ids are positions in the list and are never reused, so timelines stay valid across rebuilds
+    private final ConcurrentMap<SlotAttributes, Integer> attributeIds = new ConcurrentHashMap<>();
+    private final List<SlotAttributes> attributes = new CopyOnWriteArrayList<>();
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        // Keep yesterday as well so searches in timezones behind UTC still see their whole day
+        ZonedDateTime from = LocalDate.now(ZoneOffset.UTC).minusDays(1).atStartOfDay(ZoneOffset.UTC);
+
+        timelines.clear();
+        providers.clear();
+        geoGrid.clear();
+        facets.clear();
+
+        providerRepository.findIndexRowsWithAvailableSlotsFrom(from)
+                .forEach(row -> putProvider(IndexedProvider.builder()
+                        .providerId(row.getId())
+                        .specialization(row.getSpecialization())
+                        .city(row.getCity())
+                        .state(row.getState())
+                        .zip(row.getZip())
+                        .latitude(row.getLatitude())
+                        .longitude(row.getLongitude())
+                        .build()));
+
+        Map<UUID, SlotTimeline.Builder> builders = new HashMap<>();
+        Map<UUID, BitSet> attributesByProvider = new HashMap<>();
+        try (Stream<AppointmentSlotRepository.SlotIndexRow> rows = slotRepository.streamIndexRowsStartingFrom(from)) {
+            rows.forEach(row -> {
+                UUID slotId = row.getId();
+                int attributeId = attributeId(new SlotAttributes(row.getAppointmentType(), row.getInsuranceAccepted(), row.getBaseFee()));
+                builders.computeIfAbsent(row.getProviderId(), id -> new SlotTimeline.Builder(64)).add(
+                        epochMinute(row.getSlotStartTime().toInstant()),
+                        epochMinute(row.getSlotEndTime().toInstant()),
+                        status(row.getStatus()),
+                        attributeId,
+                        slotId.getMostSignificantBits(), slotId.getLeastSignificantBits());
+                attributesByProvider.computeIfAbsent(row.getProviderId(), id -> new BitSet()).set(attributeId);
+            });
+        }
+        builders.forEach((providerId, builder) -> timelineFor(providerId).publish(builder.build()));
+        attributesByProvider.forEach((providerId, attributeIds) ->
+                attributeIds.stream().forEach(attributeId -> addFacetAttributes(providerId, attributeId)));
+
+        ready = true;
+        changeListeners.forEach(ChangeListener::rebuilt);
+        log.info("Availability slot index rebuilt with {} slots for {} providers", size(), timelines.size());
+    }
+
+    /**
+     * False until the first rebuild has finished; requests can arrive before that.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * For reads that have no other source than the index, such as distances or free/busy.
+     */
+    public void requireReady() {
+        if (!isReady()) {
+            throw new SlotIndexNotReadyException("Availability index is still loading", LOADING_RETRY_SECONDS);
+        }
+    }
+
+    @Scheduled(cron = "0 15 0 * * *", zone = "UTC")
+    public void evictPastDays() {
+        int cutoff = epochMinute(LocalDate.now(ZoneOffset.UTC).minusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        timelines.values().forEach(timeline -> timeline.evictBefore(cutoff));
+    }
+
+    public void putAll(Collection<AppointmentSlot> slots) {
+        Map<UUID, List<SlotTimeline.Entry>> upserts = new HashMap<>();
+        Map<UUID, List<SlotTimeline.Removal>> removals = new HashMap<>();
+        Map<UUID, IndexedProvider> profiles = new HashMap<>();
+
+        for (AppointmentSlot slot : slots) {
+            UUID providerId = slot.getProvider().getId();
+            // Cancelled slots can never be booked or shown as busy again
+            if (slot.getStatus() == AppointmentSlot.SlotStatus.CANCELLED) {
+                removals.computeIfAbsent(providerId, id -> new ArrayList<>()).add(toRemoval(slot));
+                continue;
+            }
+            // Also catches profile changes since the provider was indexed
+            profiles.computeIfAbsent(providerId, id -> toIndexedProvider(slot.getProvider()));
+            upserts.computeIfAbsent(providerId, id -> new ArrayList<>()).add(toEntry(slot));
+        }
+
+        afterCommit(() -> {
+            profiles.values().forEach(this::putProvider);
+            Set<UUID> providerIds = new HashSet<>(upserts.keySet());
+            providerIds.addAll(removals.keySet());
+            for (UUID providerId : providerIds) {
+                List<SlotTimeline.Entry> entries = upserts.getOrDefault(providerId, List.of());
+                Set<Integer> changedStarts = new HashSet<>();
+                timelineFor(providerId).apply(entries, removals.getOrDefault(providerId, List.of()), changedStarts::add);
+                entries.stream().mapToInt(SlotTimeline.Entry::attributes).distinct()
+                        .forEach(attributeId -> addFacetAttributes(providerId, attributeId));
+                slotsChanged(providerId, changedStarts);
+            }
+        });
+    }
+
+    public void put(AppointmentSlot slot) {
+        putAll(List.of(slot));
+    }
+
+    public void removeAll(Collection<AppointmentSlot> slots) {
+        Map<UUID, List<SlotTimeline.Removal>> removals = new HashMap<>();
+        slots.forEach(slot -> removals.computeIfAbsent(slot.getProvider().getId(), id -> new ArrayList<>()).add(toRemoval(slot)));
+        afterCommit(() -> removals.forEach((providerId, slotRemovals) -> {
+            SlotTimeline timeline = timelines.get(providerId);
+            if (timeline != null) {
+                Set<Integer> changedStarts = new HashSet<>();
+                timeline.apply(List.of(), slotRemovals, changedStarts::add);
+                slotsChanged(providerId, changedStarts);
+            }
+        }));
+    }
+
+    public void remove(AppointmentSlot slot) {
+        removeAll(List.of(slot));
+    }
+
+    /**
+     * Changes only the status of an indexed slot, for callers that never loaded the entity.
+     * The slot is found by its start time, so this costs a binary search in its provider's timeline.
+     */
+    public void updateStatus(UUID providerId, UUID slotId, Instant startTime, AppointmentSlot.SlotStatus status) {
+        int start = epochMinute(startTime);
+        afterCommit(() -> {
+            SlotTimeline timeline = timelines.get(providerId);
+            int changedStart = timeline != null ? timeline.updateStatus(slotId, start, status(status)) : -1;
+            if (changedStart >= 0) {
+                slotsChanged(providerId, Set.of(changedStart));
+            }
+        });
+    }
+
+    /**
+     * Re-indexes an indexed provider whose profile was saved, once the transaction commits, so
+     * filters, facet counts and area searches see its current specialization and clinic.
+     * Providers not indexed yet are picked up with their first slots.
+     */
+    public void refreshProvider(Provider provider) {
+        IndexedProvider refreshed = toIndexedProvider(provider);
+        afterCommit(() -> replaceProvider(refreshed));
+    }
+
+    /**
+     * Available slots starting in [from, to), in (startTime, slotId) order and after the
+     * {@code after} position when given. Each provider's timeline is already sorted, so this
+     * merges matching providers' timelines and only creates objects for the returned slots.
+     */
+    public List<IndexedSlot> findAvailableSlots(Instant from, Instant to,
+                                                Predicate<IndexedProvider> providerFilter,
+                                                Predicate<SlotAttributes> slotFilter,
+                                                IndexedSlot after, int limit) {
+        return findAvailableSlots(timelines.keySet(), from, to, providerFilter, slotFilter, after, limit);
+    }
+
+    /**
+     * Like {@link #findAvailableSlots(Instant, Instant, Predicate, Predicate, IndexedSlot, int)},
+     * looking only at the given providers.
+     */
+    public List<IndexedSlot> findAvailableSlots(Collection<UUID> providerIds, Instant from, Instant to,
+                                                Predicate<IndexedProvider> providerFilter,
+                                                Predicate<SlotAttributes> slotFilter,
+                                                IndexedSlot after, int limit) {
+        List<IndexedSlot> matches = new ArrayList<>();
+        int fromMinute = ceilEpochMinute(from);
+        int toMinute = ceilEpochMinute(to);
+        if (fromMinute >= toMinute || limit <= 0) {
+            return matches;
+        }
+
+        AttributeFilter attributeFilter = new AttributeFilter(slotFilter);
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+        for (UUID providerId : providerIds) {
+            Cursor cursor = openCursor(providerId, fromMinute, toMinute, providerFilter, attributeFilter, after);
+            if (cursor != null) {
+                cursors.add(cursor);
+            }
+        }
+
+        while (matches.size() < limit && !cursors.isEmpty()) {
+            Cursor cursor = cursors.poll();
+            matches.add(cursor.toIndexedSlot());
+            cursor.position++;
+            if (cursor.advance(toMinute, attributeFilter)) {
+                cursors.add(cursor);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Available slots of the given providers taken one provider at a time, in list order, each
+     * provider's in (startTime, slotId) order. {@code after} continues from its provider and
+     * slot; when that provider is no longer in the list there is nothing after it.
+     */
+    public List<IndexedSlot> findAvailableSlotsInProviderOrder(List<UUID> providerIds, Instant from, Instant to,
+                                                               Predicate<IndexedProvider> providerFilter,
+                                                               Predicate<SlotAttributes> slotFilter,
+                                                               IndexedSlot after, int limit) {
+        List<IndexedSlot> matches = new ArrayList<>();
+        int fromMinute = ceilEpochMinute(from);
+        int toMinute = ceilEpochMinute(to);
+        if (fromMinute >= toMinute || limit <= 0) {
+            return matches;
+        }
+
+        int first = 0;
+        if (after != null) {
+            first = providerIds.indexOf(after.getProviderId());
+            if (first < 0) {
+                return matches;
+            }
+        }
+
+        AttributeFilter attributeFilter = new AttributeFilter(slotFilter);
+        for (int i = first; i < providerIds.size() && matches.size() < limit; i++) {
+            Cursor cursor = openCursor(providerIds.get(i), fromMinute, toMinute, providerFilter, attributeFilter,
+                    i == first ? after : null);
+            while (cursor != null && matches.size() < limit) {
+                matches.add(cursor.toIndexedSlot());
+                cursor.position++;
+                if (!cursor.advance(toMinute, attributeFilter)) {
+                    cursor = null;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Providers that can match the query, from the facet bitsets alone. Appointment type and
+     * insurance are a superset here; slot filters still have to check them.
+     */
+    public List<UUID> findProviderIds(ProviderQuery query) {
+        BitSet candidates = facets.allProviders();
+        narrow(candidates, ProviderFacetIndex.Facet.SPECIALIZATION, query.getSpecialization());
+        narrow(candidates, ProviderFacetIndex.Facet.CITY, query.getCity());
+        narrow(candidates, ProviderFacetIndex.Facet.STATE, query.getState());
+        narrow(candidates, ProviderFacetIndex.Facet.ZIP, query.getZip());
+        narrow(candidates, ProviderFacetIndex.Facet.APPOINTMENT_TYPE, query.getAppointmentType());
+        narrow(candidates, ProviderFacetIndex.Facet.INSURANCE_ACCEPTED, Objects.toString(query.getInsuranceAccepted(), null));
+        if (query.getLocation() != null && !candidates.isEmpty()) {
+            candidates.and(facets.providersAt(query.getLocation()));
+        }
+
+        List<UUID> providerIds = new ArrayList<>(candidates.cardinality());
+        candidates.stream().forEach(ordinal -> providerIds.add(facets.providerId(ordinal)));
+        return providerIds;
+    }
+
+    /**
+     * Counts, per facet and value, the given providers that have at least one available slot
+     * in [from, to) passing {@code slotFilter}. Appointment type and insurance count only
+     * providers with such a slot of that type or insurance. Values are ordered by count.
+     */
+    public Map<String, Map<String, Integer>> countFacets(Collection<UUID> providerIds, Instant from, Instant to,
+                                                         Predicate<SlotAttributes> slotFilter) {
+        Map<ProviderFacetIndex.Facet, FacetCounter> counters = new EnumMap<>(ProviderFacetIndex.Facet.class);
+        for (ProviderFacetIndex.Facet facet : ProviderFacetIndex.Facet.values()) {
+            counters.put(facet, new FacetCounter(facet));
+        }
+        int fromMinute = ceilEpochMinute(from);
+        int toMinute = ceilEpochMinute(to);
+        AttributeFilter attributeFilter = new AttributeFilter(slotFilter);
+        BitSet matchedAttributes = new BitSet();
+        Set<String> appointmentTypes = new HashSet<>();
+        Set<String> insurance = new HashSet<>();
+
+        for (UUID providerId : providerIds) {
+            SlotTimeline timeline = timelines.get(providerId);
+            IndexedProvider provider = providers.get(providerId);
+            if (timeline == null || provider == null) {
+                continue;
+            }
+            SlotTimeline.Snapshot snapshot = timeline.snapshot();
+            matchedAttributes.clear();
+            for (int i = snapshot.firstStartingAtOrAfter(fromMinute); i < snapshot.size() && snapshot.starts[i] < toMinute; i++) {
+                if (snapshot.statuses[i] == AVAILABLE && attributeFilter.test(snapshot.attributes[i])) {
+                    matchedAttributes.set(snapshot.attributes[i]);
+                }
+            }
+            if (matchedAttributes.isEmpty()) {
+                continue;
+            }
+
+            counters.get(ProviderFacetIndex.Facet.SPECIALIZATION).add(provider.getSpecialization());
+            counters.get(ProviderFacetIndex.Facet.CITY).add(provider.getCity());
+            counters.get(ProviderFacetIndex.Facet.STATE).add(provider.getState());
+            counters.get(ProviderFacetIndex.Facet.ZIP).add(provider.getZip());
+            appointmentTypes.clear();
+            insurance.clear();
+            matchedAttributes.stream().forEach(attributeId -> {
+                SlotAttributes slotAttributes = attributes.get(attributeId);
+                appointmentTypes.add(slotAttributes.getAppointmentType());
+                insurance.add(Objects.toString(slotAttributes.getInsuranceAccepted(), null));
+            });
+            appointmentTypes.forEach(counters.get(ProviderFacetIndex.Facet.APPOINTMENT_TYPE)::add);
+            insurance.forEach(counters.get(ProviderFacetIndex.Facet.INSURANCE_ACCEPTED)::add);
+        }
+
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        counters.forEach((facet, counter) -> counts.put(facet.fieldName, counter.sortedCounts()));
+        return counts;
+    }
+
+    /**
+     * Indexed providers within {@code radiusMiles} of {@code origin}, nearest first.
+     */
+    public List<NearbyProvider> findProvidersNear(GeoPoint origin, double radiusMiles) {
+        List<NearbyProvider> nearby = new ArrayList<>();
+        geoGrid.forEachCandidate(GeoBox.around(origin, radiusMiles), providerId -> {
+            IndexedProvider provider = providers.get(providerId);
+            if (provider != null) {
+                double distance = origin.distanceMiles(provider.getLatitude(), provider.getLongitude());
+                if (distance <= radiusMiles) {
+                    nearby.add(new NearbyProvider(providerId, distance));
+                }
+            }
+        });
+        nearby.sort(Comparator.comparingDouble(NearbyProvider::getDistanceMiles).thenComparing(NearbyProvider::getProviderId));
+        return nearby;
+    }
+
+    /**
+     * Indexed providers whose clinic lies inside the box.
+     */
+    public List<UUID> findProvidersWithin(GeoBox box) {
+        List<UUID> within = new ArrayList<>();
+        geoGrid.forEachCandidate(box, providerId -> {
+            IndexedProvider provider = providers.get(providerId);
+            if (provider != null && box.contains(provider.getLatitude(), provider.getLongitude())) {
+                within.add(providerId);
+            }
+        });
+        return within;
+    }
+
+    /**
+     * Visits each of the provider's indexed slots that overlaps [from, to), in start order.
+     */
+    public void forEachSlot(UUID providerId, Instant from, Instant to, SlotVisitor visitor) {
+        SlotTimeline timeline = timelines.get(providerId);
+        if (timeline == null) {
+            return;
+        }
+        SlotTimeline.Snapshot snapshot = timeline.snapshot();
+        int fromMinute = epochMinute(from);
+        int toMinute = ceilEpochMinute(to);
+        for (int i = snapshot.firstStartingAtOrAfter(fromMinute - MAX_SLOT_MINUTES);
+             i < snapshot.size() && snapshot.starts[i] < toMinute; i++) {
+            if (snapshot.ends[i] > fromMinute) {
+                visitor.visit(snapshot.starts[i], snapshot.ends[i], STATUSES[snapshot.statuses[i]]);
+            }
+        }
+    }
+
+    // Positioned on the provider's first match after `after`, or null when there is none
+    private Cursor openCursor(UUID providerId, int fromMinute, int toMinute, Predicate<IndexedProvider> providerFilter,
+                              AttributeFilter attributeFilter, IndexedSlot after) {
+        SlotTimeline timeline = timelines.get(providerId);
+        IndexedProvider provider = providers.get(providerId);
+        if (timeline == null || provider == null || !providerFilter.test(provider)) {
+            return null;
+        }
+        SlotTimeline.Snapshot snapshot = timeline.snapshot();
+        int position = snapshot.firstStartingAtOrAfter(fromMinute);
+        if (after != null) {
+            int afterMinute = epochMinute(after.getStartTime());
+            if (afterMinute >= fromMinute) {
+                position = Math.max(position, snapshot.firstAfter(afterMinute, after.getSlotId()));
+            }
+        }
+        Cursor cursor = new Cursor(providerId, snapshot, position);
+        return cursor.advance(toMinute, attributeFilter) ? cursor : null;
+    }
+
+    public int size() {
+        return timelines.values().stream().mapToInt(SlotTimeline::size).sum();
+    }
+
+    private synchronized void replaceProvider(IndexedProvider provider) {
+        if (providers.containsKey(provider.getProviderId())) {
+            putProvider(provider);
+        }
+    }
+
+    // Serialized so the facet bits, grid cell and snapshot of one provider always agree
+    private synchronized void putProvider(IndexedProvider provider) {
+        IndexedProvider previous = providers.put(provider.getProviderId(), provider);
+        if (provider.equals(previous)) {
+            return;
+        }
+        facets.putProvider(provider.getProviderId(), provider.getSpecialization(),
+                provider.getCity(), provider.getState(), provider.getZip());
+        if (previous != null && previous.getLatitude() != null && previous.getLongitude() != null) {
+            geoGrid.remove(provider.getProviderId(), previous.getLatitude(), previous.getLongitude());
+        }
+        if (provider.getLatitude() != null && provider.getLongitude() != null) {
+            geoGrid.add(provider.getProviderId(), provider.getLatitude(), provider.getLongitude());
+        }
+        if (previous != null) {
+            changeListeners.forEach(listener -> listener.providerChanged(provider.getProviderId(), previous, provider));
+        }
+    }
+
+    private void addFacetAttributes(UUID providerId, int attributeId) {
+        SlotAttributes slotAttributes = attributes.get(attributeId);
+        facets.addSlotAttributes(providerId, slotAttributes.getAppointmentType(), slotAttributes.getInsuranceAccepted());
+    }
+
+    private void narrow(BitSet candidates, ProviderFacetIndex.Facet facet, String value) {
+        if (value != null && !candidates.isEmpty()) {
+            candidates.and(facets.providersWith(facet, value));
+        }
+    }
+
+    private SlotTimeline timelineFor(UUID providerId) {
+        return timelines.computeIfAbsent(providerId, id -> new SlotTimeline());
+    }
+
+    private int attributeId(SlotAttributes slotAttributes) {
+        Integer id = attributeIds.get(slotAttributes);
+        return id != null ? id : internAttributes(slotAttributes);
+    }
+
+    private synchronized int internAttributes(SlotAttributes slotAttributes) {
+        return attributeIds.computeIfAbsent(slotAttributes, key -> {
+            attributes.add(key);
+            return attributes.size() - 1;
+        });
+    }
+
+    void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    private void slotsChanged(UUID providerId, Set<Integer> startMinutes) {
+        if (startMinutes.isEmpty() || changeListeners.isEmpty()) {
+            return;
+        }
+        List<Instant> startTimes = startMinutes.stream().map(AvailabilitySlotIndex::instantOf).toList();
+        IndexedProvider provider = providers.get(providerId);
+        changeListeners.forEach(listener -> listener.slotsChanged(providerId, provider, startTimes));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private SlotTimeline.Entry toEntry(AppointmentSlot slot) {
+        AvailabilityPricing pricing = slot.getAvailability().getPricing();
+        return new SlotTimeline.Entry(slot.getId(),
+                epochMinute(slot.getSlotStartTime().toInstant()),
+                epochMinute(slot.getSlotEndTime().toInstant()),
+                status(slot.getStatus()),
+                attributeId(new SlotAttributes(slot.getAppointmentType(),
+                        pricing != null ? pricing.getInsuranceAccepted() : null,
+                        pricing != null ? pricing.getBaseFee() : null)));
+    }
+
+    private static SlotTimeline.Removal toRemoval(AppointmentSlot slot) {
+        return new SlotTimeline.Removal(slot.getId(), epochMinute(slot.getSlotStartTime().toInstant()));
+    }
+
+    private static IndexedProvider toIndexedProvider(Provider provider) {
+        ClinicAddress address = provider.getClinicAddress();
+        return IndexedProvider.builder()
+                .providerId(provider.getId())
+                .specialization(provider.getSpecialization())
+                .city(address != null ? address.getCity() : null)
+                .state(address != null ? address.getState() : null)
+                .zip(address != null ? address.getZip() : null)
+                .latitude(address != null ? address.getLatitude() : null)
+                .longitude(address != null ? address.getLongitude() : null)
+                .build();
+    }
+
+    private static byte status(AppointmentSlot.SlotStatus status) {
+        return (byte) status.ordinal();
+    }
+
+    static int epochMinute(Instant instant) {
+        return Math.toIntExact(Math.floorDiv(instant.getEpochSecond(), 60));
+    }
+
+    static Instant instantOf(int epochMinute) {
+        return Instant.ofEpochSecond(epochMinute * 60L);
+    }
+
+    private static int ceilEpochMinute(Instant instant) {
+        long seconds = instant.getEpochSecond() + (instant.getNano() > 0 ? 1 : 0);
+        return Math.toIntExact(-Math.floorDiv(-seconds, 60));
+    }
+
+    // Evaluates the caller's predicate once per distinct attribute id in a search
+    private final class AttributeFilter {
+        private final Predicate<SlotAttributes> predicate;
+        private final Map<Integer, Boolean> verdicts = new HashMap<>();
+
+        private AttributeFilter(Predicate<SlotAttributes> predicate) {
+            this.predicate = predicate;
+        }
+
+        boolean test(int attributeId) {
+            return verdicts.computeIfAbsent(attributeId, id -> predicate.test(attributes.get(id)));
+        }
+    }
+
+    // Counts providers per facet value, case-insensitively, showing the first spelling seen
+    private static final class FacetCounter {
+        private final ProviderFacetIndex.Facet facet;
+        private final Map<String, String> labels = new HashMap<>();
+        private final Map<String, Integer> counts = new HashMap<>();
+
+        private FacetCounter(ProviderFacetIndex.Facet facet) {
+            this.facet = facet;
+        }
+
+        void add(String value) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String key = ProviderFacetIndex.normalize(facet, value);
+            labels.putIfAbsent(key, value.trim());
+            counts.merge(key, 1, Integer::sum);
+        }
+
+        Map<String, Integer> sortedCounts() {
+            Map<String, Integer> sorted = new LinkedHashMap<>();
+            counts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(entry -> sorted.put(labels.get(entry.getKey()), entry.getValue()));
+            return sorted;
+        }
+    }
+
+    // A position in one provider's timeline during a merge
+    private final class Cursor implements Comparable<Cursor> {
+        private final UUID providerId;
+        private final SlotTimeline.Snapshot snapshot;
+        private int position;
+
+        private Cursor(UUID providerId, SlotTimeline.Snapshot snapshot, int position) {
+            this.providerId = providerId;
+            this.snapshot = snapshot;
+            this.position = position;
+        }
+
+        // Moves to the next matching slot before toMinute; false when there is none
+        boolean advance(int toMinute, AttributeFilter filter) {
+            for (; position < snapshot.size() && snapshot.starts[position] < toMinute; position++) {
+                if (snapshot.statuses[position] == AVAILABLE && filter.test(snapshot.attributes[position])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        IndexedSlot toIndexedSlot() {
+            SlotAttributes slotAttributes = attributes.get(snapshot.attributes[position]);
+            return IndexedSlot.builder()
+                    .slotId(snapshot.slotId(position))
+                    .providerId(providerId)
+                    .startTime(instantOf(snapshot.starts[position]))
+                    .endTime(instantOf(snapshot.ends[position]))
+                    .appointmentType(slotAttributes.getAppointmentType())
+                    .insuranceAccepted(slotAttributes.getInsuranceAccepted())
+                    .baseFee(slotAttributes.getBaseFee())
+                    .build();
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return -other.snapshot.compare(other.position, snapshot.starts[position],
+                    snapshot.idHigh[position], snapshot.idLow[position]);
+        }
+    }
+
+    @FunctionalInterface
+    public interface SlotVisitor {
+        // Times are epoch minutes
+        void visit(int startMinute, int endMinute, AppointmentSlot.SlotStatus status);
+    }
+
+    @Value
+    @Builder
+    public static class IndexedSlot {
+        UUID slotId;
+        UUID providerId;
+        Instant startTime;
+        Instant endTime;
+        String appointmentType;
+        Boolean insuranceAccepted;
+        BigDecimal baseFee;
+
+        public static IndexedSlot position(Instant startTime, UUID slotId, UUID providerId) {
+            return IndexedSlot.builder().startTime(startTime).slotId(slotId).providerId(providerId).build();
+        }
+    }
+
+    /**
+     * Called once the index shows a change: after the writing transaction commits, on the
+     * thread that committed it.
+     */
+    interface ChangeListener {
+        /**
+         * Slots of a provider starting at {@code startTimes} were added, changed or removed,
+         * before and after a move. {@code provider} is null if the provider is not indexed.
+         */
+        void slotsChanged(UUID providerId, IndexedProvider provider, Collection<Instant> startTimes);
+
+        /**
+         * An indexed provider's profile changed, so any of its slots may now match other filters.
+         */
+        void providerChanged(UUID providerId, IndexedProvider before, IndexedProvider after);
+
+        void rebuilt();
+    }
+
+    @Value
+    @Builder
+    public static class IndexedProvider {
+        UUID providerId;
+        String specialization;
+        String city;
+        String state;
+        String zip;
+        // Null when the clinic has not been geocoded; such providers never match area searches
+        Double latitude;
+        Double longitude;
+    }
+
+    /**
+     * Provider filters for {@link #findProviderIds}; null fields do not filter. Text values
+     * match ignoring case, and {@code location} matches anywhere in "city, state zip".
+     */
+    @Value
+    @Builder
+    public static class ProviderQuery {
+        String specialization;
+        String city;
+        String state;
+        String zip;
+        String location;
+        String appointmentType;
+        Boolean insuranceAccepted;
+
+        public boolean isEmpty() {
+            return specialization == null && city == null && state == null && zip == null
+                    && location == null && appointmentType == null && insuranceAccepted == null;
+        }
+    }
+
+    @Value
+    public static class NearbyProvider {
+        UUID providerId;
+        double distanceMiles;
+    }
+
+    /**
+     * What search filters look at besides the provider; shared by every slot that has it.
+     */
+    @Value
+    public static class SlotAttributes {
+        String appointmentType;
+        Boolean insuranceAccepted;
+        BigDecimal baseFee;
+    }
+}
@@ -0,0 +1,24 @@
+package com.healthfirst.provider.service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Thrown when availability would be deleted from under booked appointments. Controllers
+ * answer 409 with the booked slots, which have to be cancelled first.
+ */
+public class BookedSlotsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<UUID> slotIds;
+
+    public BookedSlotsException(List<UUID> slotIds) {
+        super("Availability has booked appointments; cancel them first");
+        this.slotIds = List.copyOf(slotIds);
+    }
+
+    public List<UUID> getSlotIds() {
+        return slotIds;
+    }
+}
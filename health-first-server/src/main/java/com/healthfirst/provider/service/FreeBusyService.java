@@ -0,0 +1,142 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.dto.FreeBusyRequest;
+import com.healthfirst.provider.dto.FreeBusyResponse;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Free/busy bitmaps per provider and day, read straight from the slot index timelines.
+ * A bucket is busy when a booked or blocked slot overlaps it, and free when an available
+ * slot overlaps it and it is not busy.
+ */
+@Service
+@RequiredArgsConstructor
+public class FreeBusyService {
+
+    private static final int MAX_PROVIDERS = 500;
+    private static final int MAX_DAYS = 31;
+    private static final int DEFAULT_BUCKET_MINUTES = 15;
+    private static final int MIN_BUCKET_MINUTES = 5;
+    private static final String ENCODING = "base64-bitset";
+    // Days without a requested timezone are UTC days, whatever zone the server runs in
+    private static final ZoneId DEFAULT_ZONE = ZoneOffset.UTC;
+
+    private final AvailabilitySlotIndex slotIndex;
+    private final RecurringAvailabilityMaterializer materializer;
+
+    public FreeBusyResponse getFreeBusy(FreeBusyRequest request) {
+        List<UUID> providerIds = request.getProviderIds() == null ? List.of()
+                : request.getProviderIds().stream().filter(Objects::nonNull).distinct().toList();
+        if (providerIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one provider id is required");
+        }
+        if (providerIds.size() > MAX_PROVIDERS) {
+            throw new IllegalArgumentException("At most " + MAX_PROVIDERS + " providers can be requested at once");
+        }
+
+        ZoneId zoneId = resolveZone(request.getTimezone());
+        int bucketMinutes = request.getBucketMinutes() != null ? request.getBucketMinutes() : DEFAULT_BUCKET_MINUTES;
+        if (bucketMinutes < MIN_BUCKET_MINUTES || 60 % bucketMinutes != 0) {
+            throw new IllegalArgumentException("Bucket minutes must divide an hour evenly and be at least " + MIN_BUCKET_MINUTES);
+        }
+        LocalDate startDate = request.getStartDate() != null ? request.getStartDate() : LocalDate.now(zoneId);
+        LocalDate endDate = request.getEndDate() != null ? request.getEndDate() : startDate.plusDays(6);
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days < 1) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (days > MAX_DAYS) {
+            throw new IllegalArgumentException("At most " + MAX_DAYS + " days can be requested at once");
+        }
+
+        slotIndex.requireReady();
+        materializer.ensureMaterializedThrough(providerIds, endDate);
+
+        // Local midnights as epoch minutes; a day is not always 24 hours long
+        int[] dayStarts = new int[(int) days + 1];
+        for (int d = 0; d < dayStarts.length; d++) {
+            dayStarts[d] = AvailabilitySlotIndex.epochMinute(startDate.plusDays(d).atStartOfDay(zoneId).toInstant());
+        }
+
+        List<FreeBusyResponse.ProviderFreeBusy> providers = new ArrayList<>(providerIds.size());
+        for (UUID providerId : providerIds) {
+            providers.add(freeBusyFor(providerId, startDate, dayStarts, bucketMinutes));
+        }
+
+        return FreeBusyResponse.builder()
+                .success(true)
+                .data(FreeBusyResponse.FreeBusyData.builder()
+                        .startDate(startDate)
+                        .endDate(endDate)
+                        .timezone(zoneId.getId())
+                        .bucketMinutes(bucketMinutes)
+                        .encoding(ENCODING)
+                        .providers(providers)
+                        .build())
+                .build();
+    }
+
+    FreeBusyResponse.ProviderFreeBusy freeBusyFor(UUID providerId, LocalDate startDate, int[] dayStarts, int bucketMinutes) {
+        int days = dayStarts.length - 1;
+        BitSet[] free = new BitSet[days];
+        BitSet[] busy = new BitSet[days];
+        for (int d = 0; d < days; d++) {
+            free[d] = new BitSet();
+            busy[d] = new BitSet();
+        }
+
+        slotIndex.forEachSlot(providerId,
+                AvailabilitySlotIndex.instantOf(dayStarts[0]), AvailabilitySlotIndex.instantOf(dayStarts[days]),
+                (start, end, status) -> {
+                    BitSet[] target = status == AppointmentSlot.SlotStatus.AVAILABLE ? free : busy;
+                    for (int d = 0; d < days; d++) {
+                        if (start < dayStarts[d + 1] && end > dayStarts[d]) {
+                            int from = Math.max(start, dayStarts[d]) - dayStarts[d];
+                            int to = Math.min(end, dayStarts[d + 1]) - dayStarts[d];
+                            target[d].set(from / bucketMinutes, (to + bucketMinutes - 1) / bucketMinutes);
+                        }
+                    }
+                });
+
+        List<FreeBusyResponse.DayFreeBusy> dayBitmaps = new ArrayList<>(days);
+        for (int d = 0; d < days; d++) {
+            int buckets = (dayStarts[d + 1] - dayStarts[d] + bucketMinutes - 1) / bucketMinutes;
+            free[d].andNot(busy[d]);
+            dayBitmaps.add(FreeBusyResponse.DayFreeBusy.builder()
+                    .date(startDate.plusDays(d))
+                    .buckets(buckets)
+                    .free(encode(free[d], buckets))
+                    .busy(encode(busy[d], buckets))
+                    .build());
+        }
+        return FreeBusyResponse.ProviderFreeBusy.builder()
+                .providerId(providerId)
+                .days(dayBitmaps)
+                .build();
+    }
+
+    private static String encode(BitSet bits, int buckets) {
+        // toByteArray() drops trailing zero bytes; pad so every day has the same length
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(bits.toByteArray(), (buckets + 7) / 8));
+    }
+
+    private static ZoneId resolveZone(String timezone) {
+        if (timezone == null || timezone.isBlank()) {
+            return DEFAULT_ZONE;
+        }
+        try {
+            return ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown timezone: " + timezone);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.healthfirst.provider.service;
+
+/**
+ * A latitude/longitude rectangle in decimal degrees. Boxes do not wrap around the
+ * antimeridian.
+ */
+public record GeoBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+
+    private static final double MILES_PER_DEGREE_LATITUDE = 69.0;
+
+    public GeoBox {
+        if (minLatitude > maxLatitude || minLongitude > maxLongitude) {
+            throw new IllegalArgumentException("Bounding box minimums must not exceed its maximums");
+        }
+    }
+
+    /**
+     * The smallest box holding every point within {@code radiusMiles} of {@code center}.
+     */
+    public static GeoBox around(GeoPoint center, double radiusMiles) {
+        double dLat = radiusMiles / MILES_PER_DEGREE_LATITUDE;
+        double cos = Math.cos(Math.toRadians(center.latitude()));
+        // Near the poles every longitude is within reach
+        double dLon = cos < 1e-6 ? 180 : Math.min(180, dLat / cos);
+        return new GeoBox(Math.max(-90, center.latitude() - dLat), Math.max(-180, center.longitude() - dLon),
+                Math.min(90, center.latitude() + dLat), Math.min(180, center.longitude() + dLon));
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLatitude && latitude <= maxLatitude
+                && longitude >= minLongitude && longitude <= maxLongitude;
+    }
+}
@@ -0,0 +1,14 @@
+package com.healthfirst.provider.service;
+
+/**
+ * Thrown when a bulk import is requested while another is still running. Controllers
+ * answer 409 so the caller can retry once the first import has finished.
+ */
+public class ImportInProgressException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ImportInProgressException(String message) {
+        super(message);
+    }
+}
@@ -4,13 +4,16 @@ import com.healthfirst.provider.dto.PatientLoginRequest;
 import com.healthfirst.provider.dto.PatientLoginResponse;
 import com.healthfirst.provider.entity.Patient;
 import com.healthfirst.provider.repository.PatientRepository;
+import com.healthfirst.provider.security.JwtAuthenticationCache;
 import com.healthfirst.provider.security.JwtUtil;
+import com.healthfirst.provider.security.LoginAttemptLimiter;
+import com.healthfirst.provider.security.PasswordHashingService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,24 +21,43 @@ import java.util.Map;
 public class PatientAuthService {
     
     private final PatientRepository patientRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final JwtAuthenticationCache authenticationCache;
     
     public PatientLoginResponse login(PatientLoginRequest request) {
+        // Refuse locked-out accounts before spending a hash on them
+        loginAttemptLimiter.checkAllowed("PATIENT", request.getEmail());
+        
         // Find patient by email
-        Patient patient = patientRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid credentials"));
+        Patient patient = patientRepository.findByEmail(request.getEmail()).orElse(null);
+        if (patient == null) {
+            loginAttemptLimiter.recordFailure("PATIENT", request.getEmail());
+            throw new IllegalArgumentException("Invalid credentials");
+        }
         
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), patient.getPasswordHash())) {
+        if (!passwordHashingService.matches(request.getPassword(), patient.getPasswordHash())) {
+            loginAttemptLimiter.recordFailure("PATIENT", request.getEmail());
             throw new IllegalArgumentException("Invalid credentials");
         }
+        loginAttemptLimiter.recordSuccess("PATIENT", request.getEmail());
         
         // Check if account is active
         if (!patient.isActive()) {
             throw new IllegalArgumentException("Account is deactivated");
         }
         
+        // Rewrite hashes made with an older encoder or cost while we have the plain password,
+        // only for accounts that can still sign in. The bulk update skips entity listeners.
+        passwordHashingService.rehashIfOutdated(request.getPassword(), patient.getPasswordHash())
+                .ifPresent(newHash -> {
+                    if (patientRepository.updatePasswordHash(patient.getId(), patient.getPasswordHash(), newHash) > 0) {
+                        authenticationCache.patientsChanged(List.of(patient.getId()));
+                    }
+                });
+        
         // Check if email is verified (optional for login, but good practice)
         if (!patient.isEmailVerified()) {
             throw new IllegalArgumentException("Email not verified");
@@ -4,8 +4,9 @@ import com.healthfirst.provider.dto.PatientRegistrationRequest;
 import com.healthfirst.provider.dto.PatientResponse;
 import com.healthfirst.provider.entity.*;
 import com.healthfirst.provider.repository.PatientRepository;
+import com.healthfirst.provider.security.PasswordHashingService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -17,7 +18,8 @@ import java.util.List;
 public class PatientService {
     
     private final PatientRepository patientRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final RegistrationIdentityFilter identityFilter;
     
     public PatientResponse registerPatient(PatientRegistrationRequest request) {
         // Validate password confirmation
@@ -32,18 +34,13 @@ public class PatientService {
             throw new IllegalArgumentException("Patient must be at least 13 years old");
         }
         
-        // Check for existing email
-        if (patientRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Email is already registered");
-        }
-        
-        // Check for existing phone number
-        if (patientRepository.existsByPhoneNumber(request.getPhoneNumber())) {
-            throw new IllegalArgumentException("Phone number is already registered");
+        // Check for existing email or phone number; values the filter has never seen cannot clash
+        if (identityFilter.mightContainPatient(request.getEmail(), request.getPhoneNumber())) {
+            checkIdentityConflicts(request);
         }
         
         // Hash password
-        String hashedPassword = passwordEncoder.encode(request.getPassword());
+        String hashedPassword = passwordHashingService.encode(request.getPassword());
         
         // Create patient entity
         Patient patient = new Patient();
@@ -86,7 +83,16 @@ public class PatientService {
         }
         
         // Save patient
-        Patient savedPatient = patientRepository.save(patient);
+        Patient savedPatient;
+        try {
+            savedPatient = patientRepository.save(patient);
+        } catch (DataIntegrityViolationException e) {
+            // Registered concurrently, or through another instance since the filter was built
+            identityFilter.recordPatient(request.getEmail(), request.getPhoneNumber());
+            checkIdentityConflicts(request);
+            throw e;
+        }
+        identityFilter.recordPatient(savedPatient.getEmail(), savedPatient.getPhoneNumber());
         
         // Create response
         PatientResponse.DataDTO data = new PatientResponse.DataDTO();
@@ -98,4 +104,15 @@ public class PatientService {
         
         return new PatientResponse(true, "Patient registered successfully. Verification email sent.", data, null);
     }
-} 
\ No newline at end of file
+    
+    private void checkIdentityConflicts(PatientRegistrationRequest request) {
+        List<PatientRepository.PatientIdentityRow> conflicts =
+                patientRepository.findIdentityConflicts(request.getEmail(), request.getPhoneNumber());
+        if (conflicts.stream().anyMatch(row -> request.getEmail().equals(row.getEmail()))) {
+            throw new IllegalArgumentException("Email is already registered");
+        }
+        if (!conflicts.isEmpty()) {
+            throw new IllegalArgumentException("Phone number is already registered");
+        }
+    }
+}
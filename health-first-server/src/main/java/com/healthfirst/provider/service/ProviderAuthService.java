@@ -4,39 +4,60 @@ import com.healthfirst.provider.dto.ProviderLoginRequest;
 import com.healthfirst.provider.dto.ProviderLoginResponse;
 import com.healthfirst.provider.entity.Provider;
 import com.healthfirst.provider.repository.ProviderRepository;
+import com.healthfirst.provider.security.JwtAuthenticationCache;
 import com.healthfirst.provider.security.JwtUtil;
+import com.healthfirst.provider.security.LoginAttemptLimiter;
+import com.healthfirst.provider.security.PasswordHashingService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class ProviderAuthService {
     private final ProviderRepository providerRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final JwtUtil jwtUtil;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final JwtAuthenticationCache authenticationCache;
 
     public ProviderLoginResponse login(ProviderLoginRequest request) {
+        // Refuse locked-out accounts before spending a hash on them
+        loginAttemptLimiter.checkAllowed("PROVIDER", request.getEmail());
+
         // Find provider by email
         Provider provider = providerRepository.findByEmail(request.getEmail())
                 .orElse(null);
 
         if (provider == null) {
+            loginAttemptLimiter.recordFailure("PROVIDER", request.getEmail());
             return createErrorResponse("Invalid credentials", "INVALID_CREDENTIALS");
         }
 
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), provider.getPasswordHash())) {
+        if (!passwordHashingService.matches(request.getPassword(), provider.getPasswordHash())) {
+            loginAttemptLimiter.recordFailure("PROVIDER", request.getEmail());
             return createErrorResponse("Invalid credentials", "INVALID_CREDENTIALS");
         }
+        loginAttemptLimiter.recordSuccess("PROVIDER", request.getEmail());
 
         // Check if account is active
         if (!provider.isActive()) {
             return createErrorResponse("Account is deactivated", "ACCOUNT_DEACTIVATED");
         }
 
+        // Rewrite hashes made with an older encoder or cost while we have the plain password,
+        // only for accounts that can still sign in. The bulk update skips entity listeners.
+        passwordHashingService.rehashIfOutdated(request.getPassword(), provider.getPasswordHash())
+                .ifPresent(newHash -> {
+                    if (providerRepository.updatePasswordHash(provider.getId(), provider.getPasswordHash(), newHash) > 0) {
+                        authenticationCache.providersChanged(List.of(provider.getId()));
+                    }
+                });
+
         // Check if account is verified
         if (!Provider.VerificationStatus.VERIFIED.equals(provider.getVerificationStatus())) {
             return createErrorResponse("Account not verified", "ACCOUNT_NOT_VERIFIED");
@@ -51,7 +72,7 @@ public class ProviderAuthService {
         claims.put("specialization", provider.getSpecialization());
         claims.put("verification_status", provider.getVerificationStatus());
 
-        String token = JwtUtil.generateToken(claims, provider.getEmail());
+        String token = jwtUtil.generateToken(claims, provider.getEmail());
 
         // Create success response
         ProviderLoginResponse.ProviderDTO providerDTO = new ProviderLoginResponse.ProviderDTO(
@@ -68,7 +89,7 @@ public class ProviderAuthService {
 
         ProviderLoginResponse.DataDTO dataDTO = new ProviderLoginResponse.DataDTO(
                 token,
-                3600L, // 1 hour in seconds
+                jwtUtil.getExpirationMs() / 1000,
                 "Bearer",
                 providerDTO
         );
@@ -0,0 +1,287 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.dto.BulkAvailabilityRequest;
+import com.healthfirst.provider.dto.BulkAvailabilityResponse;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.AvailabilityLocation;
+import com.healthfirst.provider.entity.AvailabilityPricing;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.repository.AppointmentSlotBatchWriter;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import com.healthfirst.provider.repository.ProviderRepository;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Creates availability blocks for many providers and days in one request. Overlaps are
+ * resolved by {@link AvailabilityOverlapIndex}, one lookup per chunk, and accepted blocks are
+ * saved with their slots in batches, one transaction per chunk.
+ */
+@Service
+@Slf4j
+public class ProviderAvailabilityImportService {
+
+    // Providers per lookup query, to keep IN lists a reasonable size
+    private static final int LOOKUP_BATCH = 500;
+
+    private final ProviderAvailabilityRepository availabilityRepository;
+    private final ProviderRepository providerRepository;
+    private final AppointmentSlotBatchWriter slotBatchWriter;
+    private final AvailabilitySlotIndex slotIndex;
+    private final RecurringAvailabilityMaterializer materializer;
+    private final AvailabilityOverlapIndex overlapIndex;
+    private final Validator validator;
+    private final TransactionTemplate chunkTransaction;
+    private final int maxBlocks;
+    private final int chunkSize;
+
+    public ProviderAvailabilityImportService(ProviderAvailabilityRepository availabilityRepository,
+                                             ProviderRepository providerRepository,
+                                             AppointmentSlotBatchWriter slotBatchWriter,
+                                             AvailabilitySlotIndex slotIndex,
+                                             RecurringAvailabilityMaterializer materializer,
+                                             AvailabilityOverlapIndex overlapIndex,
+                                             Validator validator,
+                                             PlatformTransactionManager transactionManager,
+                                             @Value("${availability-import.max-blocks:10000}") int maxBlocks,
+                                             @Value("${availability-import.chunk-size:500}") int chunkSize) {
+        this.availabilityRepository = availabilityRepository;
+        this.providerRepository = providerRepository;
+        this.slotBatchWriter = slotBatchWriter;
+        this.slotIndex = slotIndex;
+        this.materializer = materializer;
+        this.overlapIndex = overlapIndex;
+        this.validator = validator;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.maxBlocks = maxBlocks;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the request has no blocks or too many
+     */
+    public BulkAvailabilityResponse importAvailability(BulkAvailabilityRequest request) {
+        List<BulkAvailabilityRequest.Block> blocks = request.getBlocks();
+        if (blocks == null || blocks.isEmpty()) {
+            throw new IllegalArgumentException("At least one availability block is required");
+        }
+        if (blocks.size() > maxBlocks) {
+            throw new IllegalArgumentException("At most " + maxBlocks + " availability blocks can be imported at once");
+        }
+
+        List<BulkAvailabilityResponse.RejectedBlock> rejected = new ArrayList<>();
+
+        // Validate every block on its own so one bad row does not fail the roster
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            BulkAvailabilityRequest.Block block = blocks.get(i);
+            if (block == null) {
+                rejected.add(rejection(i, null, List.of("Block is empty")));
+                continue;
+            }
+            List<String> reasons = new ArrayList<>();
+            validator.validate(block).forEach(v -> reasons.add(v.getMessage()));
+            LocalTime startTime = null;
+            LocalTime endTime = null;
+            if (reasons.isEmpty()) {
+                try {
+                    startTime = LocalTime.parse(block.getStartTime());
+                    endTime = LocalTime.parse(block.getEndTime());
+                    if (!endTime.isAfter(startTime)) {
+                        reasons.add("End time must be after start time");
+                    }
+                } catch (DateTimeParseException e) {
+                    reasons.add("Start and end times must be in HH:mm format");
+                }
+            }
+            if (reasons.isEmpty()) {
+                candidates.add(new Candidate(i, block, startTime, endTime));
+            } else {
+                rejected.add(rejection(i, block, reasons));
+            }
+        }
+
+        Map<UUID, Provider> providers = loadProviders(candidates);
+        List<Candidate> accepted = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            Provider provider = providers.get(candidate.block.getProviderId());
+            if (provider == null) {
+                rejected.add(rejection(candidate.index, candidate.block, List.of("Provider not found")));
+            } else if (!provider.isActive()) {
+                rejected.add(rejection(candidate.index, candidate.block, List.of("Provider is not active")));
+            } else {
+                candidate.rule = toRule(provider, candidate);
+                accepted.add(candidate);
+            }
+        }
+
+        // Blocks saved by this import so far, to tell clashes within the upload from older ones
+        Map<UUID, AvailabilitySchedule> imported = new HashMap<>();
+        List<BulkAvailabilityResponse.CreatedBlock> created = new ArrayList<>();
+        int slotsCreated = 0;
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Candidate> chunk = accepted.subList(from, Math.min(accepted.size(), from + chunkSize));
+            List<Candidate> reserved = new ArrayList<>();
+            try {
+                slotsCreated += saveChunk(chunk, reserved, imported, created);
+            } catch (DataAccessException e) {
+                log.error("Failed to save availability import chunk of {} blocks", chunk.size(), e);
+                for (Candidate candidate : reserved) {
+                    imported.get(candidate.block.getProviderId()).remove(candidate.scheduled);
+                    candidate.conflict = "Could not be saved";
+                }
+            }
+            chunk.stream().filter(candidate -> candidate.conflict != null).forEach(candidate ->
+                    rejected.add(rejection(candidate.index, candidate.block, List.of(candidate.conflict))));
+        }
+
+        rejected.sort(Comparator.comparing(BulkAvailabilityResponse.RejectedBlock::getIndex));
+        return BulkAvailabilityResponse.builder()
+                .success(rejected.isEmpty())
+                .message(rejected.isEmpty()
+                        ? "Availability blocks created successfully"
+                        : "Created " + created.size() + " of " + blocks.size() + " availability blocks")
+                .data(BulkAvailabilityResponse.BulkAvailabilityData.builder()
+                        .blocksSubmitted(blocks.size())
+                        .blocksCreated(created.size())
+                        .blocksRejected(rejected.size())
+                        .slotsCreated(slotsCreated)
+                        .created(created)
+                        .rejected(rejected)
+                        .build())
+                .build();
+    }
+
+    private int saveChunk(List<Candidate> chunk, List<Candidate> reserved,
+                          Map<UUID, AvailabilitySchedule> imported,
+                          List<BulkAvailabilityResponse.CreatedBlock> created) {
+        List<AppointmentSlot> slots = chunkTransaction.execute(status -> {
+            // Blocks are checked in submission order, so earlier blocks in the upload win
+            Set<ProviderAvailability> reservedRules = overlapIndex.tryReserveAll(
+                    chunk.stream().map(candidate -> candidate.rule).toList());
+            for (Candidate candidate : chunk) {
+                AvailabilitySchedule schedule = imported.computeIfAbsent(
+                        candidate.block.getProviderId(), id -> new AvailabilitySchedule());
+                AvailabilitySchedule.Block block = AvailabilitySchedule.Block.of(candidate.rule);
+                if (reservedRules.contains(candidate.rule)) {
+                    schedule.add(block);
+                    candidate.scheduled = block;
+                    reserved.add(candidate);
+                } else {
+                    candidate.conflict = schedule.findConflict(block, other -> false).isPresent()
+                            ? "Time slot overlaps with another block in this import"
+                            : "Time slot overlaps with existing availability";
+                }
+            }
+
+            List<ProviderAvailability> rules = reserved.stream().map(candidate -> candidate.rule).toList();
+            // One pass over the chunk; sets materializedThrough before the rules are inserted
+            List<AppointmentSlot> planned = materializer.planInitialSlots(rules);
+            // Hibernate batches these inserts; flush so the slot rows can reference them
+            availabilityRepository.saveAll(rules);
+            availabilityRepository.flush();
+            slotBatchWriter.insertAll(planned);
+            return planned;
+        });
+        slotIndex.putAll(slots);
+
+        Map<ProviderAvailability, Integer> slotCounts = new IdentityHashMap<>();
+        slots.forEach(slot -> slotCounts.merge(slot.getAvailability(), 1, Integer::sum));
+        for (Candidate candidate : reserved) {
+            created.add(BulkAvailabilityResponse.CreatedBlock.builder()
+                    .index(candidate.index)
+                    .providerId(candidate.block.getProviderId())
+                    .availabilityId(candidate.rule.getId())
+                    .date(candidate.block.getDate())
+                    .slotsCreated(slotCounts.getOrDefault(candidate.rule, 0))
+                    .build());
+        }
+        return slots.size();
+    }
+
+    private Map<UUID, Provider> loadProviders(List<Candidate> candidates) {
+        Map<UUID, Provider> providers = new HashMap<>();
+        for (List<UUID> ids : providerIdBatches(candidates)) {
+            providerRepository.findAllById(ids).forEach(provider -> providers.put(provider.getId(), provider));
+        }
+        return providers;
+    }
+
+    private static List<List<UUID>> providerIdBatches(List<Candidate> candidates) {
+        List<UUID> ids = candidates.stream().map(c -> c.block.getProviderId()).distinct().toList();
+        List<List<UUID>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += LOOKUP_BATCH) {
+            batches.add(ids.subList(from, Math.min(ids.size(), from + LOOKUP_BATCH)));
+        }
+        return batches;
+    }
+
+    private static ProviderAvailability toRule(Provider provider, Candidate candidate) {
+        BulkAvailabilityRequest.Block block = candidate.block;
+        return ProviderAvailability.builder()
+                .provider(provider)
+                .date(block.getDate())
+                .startTime(candidate.startTime)
+                .endTime(candidate.endTime)
+                .timezone(block.getTimezone())
+                .slotDuration(block.getSlotDuration())
+                .breakDuration(block.getBreakDuration())
+                .isRecurring(block.getIsRecurring())
+                .recurrencePattern(block.getRecurrencePattern())
+                .recurrenceEndDate(block.getRecurrenceEndDate())
+                .materializedThrough(block.getDate().minusDays(1))
+                .appointmentType(block.getAppointmentType())
+                .location(block.getLocation() == null ? null : AvailabilityLocation.builder()
+                        .type(block.getLocation().getType())
+                        .address(block.getLocation().getAddress())
+                        .roomNumber(block.getLocation().getRoomNumber())
+                        .build())
+                .pricing(block.getPricing() == null ? null : AvailabilityPricing.builder()
+                        .baseFee(block.getPricing().getBaseFee())
+                        .insuranceAccepted(block.getPricing().getInsuranceAccepted())
+                        .currency(block.getPricing().getCurrency())
+                        .build())
+                .notes(block.getNotes())
+                .specialRequirements(block.getSpecialRequirements())
+                .build();
+    }
+
+    private static BulkAvailabilityResponse.RejectedBlock rejection(int index, BulkAvailabilityRequest.Block block,
+                                                                    List<String> reasons) {
+        return BulkAvailabilityResponse.RejectedBlock.builder()
+                .index(index)
+                .providerId(block == null ? null : block.getProviderId())
+                .date(block == null ? null : block.getDate())
+                .startTime(block == null ? null : block.getStartTime())
+                .endTime(block == null ? null : block.getEndTime())
+                .reasons(reasons)
+                .build();
+    }
+
+    private static final class Candidate {
+        private final int index;
+        private final BulkAvailabilityRequest.Block block;
+        private final LocalTime startTime;
+        private final LocalTime endTime;
+        private ProviderAvailability rule;
+        private AvailabilitySchedule.Block scheduled;
+        private String conflict;
+
+        private Candidate(int index, BulkAvailabilityRequest.Block block, LocalTime startTime, LocalTime endTime) {
+            this.index = index;
+            this.block = block;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+    }
+}
@@ -7,10 +7,11 @@ import com.healthfirst.provider.entity.*;
 import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
 import com.healthfirst.provider.repository.AppointmentSlotRepository;
 import com.healthfirst.provider.repository.ProviderRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.*;
 import java.time.format.DateTimeFormatter;
@@ -18,13 +19,35 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ProviderAvailabilityService {
     
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    
     private final ProviderAvailabilityRepository availabilityRepository;
     private final AppointmentSlotRepository slotRepository;
     private final ProviderRepository providerRepository;
+    private final AvailabilitySlotIndex slotIndex;
+    private final RecurringAvailabilityMaterializer materializer;
+    private final AvailabilityOverlapIndex overlapIndex;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    public ProviderAvailabilityService(ProviderAvailabilityRepository availabilityRepository,
+                                       AppointmentSlotRepository slotRepository,
+                                       ProviderRepository providerRepository,
+                                       AvailabilitySlotIndex slotIndex,
+                                       RecurringAvailabilityMaterializer materializer,
+                                       AvailabilityOverlapIndex overlapIndex,
+                                       PlatformTransactionManager transactionManager) {
+        this.availabilityRepository = availabilityRepository;
+        this.slotRepository = slotRepository;
+        this.providerRepository = providerRepository;
+        this.slotIndex = slotIndex;
+        this.materializer = materializer;
+        this.overlapIndex = overlapIndex;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
     
     @Transactional
     public AvailabilityResponse createAvailability(UUID providerId, CreateAvailabilityRequest request) {
@@ -44,11 +67,6 @@ public class ProviderAvailabilityService {
             throw new IllegalArgumentException("End time must be after start time");
         }
         
-        // Check for overlapping slots
-        if (hasOverlappingSlots(providerId, request.getDate(), startTime, endTime)) {
-            throw new IllegalArgumentException("Time slot overlaps with existing availability");
-        }
-        
         // Create availability entity
         ProviderAvailability availability = ProviderAvailability.builder()
                 .provider(provider)
@@ -61,6 +79,7 @@ public class ProviderAvailabilityService {
                 .isRecurring(request.getIsRecurring())
                 .recurrencePattern(request.getRecurrencePattern())
                 .recurrenceEndDate(request.getRecurrenceEndDate())
+                .materializedThrough(request.getDate().minusDays(1))
                 .appointmentType(request.getAppointmentType())
                 .location(mapLocation(request.getLocation()))
                 .pricing(mapPricing(request.getPricing()))
@@ -68,11 +87,16 @@ public class ProviderAvailabilityService {
                 .specialRequirements(request.getSpecialRequirements())
                 .build();
         
-        availability = availabilityRepository.save(availability);
+        // Check for overlaps with other blocks, recurring ones included; held until commit
+        if (!overlapIndex.tryReserve(availability)) {
+            throw new IllegalArgumentException("Time slot overlaps with existing availability");
+        }
+        
+        // Flush so the batched slot inserts below can reference the availability row
+        availability = availabilityRepository.saveAndFlush(availability);
         
-        // Generate appointment slots
-        List<AppointmentSlot> slots = generateAppointmentSlots(availability);
-        slotRepository.saveAll(slots);
+        // Generate appointment slots; recurring rules are only expanded up to the materialization horizon
+        List<AppointmentSlot> slots = materializer.materializeNew(availability);
         
         // Calculate total appointments available
         int totalAppointments = slots.size();
@@ -92,47 +116,70 @@ public class ProviderAvailabilityService {
                 .build();
     }
     
+    /**
+     * Runs outside a transaction: materializing takes a connection of its own per rule, so the
+     * calendar is only read, in a read-only transaction, once that is done.
+     */
     public GetAvailabilityResponse getProviderAvailability(UUID providerId, LocalDate startDate, 
                                                          LocalDate endDate, String status, String appointmentType) {
-        // Validate provider exists
-        if (!providerRepository.existsById(providerId)) {
+        // Validate provider exists; a lookup by id is served by the second-level cache, a count query is not
+        if (providerRepository.findById(providerId).isEmpty()) {
             throw new IllegalArgumentException("Provider not found");
         }
         
         // Parse filters
-        ProviderAvailability.AvailabilityStatus statusFilter = null;
+        ProviderAvailability.AvailabilityStatus statusFilter;
         if (status != null) {
             try {
                 statusFilter = ProviderAvailability.AvailabilityStatus.valueOf(status.toUpperCase());
             } catch (IllegalArgumentException e) {
                 throw new IllegalArgumentException("Invalid status filter");
             }
+        } else {
+            statusFilter = null;
         }
         
-        ProviderAvailability.AppointmentType appointmentTypeFilter = null;
+        ProviderAvailability.AppointmentType appointmentTypeFilter;
         if (appointmentType != null) {
             try {
                 appointmentTypeFilter = ProviderAvailability.AppointmentType.valueOf(appointmentType.toUpperCase());
             } catch (IllegalArgumentException e) {
                 throw new IllegalArgumentException("Invalid appointment type filter");
             }
+        } else {
+            appointmentTypeFilter = null;
         }
         
-        // Get availability data
-        List<ProviderAvailability> availabilities = availabilityRepository.findAvailabilityWithFilters(
+        // Recurring rules may not have slots this far out yet
+        materializer.ensureMaterializedThrough(List.of(providerId), endDate);
+        
+        return readOnlyTransaction.execute(tx -> loadCalendar(providerId, startDate, endDate, statusFilter, appointmentTypeFilter));
+    }
+    
+    private GetAvailabilityResponse loadCalendar(UUID providerId, LocalDate startDate, LocalDate endDate,
+                                                 ProviderAvailability.AvailabilityStatus statusFilter,
+                                                 ProviderAvailability.AppointmentType appointmentTypeFilter) {
+        // Load every slot in the range with its availability in one query
+        List<AppointmentSlotRepository.CalendarSlotRow> slots = slotRepository.findCalendarSlots(
                 providerId, startDate, endDate, statusFilter, appointmentTypeFilter);
         
         // Group by date and create response
-        Map<LocalDate, List<ProviderAvailability>> groupedByDate = availabilities.stream()
-                .collect(Collectors.groupingBy(ProviderAvailability::getDate));
+        Map<LocalDate, List<GetAvailabilityResponse.SlotInfo>> slotsByDate = new TreeMap<>();
+        for (AppointmentSlotRepository.CalendarSlotRow slot : slots) {
+            slotsByDate.computeIfAbsent(slot.getSlotDate(), date -> new ArrayList<>())
+                    .add(mapToSlotInfo(slot));
+        }
         
-        List<GetAvailabilityResponse.DayAvailability> dayAvailabilities = groupedByDate.entrySet().stream()
-                .map(entry -> createDayAvailability(entry.getKey(), entry.getValue()))
-                .sorted(Comparator.comparing(GetAvailabilityResponse.DayAvailability::getDate))
+        List<GetAvailabilityResponse.DayAvailability> dayAvailabilities = slotsByDate.entrySet().stream()
+                .map(entry -> GetAvailabilityResponse.DayAvailability.builder()
+                        .date(entry.getKey().toString())
+                        .slots(entry.getValue())
+                        .build())
                 .collect(Collectors.toList());
         
         // Calculate summary
-        GetAvailabilityResponse.AvailabilitySummary summary = calculateAvailabilitySummary(availabilities);
+        GetAvailabilityResponse.AvailabilitySummary summary = calculateAvailabilitySummary(
+                slotRepository.countCalendarSlotsByStatus(providerId, startDate, endDate, statusFilter, appointmentTypeFilter));
         
         return GetAvailabilityResponse.builder()
                 .success(true)
@@ -153,6 +200,8 @@ public class ProviderAvailabilityService {
         if (updates.containsKey("startTime")) {
             ZonedDateTime newStartTime = ZonedDateTime.parse((String) updates.get("startTime"));
             slot.setSlotStartTime(newStartTime);
+            slot.setSlotDate(newStartTime.withZoneSameInstant(
+                    ZoneId.of(slot.getAvailability().getTimezone())).toLocalDate());
         }
         
         if (updates.containsKey("endTime")) {
@@ -160,6 +209,10 @@ public class ProviderAvailabilityService {
             slot.setSlotEndTime(newEndTime);
         }
         
+        if (updates.containsKey("startTime") || updates.containsKey("endTime")) {
+            checkMovedSlot(slot);
+        }
+        
         if (updates.containsKey("status")) {
             AppointmentSlot.SlotStatus newStatus = AppointmentSlot.SlotStatus.valueOf(
                     ((String) updates.get("status")).toUpperCase());
@@ -174,6 +227,7 @@ public class ProviderAvailabilityService {
         }
         
         slotRepository.save(slot);
+        slotIndex.put(slot);
     }
     
     @Transactional
@@ -182,24 +236,63 @@ public class ProviderAvailabilityService {
                 .orElseThrow(() -> new IllegalArgumentException("Slot not found"));
         
         if (deleteRecurring != null && deleteRecurring) {
-            // Delete all recurring slots
+            // Delete the slots already generated from here on and end the rule before this occurrence
             ProviderAvailability availability = slot.getAvailability();
             if (availability.getIsRecurring()) {
-                List<AppointmentSlot> recurringSlots = slotRepository.findByProviderIdAndSlotStartTimeBetweenOrderBySlotStartTimeAsc(
-                        slot.getProvider().getId(), 
-                        slot.getSlotStartTime().withZoneSameInstant(ZoneOffset.UTC),
-                        availability.getRecurrenceEndDate().atStartOfDay(ZoneOffset.UTC));
+                List<AppointmentSlot> recurringSlots = slotRepository.findByAvailabilityIdStartingFrom(
+                        availability.getId(), slot.getSlotStartTime());
+                deleteUnbooked(recurringSlots);
                 
-                slotRepository.deleteAll(recurringSlots);
+                LocalDate lastDate = slot.getSlotDate().minusDays(1);
+                if (lastDate.isBefore(availability.getDate())) {
+                    availability.setStatus(ProviderAvailability.AvailabilityStatus.CANCELLED);
+                } else {
+                    availability.setRecurrenceEndDate(lastDate);
+                }
+                availabilityRepository.save(availability);
+                overlapIndex.update(availability);
             }
         } else {
             // Delete only this slot
-            slotRepository.delete(slot);
+            deleteUnbooked(List.of(slot));
         }
     }
     
-    private boolean hasOverlappingSlots(UUID providerId, LocalDate date, LocalTime startTime, LocalTime endTime) {
-        return availabilityRepository.countOverlappingSlots(providerId, date, startTime.toString(), endTime.toString()) > 0;
+    // Booked slots are never deleted along with availability; the whole delete is refused instead
+    private void deleteUnbooked(List<AppointmentSlot> slots) {
+        List<UUID> booked = slots.stream()
+                .filter(slot -> slot.getStatus() == AppointmentSlot.SlotStatus.BOOKED)
+                .map(AppointmentSlot::getId)
+                .toList();
+        if (booked.isEmpty() && !slots.isEmpty()) {
+            List<UUID> slotIds = slots.stream().map(AppointmentSlot::getId).toList();
+            if (slotRepository.deleteUnbookedByIdIn(slotIds) < slotIds.size()) {
+                // Booked since they were loaded
+                booked = slotRepository.findBookedIdsByIdIn(slotIds);
+            }
+        }
+        if (!booked.isEmpty()) {
+            throw new BookedSlotsException(booked);
+        }
+        slotIndex.removeAll(slots);
+    }
+    
+    // A moved slot may leave its own block but must not run into another one
+    private void checkMovedSlot(AppointmentSlot slot) {
+        ProviderAvailability availability = slot.getAvailability();
+        ZoneId zoneId = ZoneId.of(availability.getTimezone());
+        ZonedDateTime start = slot.getSlotStartTime().withZoneSameInstant(zoneId);
+        ZonedDateTime end = slot.getSlotEndTime().withZoneSameInstant(zoneId);
+        
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        // Past midnight, the part on the start date is checked
+        LocalTime endTime = end.toLocalDate().isAfter(start.toLocalDate()) ? LocalTime.MIDNIGHT : end.toLocalTime();
+        if (overlapIndex.overlapsOtherBlock(slot.getProvider().getId(), availability.getId(),
+                start.toLocalDate(), start.toLocalTime(), endTime)) {
+            throw new IllegalArgumentException("Slot overlaps with another availability block");
+        }
     }
     
     private AvailabilityLocation mapLocation(CreateAvailabilityRequest.LocationDTO locationDTO) {
@@ -222,116 +315,59 @@ public class ProviderAvailabilityService {
                 .build();
     }
     
-    private List<AppointmentSlot> generateAppointmentSlots(ProviderAvailability availability) {
-        List<AppointmentSlot> slots = new ArrayList<>();
-        
-        LocalTime currentTime = availability.getStartTime();
-        LocalTime endTime = availability.getEndTime();
-        
-        while (currentTime.plusMinutes(availability.getSlotDuration()).isBefore(endTime) || 
-               currentTime.plusMinutes(availability.getSlotDuration()).equals(endTime)) {
-            
-            LocalTime slotEndTime = currentTime.plusMinutes(availability.getSlotDuration());
-            
-            // Convert to ZonedDateTime for the specific date and timezone
-            ZoneId zoneId = ZoneId.of(availability.getTimezone());
-            ZonedDateTime slotStartZoned = availability.getDate().atTime(currentTime).atZone(zoneId);
-            ZonedDateTime slotEndZoned = availability.getDate().atTime(slotEndTime).atZone(zoneId);
-            
-            AppointmentSlot slot = AppointmentSlot.builder()
-                    .availability(availability)
-                    .provider(availability.getProvider())
-                    .slotStartTime(slotStartZoned)
-                    .slotEndTime(slotEndZoned)
-                    .status(AppointmentSlot.SlotStatus.AVAILABLE)
-                    .appointmentType(availability.getAppointmentType().name())
-                    .build();
-            
-            slots.add(slot);
-            
-            // Move to next slot (including break)
-            currentTime = slotEndTime.plusMinutes(availability.getBreakDuration());
-        }
-        
-        return slots;
-    }
-    
-    private GetAvailabilityResponse.DayAvailability createDayAvailability(LocalDate date, List<ProviderAvailability> availabilities) {
-        List<GetAvailabilityResponse.SlotInfo> slots = availabilities.stream()
-                .flatMap(availability -> {
-                    // Get appointment slots for this availability
-                    List<AppointmentSlot> appointmentSlots = slotRepository.findByProviderIdAndSlotStartTimeBetweenOrderBySlotStartTimeAsc(
-                            availability.getProvider().getId(),
-                            date.atStartOfDay(ZoneOffset.UTC),
-                            date.plusDays(1).atStartOfDay(ZoneOffset.UTC));
-                    
-                    return appointmentSlots.stream().map(this::mapToSlotInfo);
-                })
-                .collect(Collectors.toList());
-        
-        return GetAvailabilityResponse.DayAvailability.builder()
-                .date(date.toString())
-                .slots(slots)
-                .build();
-    }
-    
-    private GetAvailabilityResponse.SlotInfo mapToSlotInfo(AppointmentSlot slot) {
+    private GetAvailabilityResponse.SlotInfo mapToSlotInfo(AppointmentSlotRepository.CalendarSlotRow slot) {
         return GetAvailabilityResponse.SlotInfo.builder()
                 .slotId(slot.getId())
-                .startTime(slot.getSlotStartTime().toLocalTime().format(DateTimeFormatter.ofPattern("HH:mm")))
-                .endTime(slot.getSlotEndTime().toLocalTime().format(DateTimeFormatter.ofPattern("HH:mm")))
+                .startTime(slot.getSlotStartTime().toLocalTime().format(TIME_FORMAT))
+                .endTime(slot.getSlotEndTime().toLocalTime().format(TIME_FORMAT))
                 .status(slot.getStatus().name())
                 .appointmentType(slot.getAppointmentType())
-                .location(mapToLocationInfo(slot.getAvailability().getLocation()))
-                .pricing(mapToPricingInfo(slot.getAvailability().getPricing()))
+                .location(mapToLocationInfo(slot))
+                .pricing(mapToPricingInfo(slot))
                 .build();
     }
     
-    private GetAvailabilityResponse.LocationInfo mapToLocationInfo(AvailabilityLocation location) {
-        if (location == null) return null;
+    // An embedded location or pricing with every column null was read back as null before projections
+    private GetAvailabilityResponse.LocationInfo mapToLocationInfo(AppointmentSlotRepository.CalendarSlotRow slot) {
+        if (slot.getLocationType() == null && slot.getLocationAddress() == null && slot.getRoomNumber() == null) return null;
         
         return GetAvailabilityResponse.LocationInfo.builder()
-                .type(location.getType().name())
-                .address(location.getAddress())
-                .roomNumber(location.getRoomNumber())
+                .type(slot.getLocationType() != null ? slot.getLocationType().name() : null)
+                .address(slot.getLocationAddress())
+                .roomNumber(slot.getRoomNumber())
                 .build();
     }
     
-    private GetAvailabilityResponse.PricingInfo mapToPricingInfo(AvailabilityPricing pricing) {
-        if (pricing == null) return null;
+    private GetAvailabilityResponse.PricingInfo mapToPricingInfo(AppointmentSlotRepository.CalendarSlotRow slot) {
+        if (slot.getBaseFee() == null && slot.getInsuranceAccepted() == null) return null;
         
         return GetAvailabilityResponse.PricingInfo.builder()
-                .baseFee(pricing.getBaseFee())
-                .insuranceAccepted(pricing.getInsuranceAccepted())
+                .baseFee(slot.getBaseFee())
+                .insuranceAccepted(slot.getInsuranceAccepted())
                 .build();
     }
     
-    private GetAvailabilityResponse.AvailabilitySummary calculateAvailabilitySummary(List<ProviderAvailability> availabilities) {
+    private GetAvailabilityResponse.AvailabilitySummary calculateAvailabilitySummary(
+            List<AppointmentSlotRepository.SlotStatusCount> statusCounts) {
         int totalSlots = 0;
         int availableSlots = 0;
         int bookedSlots = 0;
         int cancelledSlots = 0;
         
-        for (ProviderAvailability availability : availabilities) {
-            List<AppointmentSlot> slots = slotRepository.findByProviderIdAndSlotStartTimeBetweenOrderBySlotStartTimeAsc(
-                    availability.getProvider().getId(),
-                    availability.getDate().atStartOfDay(ZoneOffset.UTC),
-                    availability.getDate().plusDays(1).atStartOfDay(ZoneOffset.UTC));
+        for (AppointmentSlotRepository.SlotStatusCount statusCount : statusCounts) {
+            int count = (int) statusCount.getSlotCount();
+            totalSlots += count;
             
-            totalSlots += slots.size();
-            
-            for (AppointmentSlot slot : slots) {
-                switch (slot.getStatus()) {
-                    case AVAILABLE:
-                        availableSlots++;
-                        break;
-                    case BOOKED:
-                        bookedSlots++;
-                        break;
-                    case CANCELLED:
-                        cancelledSlots++;
-                        break;
-                }
+            switch (statusCount.getStatus()) {
+                case AVAILABLE:
+                    availableSlots += count;
+                    break;
+                case BOOKED:
+                    bookedSlots += count;
+                    break;
+                case CANCELLED:
+                    cancelledSlots += count;
+                    break;
             }
         }
         
@@ -342,4 +378,4 @@ public class ProviderAvailabilityService {
                 .cancelledSlots(cancelledSlots)
                 .build();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,369 @@
+package com.healthfirst.provider.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthfirst.provider.dto.ProviderImportResponse;
+import com.healthfirst.provider.dto.ProviderRegistrationRequest;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderBatchWriter;
+import com.healthfirst.provider.repository.ProviderRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Onboards providers from a streamed CSV or NDJSON upload. Records are read in chunks;
+ * each chunk is validated and hashed on a worker pool, checked for clashes with one query,
+ * and written with batched inserts. Rows that fail are reported by line and skipped.
+ */
+@Service
+@Slf4j
+public class ProviderBulkImportService {
+
+    private final ProviderService providerService;
+    private final ProviderRepository providerRepository;
+    private final ProviderBatchWriter providerBatchWriter;
+    private final RegistrationIdentityFilter identityFilter;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BCryptPasswordEncoder importBcrypt;
+    private final ThreadPoolExecutor workers;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    // Imports are long and CPU-bound; running two at once would only slow both down
+    private final Semaphore importPermit = new Semaphore(1);
+
+    public enum Format { CSV, NDJSON }
+
+    public ProviderBulkImportService(ProviderService providerService,
+                                     ProviderRepository providerRepository,
+                                     ProviderBatchWriter providerBatchWriter,
+                                     RegistrationIdentityFilter identityFilter,
+                                     Validator validator,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${provider-import.workers:0}") int workers,
+                                     @Value("${provider-import.chunk-size:1000}") int chunkSize,
+                                     @Value("${provider-import.bcrypt-strength:10}") int bcryptStrength,
+                                     @Value("${provider-import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.providerService = providerService;
+        this.providerRepository = providerRepository;
+        this.providerBatchWriter = providerBatchWriter;
+        this.identityFilter = identityFilter;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.importBcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "provider-import-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * @throws ImportInProgressException when another import is still running
+     * @throws IllegalArgumentException when the CSV header is unusable
+     */
+    public ProviderImportResponse importProviders(InputStream body, Format format) throws IOException {
+        if (!importPermit.tryAcquire()) {
+            throw new ImportInProgressException("Another provider import is already running");
+        }
+        try (ProviderImportReader reader = new ProviderImportReader(body, format, objectMapper)) {
+            return runImport(reader);
+        } finally {
+            importPermit.release();
+        }
+    }
+
+    private ProviderImportResponse runImport(ProviderImportReader reader) throws IOException {
+        long started = System.nanoTime();
+        Report report = new Report(maxReportedErrors);
+        // Identity values accepted earlier in this upload, so duplicates within the file are caught
+        Set<String> seenEmails = new HashSet<>();
+        Set<String> seenPhoneNumbers = new HashSet<>();
+        Set<String> seenLicenseNumbers = new HashSet<>();
+
+        List<ProviderImportReader.Entry> chunk = new ArrayList<>(chunkSize);
+        ProviderImportReader.Entry entry;
+        while ((entry = reader.next()) != null) {
+            chunk.add(entry);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, report, seenEmails, seenPhoneNumbers, seenLicenseNumbers);
+                chunk.clear();
+            }
+        }
+        importChunk(chunk, report, seenEmails, seenPhoneNumbers, seenLicenseNumbers);
+        // Clashes are found after validation failures, so put the report back in file order
+        report.errors.sort(Comparator.comparingLong(ProviderImportResponse.RowError::getRow));
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Provider import finished: {} rows, {} imported, {} failed in {} ms",
+                report.total, report.imported, report.failed, elapsedMillis);
+
+        return ProviderImportResponse.builder()
+                .success(report.failed == 0)
+                .message(report.failed == 0
+                        ? "All providers imported"
+                        : "Imported " + report.imported + " of " + report.total + " providers")
+                .data(ProviderImportResponse.ImportData.builder()
+                        .totalRows(report.total)
+                        .imported(report.imported)
+                        .failed(report.failed)
+                        .elapsedMillis(elapsedMillis)
+                        .errors(report.errors)
+                        .errorsTruncated(report.failed > report.errors.size())
+                        .build())
+                .build();
+    }
+
+    private void importChunk(List<ProviderImportReader.Entry> chunk, Report report,
+                             Set<String> seenEmails, Set<String> seenPhoneNumbers, Set<String> seenLicenseNumbers) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        report.total += chunk.size();
+
+        // 1. Bean constraints and registration rules, in parallel
+        List<Set<String>> problems = runOnWorkers(chunk, this::validate);
+
+        // 2. Duplicates within the upload, in file order so the first occurrence wins
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ProviderImportReader.Entry entry = chunk.get(i);
+            Set<String> errors = problems.get(i);
+            if (errors.isEmpty()) {
+                ProviderRegistrationRequest request = entry.request();
+                if (seenEmails.contains(request.getEmail())) {
+                    errors.add("Email appears earlier in the file");
+                }
+                if (seenPhoneNumbers.contains(request.getPhoneNumber())) {
+                    errors.add("Phone number appears earlier in the file");
+                }
+                if (seenLicenseNumbers.contains(request.getLicenseNumber())) {
+                    errors.add("License number appears earlier in the file");
+                }
+            }
+            if (!errors.isEmpty()) {
+                report.reject(entry, errors);
+                continue;
+            }
+            seenEmails.add(entry.request().getEmail());
+            seenPhoneNumbers.add(entry.request().getPhoneNumber());
+            seenLicenseNumbers.add(entry.request().getLicenseNumber());
+            candidates.add(new Candidate(entry));
+        }
+
+        // 3. Clashes with registered providers: one query for the rows the filter cannot clear
+        candidates = rejectExisting(candidates, report);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // 4. Hash passwords in parallel and build the entities
+        List<Provider> providers = runOnWorkers(candidates, candidate ->
+                providerService.toEntity(candidate.request(), encodeImported(candidate.request().getPassword())));
+        for (int i = 0; i < candidates.size(); i++) {
+            candidates.get(i).provider = providers.get(i);
+        }
+
+        // 5. One batched transaction for the chunk; if a concurrent registration clashes,
+        // fall back to row by row so only the offending rows are rejected
+        try {
+            transactionTemplate.executeWithoutResult(status -> providerBatchWriter.insertAll(providers));
+            candidates.forEach(candidate -> accept(candidate, report));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Batch insert failed, retrying the chunk row by row", e);
+            for (Candidate candidate : candidates) {
+                try {
+                    providerBatchWriter.insertAll(List.of(candidate.provider));
+                    accept(candidate, report);
+                } catch (DataIntegrityViolationException rowFailure) {
+                    identityFilter.recordProvider(candidate.request().getEmail(),
+                            candidate.request().getPhoneNumber(), candidate.request().getLicenseNumber());
+                    Set<String> conflicts = conflictsFor(candidate.request(), providerRepository.findIdentityConflictsIn(
+                            List.of(candidate.request().getEmail()),
+                            List.of(candidate.request().getPhoneNumber()),
+                            List.of(candidate.request().getLicenseNumber())));
+                    report.reject(candidate.entry, conflicts.isEmpty() ? Set.of("Could not be saved") : conflicts);
+                }
+            }
+        }
+    }
+
+    // Same "{bcrypt}" format the delegating encoder reads; the login rehash lifts these
+    // to the configured cost the first time each provider signs in
+    private String encodeImported(String rawPassword) {
+        return "{bcrypt}" + importBcrypt.encode(rawPassword);
+    }
+
+    private Set<String> validate(ProviderImportReader.Entry entry) {
+        Set<String> errors = new LinkedHashSet<>();
+        if (entry.error() != null) {
+            errors.add(entry.error());
+            return errors;
+        }
+        var violations = validator.validate(entry.request());
+        if (!violations.isEmpty()) {
+            violations.forEach(v -> errors.add(v.getPropertyPath() + ": " + v.getMessage()));
+            return errors;
+        }
+        errors.addAll(providerService.validateRules(entry.request()));
+        return errors;
+    }
+
+    private List<Candidate> rejectExisting(List<Candidate> candidates, Report report) {
+        List<String> emails = new ArrayList<>();
+        List<String> phoneNumbers = new ArrayList<>();
+        List<String> licenseNumbers = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            ProviderRegistrationRequest request = candidate.request();
+            if (identityFilter.mightContainProvider(request.getEmail(), request.getPhoneNumber(), request.getLicenseNumber())) {
+                emails.add(request.getEmail());
+                phoneNumbers.add(request.getPhoneNumber());
+                licenseNumbers.add(request.getLicenseNumber());
+            }
+        }
+        if (emails.isEmpty()) {
+            return candidates;
+        }
+
+        List<ProviderRepository.ProviderIdentityRow> existing =
+                providerRepository.findIdentityConflictsIn(emails, phoneNumbers, licenseNumbers);
+        if (existing.isEmpty()) {
+            return candidates;
+        }
+
+        List<Candidate> remaining = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            Set<String> conflicts = conflictsFor(candidate.request(), existing);
+            if (conflicts.isEmpty()) {
+                remaining.add(candidate);
+            } else {
+                report.reject(candidate.entry, conflicts);
+            }
+        }
+        return remaining;
+    }
+
+    private static Set<String> conflictsFor(ProviderRegistrationRequest request,
+                                            List<ProviderRepository.ProviderIdentityRow> existing) {
+        Set<String> conflicts = new LinkedHashSet<>();
+        for (ProviderRepository.ProviderIdentityRow row : existing) {
+            if (request.getEmail().equals(row.getEmail())) {
+                conflicts.add("Email already exists");
+            }
+            if (request.getPhoneNumber().equals(row.getPhoneNumber())) {
+                conflicts.add("Phone number already exists");
+            }
+            if (request.getLicenseNumber().equals(row.getLicenseNumber())) {
+                conflicts.add("License number already exists");
+            }
+        }
+        return conflicts;
+    }
+
+    private void accept(Candidate candidate, Report report) {
+        Provider provider = candidate.provider;
+        identityFilter.recordProvider(provider.getEmail(), provider.getPhoneNumber(), provider.getLicenseNumber());
+        report.imported++;
+    }
+
+    // Splits the items into one slice per worker and returns the results in input order
+    private <T, R> List<R> runOnWorkers(List<T> items, Function<T, R> work) {
+        int slices = Math.min(items.size(), workers.getCorePoolSize());
+        int sliceSize = (items.size() + slices - 1) / slices;
+        List<Callable<List<R>>> tasks = new ArrayList<>(slices);
+        for (int from = 0; from < items.size(); from += sliceSize) {
+            List<T> slice = items.subList(from, Math.min(items.size(), from + sliceSize));
+            tasks.add(() -> slice.stream().map(work).toList());
+        }
+
+        List<R> results = new ArrayList<>(items.size());
+        try {
+            for (Future<List<R>> future : workers.invokeAll(tasks)) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Provider import was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Provider import worker failed", e.getCause());
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static final class Candidate {
+        private final ProviderImportReader.Entry entry;
+        private Provider provider;
+
+        private Candidate(ProviderImportReader.Entry entry) {
+            this.entry = entry;
+        }
+
+        private ProviderRegistrationRequest request() {
+            return entry.request();
+        }
+    }
+
+    private static final class Report {
+        private final int maxErrors;
+        private final List<ProviderImportResponse.RowError> errors = new ArrayList<>();
+        private long total;
+        private long imported;
+        private long failed;
+
+        private Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(ProviderImportReader.Entry entry, Set<String> messages) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(ProviderImportResponse.RowError.builder()
+                        .row(entry.row())
+                        .email(entry.request() == null ? null : entry.request().getEmail())
+                        .messages(List.copyOf(messages))
+                        .build());
+            }
+        }
+    }
+}
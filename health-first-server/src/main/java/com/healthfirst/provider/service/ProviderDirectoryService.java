@@ -0,0 +1,200 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.dto.ProviderDirectoryRequest;
+import com.healthfirst.provider.dto.ProviderDirectoryResponse;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderDirectoryRepository.DirectoryQuery;
+import com.healthfirst.provider.repository.ProviderDirectoryRepository.ProviderDirectoryRow;
+import com.healthfirst.provider.repository.ProviderDirectoryRepository.SortField;
+import com.healthfirst.provider.repository.ProviderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Provider directory: keyset-paged listing with server-side sorting and filters, and a
+ * full export that streams rows from a database cursor.
+ */
+@Service
+public class ProviderDirectoryService {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final Map<String, SortField> SORT_FIELDS = Map.of(
+            "name", SortField.NAME,
+            "email", SortField.EMAIL,
+            "createdAt", SortField.CREATED_AT);
+
+    private final ProviderRepository providerRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ProviderDirectoryService(ProviderRepository providerRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.providerRepository = providerRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Transactional(readOnly = true)
+    public ProviderDirectoryResponse getDirectory(ProviderDirectoryRequest request) {
+        String sortName = request.getSort() != null ? request.getSort() : "name";
+        SortField sort = SORT_FIELDS.get(sortName);
+        if (sort == null) {
+            throw new IllegalArgumentException("Sort must be one of name, email or createdAt");
+        }
+        boolean descending = resolveDescending(request.getDirection());
+        int pageSize = resolvePageSize(request.getLimit());
+
+        DirectoryQuery query = DirectoryQuery.builder()
+                .specialization(resolveSpecialization(request.getSpecialization()))
+                .verificationStatus(resolveVerificationStatus(request.getVerificationStatus()))
+                .sort(sort)
+                .descending(descending)
+                .after(decodeCursor(request.getCursor(), sort, descending))
+                .build();
+
+        // Fetch one row past the page to know whether another page exists
+        List<ProviderDirectoryRow> rows = providerRepository.findDirectoryPage(query, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        return ProviderDirectoryResponse.builder()
+                .success(true)
+                .data(ProviderDirectoryResponse.DirectoryData.builder()
+                        .sort(sortName)
+                        .direction(descending ? "desc" : "asc")
+                        .count(rows.size())
+                        .providers(rows.stream().map(ProviderDirectoryService::toEntry).collect(Collectors.toList()))
+                        .nextCursor(hasMore ? encodeCursor(rows.get(rows.size() - 1), sort, descending) : null)
+                        .hasMore(hasMore)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Checks the filters now, so bad requests fail before any output is written, and returns
+     * an export that reads matching providers through a database cursor when it is run.
+     */
+    public DirectoryExport exportDirectory(ProviderDirectoryRequest request) {
+        String specialization = resolveSpecialization(request.getSpecialization());
+        Provider.VerificationStatus verificationStatus = resolveVerificationStatus(request.getVerificationStatus());
+        return sink -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ProviderDirectoryRow> rows = providerRepository.streamDirectory(specialization, verificationStatus)) {
+                rows.map(ProviderDirectoryService::toEntry).forEach(sink);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    public interface DirectoryExport {
+        void forEach(Consumer<ProviderDirectoryResponse.DirectoryEntry> sink);
+    }
+
+    // Specializations are stored as registered; match the canonical spelling so the index applies
+    private static String resolveSpecialization(String specialization) {
+        if (specialization == null || specialization.isBlank()) {
+            return null;
+        }
+        return ProviderService.ALLOWED_SPECIALIZATIONS.stream()
+                .filter(allowed -> allowed.equalsIgnoreCase(specialization.trim()))
+                .findFirst()
+                .orElse(specialization.trim());
+    }
+
+    private static Provider.VerificationStatus resolveVerificationStatus(String verificationStatus) {
+        if (verificationStatus == null || verificationStatus.isBlank()) {
+            return null;
+        }
+        try {
+            return Provider.VerificationStatus.valueOf(verificationStatus.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid verification status");
+        }
+    }
+
+    private static boolean resolveDescending(String direction) {
+        if (direction == null || direction.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (direction.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Direction must be asc or desc");
+    }
+
+    private static int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // Cursors carry the sort and direction they were made for and the last row's sort values,
+    // each part Base64 encoded on its own so names may contain any character
+    private static String encodeCursor(ProviderDirectoryRow row, SortField sort, boolean descending) {
+        List<String> parts = new ArrayList<>(List.of(sort.name(), descending ? "desc" : "asc"));
+        switch (sort) {
+            case NAME -> parts.addAll(List.of(row.lastName(), row.firstName()));
+            case EMAIL -> parts.add(row.email());
+            case CREATED_AT -> parts.add(row.createdAt().toString());
+        }
+        parts.add(row.id().toString());
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return parts.stream()
+                .map(part -> encoder.encodeToString(part.getBytes(StandardCharsets.UTF_8)))
+                .collect(Collectors.joining("."));
+    }
+
+    private static ProviderDirectoryRow decodeCursor(String cursor, SortField sort, boolean descending) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        List<String> parts;
+        try {
+            parts = Arrays.stream(cursor.split("\\."))
+                    .map(part -> new String(Base64.getUrlDecoder().decode(part), StandardCharsets.UTF_8))
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.size() < 3 || !parts.get(0).equals(sort.name()) || !parts.get(1).equals(descending ? "desc" : "asc")) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        try {
+            UUID id = UUID.fromString(parts.get(parts.size() - 1));
+            return switch (sort) {
+                case NAME -> new ProviderDirectoryRow(id, parts.get(3), parts.get(2), null, null, null, false, null);
+                case EMAIL -> new ProviderDirectoryRow(id, null, null, parts.get(2), null, null, false, null);
+                case CREATED_AT -> new ProviderDirectoryRow(id, null, null, null, null, null, false, Instant.parse(parts.get(2)));
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static ProviderDirectoryResponse.DirectoryEntry toEntry(ProviderDirectoryRow row) {
+        return ProviderDirectoryResponse.DirectoryEntry.builder()
+                .id(row.id())
+                .firstName(row.firstName())
+                .lastName(row.lastName())
+                .email(row.email())
+                .specialization(row.specialization())
+                .verificationStatus(row.verificationStatus().name())
+                .isActive(row.active())
+                .createdAt(row.createdAt())
+                .build();
+    }
+}
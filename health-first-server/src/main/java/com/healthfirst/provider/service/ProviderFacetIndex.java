@@ -0,0 +1,199 @@
+package com.healthfirst.provider.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Inverted index from facet values to the bitset of providers that have them. Each provider
+ * gets a dense ordinal on first sight. Bitsets are copy-on-write: readers get a bitset that
+ * is never modified again, and writers replace it under the index's monitor. A provider put
+ * again with new profile values moves out of its old values' bitsets into the new ones.
+ *
+ * <p>Appointment type and insurance come from slots and are only ever added, so their
+ * bitsets may include providers that no longer have such a slot; they narrow candidates,
+ * and slots are still checked one by one.
+ */
+final class ProviderFacetIndex {
+
+    enum Facet {
+        SPECIALIZATION("specialization"),
+        CITY("city"),
+        STATE("state"),
+        ZIP("zip"),
+        APPOINTMENT_TYPE("appointmentType"),
+        INSURANCE_ACCEPTED("insuranceAccepted");
+
+        // Name used for the facet's counts in search responses
+        final String fieldName;
+
+        Facet(String fieldName) {
+            this.fieldName = fieldName;
+        }
+    }
+
+    private final ConcurrentMap<UUID, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile UUID[] providerIds = new UUID[64];
+    private volatile int size;
+
+    private final EnumMap<Facet, ConcurrentMap<String, BitSet>> facets = new EnumMap<>(Facet.class);
+    // "city, state zip" labels for substring location searches; far fewer than providers
+    private final ConcurrentMap<String, BitSet> locationLabels = new ConcurrentHashMap<>();
+    // Each provider's current profile values, so a re-put knows which bits to clear
+    private final Map<UUID, ProfileValues> profiles = new HashMap<>();
+
+    ProviderFacetIndex() {
+        for (Facet facet : Facet.values()) {
+            facets.put(facet, new ConcurrentHashMap<>());
+        }
+    }
+
+    synchronized void putProvider(UUID providerId, String specialization, String city, String state, String zip) {
+        ProfileValues values = new ProfileValues(specialization, city, state, zip);
+        ProfileValues previous = profiles.put(providerId, values);
+        if (values.equals(previous)) {
+            return;
+        }
+        int ordinal = ordinal(providerId);
+        if (previous != null) {
+            remove(Facet.SPECIALIZATION, previous.specialization(), ordinal);
+            remove(Facet.CITY, previous.city(), ordinal);
+            remove(Facet.STATE, previous.state(), ordinal);
+            remove(Facet.ZIP, previous.zip(), ordinal);
+            locationLabels.computeIfPresent(previous.label(), (key, bits) -> without(bits, ordinal));
+        }
+        add(Facet.SPECIALIZATION, specialization, ordinal);
+        add(Facet.CITY, city, ordinal);
+        add(Facet.STATE, state, ordinal);
+        add(Facet.ZIP, zip, ordinal);
+        locationLabels.compute(values.label(), (key, bits) -> with(bits, ordinal));
+    }
+
+    void addSlotAttributes(UUID providerId, String appointmentType, Boolean insuranceAccepted) {
+        // Nearly every slot repeats what its provider already has; only take the lock for news
+        Integer ordinal = ordinals.get(providerId);
+        if (ordinal != null && contains(Facet.APPOINTMENT_TYPE, appointmentType, ordinal)
+                && contains(Facet.INSURANCE_ACCEPTED, Objects.toString(insuranceAccepted, null), ordinal)) {
+            return;
+        }
+        synchronized (this) {
+            int assigned = ordinal(providerId);
+            add(Facet.APPOINTMENT_TYPE, appointmentType, assigned);
+            add(Facet.INSURANCE_ACCEPTED, Objects.toString(insuranceAccepted, null), assigned);
+        }
+    }
+
+    synchronized void clear() {
+        ordinals.clear();
+        providerIds = new UUID[64];
+        size = 0;
+        facets.values().forEach(Map::clear);
+        locationLabels.clear();
+        profiles.clear();
+    }
+
+    /**
+     * Providers with the value, or an empty set when nobody has it. The result may be modified.
+     */
+    BitSet providersWith(Facet facet, String value) {
+        BitSet bits = value == null ? null : facets.get(facet).get(normalize(facet, value));
+        return bits == null ? new BitSet() : (BitSet) bits.clone();
+    }
+
+    /**
+     * Providers whose "city, state zip" label contains {@code text}, ignoring case.
+     */
+    BitSet providersAt(String text) {
+        String needle = text.toLowerCase(Locale.ROOT);
+        BitSet matches = new BitSet();
+        locationLabels.forEach((label, bits) -> {
+            if (label.contains(needle)) {
+                matches.or(bits);
+            }
+        });
+        return matches;
+    }
+
+    BitSet allProviders() {
+        BitSet all = new BitSet();
+        all.set(0, size);
+        return all;
+    }
+
+    UUID providerId(int ordinal) {
+        return providerIds[ordinal];
+    }
+
+    Integer ordinalOf(UUID providerId) {
+        return ordinals.get(providerId);
+    }
+
+    private int ordinal(UUID providerId) {
+        Integer existing = ordinals.get(providerId);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = size;
+        UUID[] ids = providerIds;
+        if (ordinal == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[ordinal] = providerId;
+        // Publish the array before the size so readers never index past what they can see
+        providerIds = ids;
+        size = ordinal + 1;
+        ordinals.put(providerId, ordinal);
+        return ordinal;
+    }
+
+    private boolean contains(Facet facet, String value, int ordinal) {
+        if (value == null) {
+            return true;
+        }
+        BitSet bits = facets.get(facet).get(normalize(facet, value));
+        return bits != null && bits.get(ordinal);
+    }
+
+    private void add(Facet facet, String value, int ordinal) {
+        if (value != null && !value.isBlank()) {
+            facets.get(facet).compute(normalize(facet, value), (key, bits) -> with(bits, ordinal));
+        }
+    }
+
+    private void remove(Facet facet, String value, int ordinal) {
+        if (value != null && !value.isBlank()) {
+            facets.get(facet).computeIfPresent(normalize(facet, value), (key, bits) -> without(bits, ordinal));
+        }
+    }
+
+    private static BitSet with(BitSet bits, int ordinal) {
+        if (bits != null && bits.get(ordinal)) {
+            return bits;
+        }
+        BitSet copy = bits == null ? new BitSet() : (BitSet) bits.clone();
+        copy.set(ordinal);
+        return copy;
+    }
+
+    // Null drops the entry once nobody has the value
+    private static BitSet without(BitSet bits, int ordinal) {
+        if (!bits.get(ordinal)) {
+            return bits;
+        }
+        BitSet copy = (BitSet) bits.clone();
+        copy.clear(ordinal);
+        return copy.isEmpty() ? null : copy;
+    }
+
+    static String normalize(Facet facet, String value) {
+        String trimmed = value.trim();
+        return facet == Facet.APPOINTMENT_TYPE ? trimmed.toUpperCase(Locale.ROOT) : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private record ProfileValues(String specialization, String city, String state, String zip) {
+        String label() {
+            return (Objects.toString(city, "") + ", " + Objects.toString(state, "") + " " + Objects.toString(zip, ""))
+                    .toLowerCase(Locale.ROOT);
+        }
+    }
+}
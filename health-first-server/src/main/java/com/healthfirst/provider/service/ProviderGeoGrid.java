@@ -0,0 +1,74 @@
+package com.healthfirst.provider.service;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Provider ids bucketed into fixed latitude/longitude cells, so an area query only reads
+ * the cells it touches. Candidates are returned by cell; callers check exact positions.
+ */
+final class ProviderGeoGrid {
+
+    // About 17 miles north to south
+    private static final double CELL_DEGREES = 0.25;
+
+    private final ConcurrentMap<Long, Set<UUID>> cells = new ConcurrentHashMap<>();
+
+    void add(UUID providerId, double latitude, double longitude) {
+        cells.computeIfAbsent(key(row(latitude), column(longitude)), key -> ConcurrentHashMap.newKeySet())
+                .add(providerId);
+    }
+
+    void remove(UUID providerId, double latitude, double longitude) {
+        cells.computeIfPresent(key(row(latitude), column(longitude)), (key, providerIds) -> {
+            providerIds.remove(providerId);
+            return providerIds.isEmpty() ? null : providerIds;
+        });
+    }
+
+    void clear() {
+        cells.clear();
+    }
+
+    void forEachCandidate(GeoBox box, Consumer<UUID> action) {
+        int minRow = row(box.minLatitude());
+        int maxRow = row(box.maxLatitude());
+        int minColumn = column(box.minLongitude());
+        int maxColumn = column(box.maxLongitude());
+
+        // A wide box touches more cells than are occupied; then walk the occupied ones instead
+        if ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1) > cells.size()) {
+            cells.forEach((key, providerIds) -> {
+                int row = (int) (key >> 32);
+                int column = (int) (long) key;
+                if (row >= minRow && row <= maxRow && column >= minColumn && column <= maxColumn) {
+                    providerIds.forEach(action);
+                }
+            });
+            return;
+        }
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Set<UUID> providerIds = cells.get(key(row, column));
+                if (providerIds != null) {
+                    providerIds.forEach(action);
+                }
+            }
+        }
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / CELL_DEGREES);
+    }
+
+    private static int column(double longitude) {
+        return (int) Math.floor((longitude + 180) / CELL_DEGREES);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
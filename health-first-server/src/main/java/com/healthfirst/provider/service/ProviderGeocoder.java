@@ -0,0 +1,74 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.repository.ProviderBatchWriter;
+import com.healthfirst.provider.repository.ProviderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Fills in clinic coordinates from the ZIP code centroid table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderGeocoder {
+
+    private final ZipCentroids zipCentroids;
+    private final ProviderRepository providerRepository;
+    private final ProviderBatchWriter providerBatchWriter;
+
+    /**
+     * Sets the address's coordinates to its ZIP code's centroid, replacing any it had, so an
+     * address whose ZIP changed is placed again. An unknown ZIP leaves it without coordinates.
+     */
+    public void geocode(ClinicAddress address) {
+        if (address == null) {
+            return;
+        }
+        Optional<GeoPoint> point = zipCentroids.find(address.getZip());
+        address.setLatitude(point.map(GeoPoint::latitude).orElse(null));
+        address.setLongitude(point.map(GeoPoint::longitude).orElse(null));
+        if (point.isEmpty()) {
+            log.warn("No centroid for clinic ZIP code {}; the provider will not appear in distance searches",
+                    address.getZip());
+        }
+    }
+
+    // Runs before the slot index is rebuilt so backfilled providers are indexed with their location
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfill() {
+        List<ProviderRepository.ProviderZipRow> rows = providerRepository.findZipsWithoutCoordinates();
+        List<ProviderBatchWriter.Coordinates> coordinates = new ArrayList<>();
+        Set<String> unresolved = new TreeSet<>();
+        for (ProviderRepository.ProviderZipRow row : rows) {
+            Optional<GeoPoint> point = zipCentroids.find(row.getZip());
+            if (point.isPresent()) {
+                coordinates.add(new ProviderBatchWriter.Coordinates(row.getId(), point.get().latitude(), point.get().longitude()));
+            } else {
+                unresolved.add(String.valueOf(row.getZip()));
+            }
+        }
+        providerBatchWriter.updateCoordinates(coordinates);
+        if (!rows.isEmpty()) {
+            log.info("Geocoded {} of {} providers without clinic coordinates", coordinates.size(), rows.size());
+        }
+        if (!unresolved.isEmpty()) {
+            log.warn("{} providers have clinic ZIP codes missing from the centroid table and will not appear in "
+                    + "distance searches; unknown ZIP codes: {}", rows.size() - coordinates.size(),
+                    unresolved.stream().limit(20).toList());
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.healthfirst.provider.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthfirst.provider.dto.ProviderRegistrationRequest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads provider registrations one record at a time from a CSV (with a header row) or
+ * NDJSON body, so an upload is never held in memory whole. Records that cannot be parsed
+ * are returned with an error instead of a request.
+ */
+final class ProviderImportReader implements Closeable {
+
+    record Entry(long row, ProviderRegistrationRequest request, String error) {
+    }
+
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of(
+            "firstName", "lastName", "email", "phoneNumber", "password", "specialization",
+            "licenseNumber", "street", "city", "state", "zip");
+
+    private final BufferedReader reader;
+    private final ProviderBulkImportService.Format format;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> columns;
+    private long line;
+
+    ProviderImportReader(InputStream body, ProviderBulkImportService.Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * The next record, or null once the body is exhausted. Blank lines are skipped.
+     *
+     * @throws IllegalArgumentException when the CSV header is missing required columns
+     */
+    Entry next() throws IOException {
+        if (format == ProviderBulkImportService.Format.CSV && columns == null) {
+            readHeader();
+        }
+        while (true) {
+            long row = line + 1;
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            return format == ProviderBulkImportService.Format.CSV ? csvEntry(row, text) : jsonEntry(row, text);
+        }
+    }
+
+    private void readHeader() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                throw new IllegalArgumentException("CSV body is empty");
+            }
+            line++;
+        } while (text.isBlank());
+
+        columns = new HashMap<>();
+        List<String> header = splitCsv(text);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        List<String> missing = REQUIRED_CSV_COLUMNS.stream().filter(c -> !columns.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing columns: " + String.join(", ", missing));
+        }
+    }
+
+    private Entry csvEntry(long row, String text) throws IOException {
+        // A quoted field may span lines, so keep reading until the quotes balance
+        StringBuilder record = new StringBuilder(text);
+        while (hasOpenQuote(record)) {
+            String more = reader.readLine();
+            if (more == null) {
+                return new Entry(row, null, "Unterminated quoted field");
+            }
+            line++;
+            record.append('\n').append(more);
+        }
+
+        List<String> fields = splitCsv(record);
+        ProviderRegistrationRequest request = new ProviderRegistrationRequest();
+        request.setFirstName(field(fields, "firstName"));
+        request.setLastName(field(fields, "lastName"));
+        request.setEmail(field(fields, "email"));
+        request.setPhoneNumber(field(fields, "phoneNumber"));
+        request.setPassword(field(fields, "password"));
+        request.setConfirmPassword(field(fields, "confirmPassword"));
+        request.setSpecialization(field(fields, "specialization"));
+        request.setLicenseNumber(field(fields, "licenseNumber"));
+
+        String years = field(fields, "yearsOfExperience");
+        if (years != null) {
+            try {
+                request.setYearsOfExperience(Integer.valueOf(years));
+            } catch (NumberFormatException e) {
+                return new Entry(row, null, "yearsOfExperience must be a whole number");
+            }
+        }
+
+        ProviderRegistrationRequest.ClinicAddressDTO address = new ProviderRegistrationRequest.ClinicAddressDTO();
+        address.setStreet(field(fields, "street"));
+        address.setCity(field(fields, "city"));
+        address.setState(field(fields, "state"));
+        address.setZip(field(fields, "zip"));
+        request.setClinicAddress(address);
+        return new Entry(row, withConfirmation(request), null);
+    }
+
+    private Entry jsonEntry(long row, String text) {
+        try {
+            ProviderRegistrationRequest request = objectMapper.readValue(text, ProviderRegistrationRequest.class);
+            if (request == null) {
+                return new Entry(row, null, "Expected a JSON object");
+            }
+            return new Entry(row, withConfirmation(request), null);
+        } catch (JsonProcessingException e) {
+            return new Entry(row, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // Import files usually carry one password column; confirmation is only checked when present
+    private static ProviderRegistrationRequest withConfirmation(ProviderRegistrationRequest request) {
+        if (request.getConfirmPassword() == null) {
+            request.setConfirmPassword(request.getPassword());
+        }
+        return request;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static boolean hasOpenQuote(CharSequence record) {
+        boolean open = false;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                open = !open;
+            }
+        }
+        return open;
+    }
+
+    // RFC 4180: fields may be quoted, and a doubled quote inside a quoted field is a literal quote
+    private static List<String> splitCsv(CharSequence record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else if (c != '\r') {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,24 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.Provider;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the slot index's copy of a provider when the provider row is updated, so a new
+ * specialization or clinic address shows in searches without waiting for a rebuild.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProviderIndexListener {
+
+    // Looked up on use: the index needs repositories, which need this listener's entity manager
+    private final ObjectProvider<AvailabilitySlotIndex> slotIndex;
+
+    @PostUpdate
+    public void providerUpdated(Provider provider) {
+        slotIndex.getObject().refreshProvider(provider);
+    }
+}
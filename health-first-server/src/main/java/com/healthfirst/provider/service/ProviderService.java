@@ -5,15 +5,17 @@ import com.healthfirst.provider.dto.ProviderResponse;
 import com.healthfirst.provider.entity.ClinicAddress;
 import com.healthfirst.provider.entity.Provider;
 import com.healthfirst.provider.repository.ProviderRepository;
+import com.healthfirst.provider.security.PasswordHashingService;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -22,13 +24,22 @@ import java.util.Set;
 public class ProviderService {
     private final ProviderRepository providerRepository;
     private final Validator validator;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(12);
+    private final PasswordHashingService passwordHashingService;
+    private final RegistrationIdentityFilter identityFilter;
+    private final ProviderGeocoder geocoder;
 
-    private static final Set<String> ALLOWED_SPECIALIZATIONS = Set.of(
+    static final Set<String> ALLOWED_SPECIALIZATIONS = Set.of(
             "Cardiology", "Dermatology", "Neurology", "Pediatrics", "Oncology", "Orthopedics", "General Medicine"
     );
 
-    @Transactional
+    // Read-only: Hibernate skips dirty checking and the flush at commit
+    @Transactional(readOnly = true)
+    public List<ProviderRepository.ProviderSummaryRow> listProviders() {
+        return providerRepository.findAllSummaries();
+    }
+
+    // Not transactional: the checks and the save each take a connection only briefly, so
+    // none is held while the password is hashed. Unique constraints still guard the insert.
     public ProviderResponse registerProvider(ProviderRegistrationRequest request) {
         // Validate bean constraints
         var violations = validator.validate(request);
@@ -38,15 +49,53 @@ public class ProviderService {
 
         // Custom validations
         Set<String> errors = new HashSet<>();
-        if (providerRepository.findByEmail(request.getEmail()).isPresent()) {
-            errors.add("Email already exists");
+        // Values the filter has never seen cannot clash, so most new registrations skip the query
+        if (identityFilter.mightContainProvider(request.getEmail(), request.getPhoneNumber(), request.getLicenseNumber())) {
+            errors.addAll(findIdentityConflicts(request));
         }
-        if (providerRepository.findByPhoneNumber(request.getPhoneNumber()).isPresent()) {
-            errors.add("Phone number already exists");
+        errors.addAll(validateRules(request));
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join(", ", errors));
         }
-        if (providerRepository.findByLicenseNumber(request.getLicenseNumber()).isPresent()) {
-            errors.add("License number already exists");
+
+        // Hash password
+        String passwordHash = passwordHashingService.encode(request.getPassword());
+
+        // Map DTO to entity
+        Provider provider = toEntity(request, passwordHash);
+
+        Provider saved;
+        try {
+            saved = providerRepository.save(provider);
+        } catch (DataIntegrityViolationException e) {
+            // Registered concurrently, or through another instance since the filter was built
+            identityFilter.recordProvider(request.getEmail(), request.getPhoneNumber(), request.getLicenseNumber());
+            Set<String> conflicts = findIdentityConflicts(request);
+            if (conflicts.isEmpty()) {
+                throw e;
+            }
+            throw new IllegalArgumentException(String.join(", ", conflicts));
         }
+        identityFilter.recordProvider(saved.getEmail(), saved.getPhoneNumber(), saved.getLicenseNumber());
+
+        // TODO: Send verification email
+
+        return new ProviderResponse(
+                true,
+                "Provider registered successfully. Verification email sent.",
+                new ProviderResponse.DataDTO(
+                        saved.getId().toString(),
+                        saved.getEmail(),
+                        saved.getVerificationStatus().name().toLowerCase()
+                )
+        );
+    }
+
+    /**
+     * Rules beyond the bean constraints: password confirmation and strength, known specialization.
+     */
+    Set<String> validateRules(ProviderRegistrationRequest request) {
+        Set<String> errors = new HashSet<>();
         if (!request.getPassword().equals(request.getConfirmPassword())) {
             errors.add("Passwords do not match");
         }
@@ -56,14 +105,10 @@ public class ProviderService {
         if (!ALLOWED_SPECIALIZATIONS.contains(request.getSpecialization())) {
             errors.add("Specialization is not valid");
         }
-        if (!errors.isEmpty()) {
-            throw new IllegalArgumentException(String.join(", ", errors));
-        }
-
-        // Hash password
-        String passwordHash = passwordEncoder.encode(request.getPassword());
+        return errors;
+    }
 
-        // Map DTO to entity
+    Provider toEntity(ProviderRegistrationRequest request, String passwordHash) {
         Provider provider = new Provider();
         provider.setFirstName(request.getFirstName());
         provider.setLastName(request.getLastName());
@@ -79,23 +124,28 @@ public class ProviderService {
                 request.getClinicAddress().getState(),
                 request.getClinicAddress().getZip()
         ));
+        geocoder.geocode(provider.getClinicAddress());
         provider.setVerificationStatus(Provider.VerificationStatus.PENDING);
         provider.setIsActive(true);
         // createdAt and updatedAt are set by default
+        return provider;
+    }
 
-        Provider saved = providerRepository.save(provider);
-
-        // TODO: Send verification email
-
-        return new ProviderResponse(
-                true,
-                "Provider registered successfully. Verification email sent.",
-                new ProviderResponse.DataDTO(
-                        saved.getId().toString(),
-                        saved.getEmail(),
-                        saved.getVerificationStatus().name().toLowerCase()
-                )
-        );
+    private Set<String> findIdentityConflicts(ProviderRegistrationRequest request) {
+        Set<String> conflicts = new HashSet<>();
+        for (ProviderRepository.ProviderIdentityRow row : providerRepository.findIdentityConflicts(
+                request.getEmail(), request.getPhoneNumber(), request.getLicenseNumber())) {
+            if (request.getEmail().equals(row.getEmail())) {
+                conflicts.add("Email already exists");
+            }
+            if (request.getPhoneNumber().equals(row.getPhoneNumber())) {
+                conflicts.add("Phone number already exists");
+            }
+            if (request.getLicenseNumber().equals(row.getLicenseNumber())) {
+                conflicts.add("License number already exists");
+            }
+        }
+        return conflicts;
     }
 
     private boolean isValidPassword(String password) {
@@ -0,0 +1,238 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.repository.AppointmentSlotBatchWriter;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Generates slots for availability rules on demand. A recurring rule is stored once and
+ * its slots are written only up to {@code materializedThrough}; a daily job keeps every
+ * rule materialized a fixed number of days ahead. Reads past that horizon extend only the
+ * rules of the providers they show.
+ */
+@Service
+@Slf4j
+public class RecurringAvailabilityMaterializer {
+
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+    // Providers per lookup query, to keep IN lists a reasonable size
+    private static final int LOOKUP_BATCH = 500;
+
+    private final ProviderAvailabilityRepository availabilityRepository;
+    private final AppointmentSlotBatchWriter slotBatchWriter;
+    private final AvailabilitySlotIndex slotIndex;
+    private final TransactionTemplate ruleTransaction;
+    private final int horizonDays;
+    private final int maxLookaheadDays;
+
+    // Every active rule is materialized at least through this date
+    private volatile LocalDate horizon;
+
+    public RecurringAvailabilityMaterializer(ProviderAvailabilityRepository availabilityRepository,
+                                             AppointmentSlotBatchWriter slotBatchWriter,
+                                             AvailabilitySlotIndex slotIndex,
+                                             PlatformTransactionManager transactionManager,
+                                             @Value("${availability.recurrence.horizon-days:30}") int horizonDays,
+                                             @Value("${availability.recurrence.max-lookahead-days:366}") int maxLookaheadDays) {
+        this.availabilityRepository = availabilityRepository;
+        this.slotBatchWriter = slotBatchWriter;
+        this.slotIndex = slotIndex;
+        this.ruleTransaction = new TransactionTemplate(transactionManager);
+        this.ruleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.horizonDays = horizonDays;
+        this.maxLookaheadDays = maxLookaheadDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 0 * * *", zone = "UTC")
+    public void extendHorizon() {
+        LocalDate target = LocalDate.now(ZoneOffset.UTC).plusDays(horizonDays);
+        int rules = materializeRules(availabilityRepository.findRecurringIdsDueForMaterialization(target), target);
+        horizon = target;
+        log.info("Recurring availability materialized through {} ({} rules extended)", target, rules);
+    }
+
+    /**
+     * Makes sure the providers' rules have slots through {@code through}, or as far as the
+     * configured lookahead allows. Each rule is extended in its own transaction, so callers
+     * must not hold one of their own.
+     */
+    public void ensureMaterializedThrough(Collection<UUID> providerIds, LocalDate through) {
+        LocalDate target = min(through, LocalDate.now(ZoneOffset.UTC).plusDays(maxLookaheadDays));
+        LocalDate current = horizon;
+        if (providerIds.isEmpty() || (current != null && !target.isAfter(current))) {
+            return;
+        }
+        List<UUID> ids = List.copyOf(providerIds);
+        for (int from = 0; from < ids.size(); from += LOOKUP_BATCH) {
+            List<UUID> batch = ids.subList(from, Math.min(ids.size(), from + LOOKUP_BATCH));
+            materializeRules(availabilityRepository.findRecurringIdsDueForMaterializationIn(batch, target), target);
+        }
+    }
+
+    /**
+     * Generates the initial slots for a rule that was just saved, in the caller's transaction.
+     */
+    public List<AppointmentSlot> materializeNew(ProviderAvailability rule) {
+        LocalDate target = horizon != null ? horizon : LocalDate.now(ZoneOffset.UTC).plusDays(horizonDays);
+        return materialize(rule, max(rule.getDate(), target));
+    }
+
+    /**
+     * Sets {@code materializedThrough} on rules that have not been saved yet and returns their
+     * initial slots without writing anything. Nobody else can see the rules before they are
+     * saved, so no claim is needed; the caller saves the rules first and then the slots.
+     */
+    public List<AppointmentSlot> planInitialSlots(List<ProviderAvailability> rules) {
+        LocalDate target = horizon != null ? horizon : LocalDate.now(ZoneOffset.UTC).plusDays(horizonDays);
+        List<AppointmentSlot> slots = new ArrayList<>();
+        for (ProviderAvailability rule : rules) {
+            LocalDate last = lastOccurrenceBound(rule, max(rule.getDate(), target));
+            LocalDate after = rule.getDate().minusDays(1);
+            for (LocalDate date : occurrencesBetween(rule, after, last)) {
+                slots.addAll(generateSlots(rule, date));
+            }
+            rule.setMaterializedThrough(max(after, last));
+        }
+        return slots;
+    }
+
+    private int materializeRules(List<UUID> dueRuleIds, LocalDate through) {
+        for (UUID ruleId : dueRuleIds) {
+            ruleTransaction.executeWithoutResult(status -> availabilityRepository.findWithProviderById(ruleId)
+                    .ifPresent(rule -> materialize(rule, through)));
+        }
+        return dueRuleIds.size();
+    }
+
+    private List<AppointmentSlot> materialize(ProviderAvailability rule, LocalDate through) {
+        LocalDate last = lastOccurrenceBound(rule, through);
+        LocalDate expected = rule.getMaterializedThrough();
+
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            if (expected == null || !last.isAfter(expected)) {
+                return List.of();
+            }
+
+            // Claim (expected, last] so concurrent readers never generate the same days twice
+            if (availabilityRepository.advanceMaterializedThrough(rule.getId(), expected, last) == 1) {
+                rule.setMaterializedThrough(last);
+                List<AppointmentSlot> slots = new ArrayList<>();
+                for (LocalDate date : occurrencesBetween(rule, expected, last)) {
+                    slots.addAll(generateSlots(rule, date));
+                }
+                slotBatchWriter.insertAll(slots);
+                slotIndex.putAll(slots);
+                return slots;
+            }
+
+            // Someone else advanced the rule first; continue from where they stopped
+            expected = availabilityRepository.findMaterializedThroughById(rule.getId()).orElse(null);
+        }
+
+        log.warn("Gave up materializing availability {} through {} after {} attempts", rule.getId(), last, MAX_CLAIM_ATTEMPTS);
+        return List.of();
+    }
+
+    private static LocalDate lastOccurrenceBound(ProviderAvailability rule, LocalDate through) {
+        if (!isRecurring(rule)) {
+            return rule.getDate();
+        }
+        return rule.getRecurrenceEndDate() != null ? min(through, rule.getRecurrenceEndDate()) : through;
+    }
+
+    /**
+     * Occurrence dates of the rule in (after, through].
+     */
+    static List<LocalDate> occurrencesBetween(ProviderAvailability rule, LocalDate after, LocalDate through) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate base = rule.getDate();
+
+        if (!isRecurring(rule)) {
+            if (base.isAfter(after) && !base.isAfter(through)) {
+                dates.add(base);
+            }
+            return dates;
+        }
+
+        ChronoUnit unit = switch (rule.getRecurrencePattern()) {
+            case DAILY -> ChronoUnit.DAYS;
+            case WEEKLY -> ChronoUnit.WEEKS;
+            case MONTHLY -> ChronoUnit.MONTHS;
+        };
+
+        // Always step from the base date so monthly rules on the 31st do not drift
+        for (long n = Math.max(0, unit.between(base, after)); ; n++) {
+            LocalDate date = base.plus(n, unit);
+            if (date.isAfter(through)) {
+                return dates;
+            }
+            if (date.isAfter(after)) {
+                dates.add(date);
+            }
+        }
+    }
+
+    private static List<AppointmentSlot> generateSlots(ProviderAvailability availability, LocalDate date) {
+        List<AppointmentSlot> slots = new ArrayList<>();
+        ZoneId zoneId = ZoneId.of(availability.getTimezone());
+
+        LocalTime currentTime = availability.getStartTime();
+        LocalTime endTime = availability.getEndTime();
+
+        while (!currentTime.plusMinutes(availability.getSlotDuration()).isAfter(endTime)) {
+            LocalTime slotEndTime = currentTime.plusMinutes(availability.getSlotDuration());
+            if (slotEndTime.isBefore(currentTime)) {
+                break; // wrapped past midnight
+            }
+
+            slots.add(AppointmentSlot.builder()
+                    .availability(availability)
+                    .provider(availability.getProvider())
+                    .slotDate(date)
+                    .slotStartTime(date.atTime(currentTime).atZone(zoneId))
+                    .slotEndTime(date.atTime(slotEndTime).atZone(zoneId))
+                    .status(AppointmentSlot.SlotStatus.AVAILABLE)
+                    .appointmentType(availability.getAppointmentType().name())
+                    .build());
+
+            // Move to next slot (including break)
+            LocalTime nextTime = slotEndTime.plusMinutes(availability.getBreakDuration());
+            if (nextTime.isBefore(slotEndTime)) {
+                break;
+            }
+            currentTime = nextTime;
+        }
+
+        return slots;
+    }
+
+    private static boolean isRecurring(ProviderAvailability rule) {
+        return Boolean.TRUE.equals(rule.getIsRecurring()) && rule.getRecurrencePattern() != null;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
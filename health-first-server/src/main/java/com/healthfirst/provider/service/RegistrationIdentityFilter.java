@@ -0,0 +1,143 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.repository.PatientRepository;
+import com.healthfirst.provider.repository.ProviderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Bloom filters over the emails, phone numbers and license numbers already registered, so
+ * that registration can skip the uniqueness queries for values that are definitely new.
+ * A "maybe" answer still goes to the database, and the unique constraints remain the final
+ * check for writes this instance has not seen.
+ */
+@Component
+@Slf4j
+public class RegistrationIdentityFilter {
+
+    private final ProviderRepository providerRepository;
+    private final PatientRepository patientRepository;
+    private final long minimumCapacity;
+    private final double falsePositiveProbability;
+
+    // Both filters are published together, so a registration never sees one without the other
+    private volatile State state = new State(null, null);
+
+    public RegistrationIdentityFilter(ProviderRepository providerRepository,
+                                      PatientRepository patientRepository,
+                                      @Value("${registration.identity-filter.min-capacity:100000}") long minimumCapacity,
+                                      @Value("${registration.identity-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.providerRepository = providerRepository;
+        this.patientRepository = patientRepository;
+        this.minimumCapacity = minimumCapacity;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        // Twice the current row count leaves room to grow before the next rebuild
+        long providers = Math.max(minimumCapacity, providerRepository.count() * 2);
+        long patients = Math.max(minimumCapacity, patientRepository.count() * 2);
+        Filters next = new Filters(
+                new BloomFilter(providers * 3, falsePositiveProbability),
+                new BloomFilter(patients * 2, falsePositiveProbability));
+        state = new State(state.current(), next);
+
+        try (Stream<ProviderRepository.ProviderIdentityRow> rows = providerRepository.streamIdentities()) {
+            rows.forEach(row -> next.recordProvider(row.getEmail(), row.getPhoneNumber(), row.getLicenseNumber()));
+        }
+        try (Stream<PatientRepository.PatientIdentityRow> rows = patientRepository.streamIdentities()) {
+            rows.forEach(row -> next.recordPatient(row.getEmail(), row.getPhoneNumber()));
+        }
+
+        state = new State(next, null);
+        log.info("Registration identity filter built from {} provider and {} patient values",
+                next.providers.size(), next.patients.size());
+    }
+
+    @Scheduled(fixedDelayString = "${registration.identity-filter.saturation-check-ms:600000}")
+    @Transactional(readOnly = true)
+    public void rebuildIfSaturated() {
+        Filters filters = state.current();
+        if (filters != null && (filters.providers.isSaturated() || filters.patients.isSaturated())) {
+            rebuild();
+        }
+    }
+
+    /**
+     * False only when none of the values can belong to an existing provider.
+     */
+    public boolean mightContainProvider(String email, String phoneNumber, String licenseNumber) {
+        Filters filters = state.current();
+        return filters == null
+                || filters.providers.mightContain(key('e', email))
+                || filters.providers.mightContain(key('p', phoneNumber))
+                || filters.providers.mightContain(key('l', licenseNumber));
+    }
+
+    /**
+     * False only when none of the values can belong to an existing patient.
+     */
+    public boolean mightContainPatient(String email, String phoneNumber) {
+        Filters filters = state.current();
+        return filters == null
+                || filters.patients.mightContain(key('e', email))
+                || filters.patients.mightContain(key('p', phoneNumber));
+    }
+
+    public void recordProvider(String email, String phoneNumber, String licenseNumber) {
+        for (Filters filters : targets()) {
+            filters.recordProvider(email, phoneNumber, licenseNumber);
+        }
+    }
+
+    public void recordPatient(String email, String phoneNumber) {
+        for (Filters filters : targets()) {
+            filters.recordPatient(email, phoneNumber);
+        }
+    }
+
+    private Filters[] targets() {
+        State snapshot = state;
+        Filters active = snapshot.current();
+        Filters next = snapshot.building();
+        if (active == null) {
+            return next == null ? new Filters[0] : new Filters[]{next};
+        }
+        return next == null || next == active ? new Filters[]{active} : new Filters[]{active, next};
+    }
+
+    private static String key(char field, String value) {
+        return field + ":" + value;
+    }
+
+    /**
+     * {@code current} is null until the first build completes, and every check answers "maybe"
+     * until then. {@code building} is set while a rebuild scans the tables, so concurrent
+     * registrations land in both.
+     */
+    private record State(Filters current, Filters building) {
+    }
+
+    private record Filters(BloomFilter providers, BloomFilter patients) {
+
+        void recordProvider(String email, String phoneNumber, String licenseNumber) {
+            providers.put(key('e', email));
+            providers.put(key('p', phoneNumber));
+            providers.put(key('l', licenseNumber));
+        }
+
+        void recordPatient(String email, String phoneNumber) {
+            patients.put(key('e', email));
+            patients.put(key('p', phoneNumber));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.healthfirst.provider.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown by reads only the slot index can answer while it is still loading at startup, when
+ * its empty timelines would pass for "nothing available". Controllers answer 503 with a
+ * Retry-After header.
+ */
+@Getter
+public class SlotIndexNotReadyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public SlotIndexNotReadyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,364 @@
+package com.healthfirst.provider.service;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * One provider's slots as parallel primitive arrays sorted by (start, slot id): start and
+ * end in epoch minutes, a status byte, an index into the shared attribute table and the
+ * slot id as two longs, about 30 bytes a slot. Readers take the current {@link Snapshot}
+ * without locking; writers build a new one under the timeline's monitor.
+ */
+final class SlotTimeline {
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    synchronized void publish(Snapshot replacement) {
+        snapshot = replacement;
+    }
+
+    /**
+     * Replaces slots with the same id as an upsert, drops the removed ids and adds the rest.
+     * Reports the start minute of every slot added, replaced or removed, old and new.
+     */
+    synchronized void apply(Collection<Entry> upserts, Collection<Removal> removals, IntConsumer changedStarts) {
+        Snapshot current = snapshot;
+        // Slots are looked up at the start they are expected at; only ones that moved or are
+        // new fall through to a single pass over the timeline
+        BitSet dropped = new BitSet(current.size());
+        List<UUID> missed = new ArrayList<>();
+        removals.forEach(removal -> drop(current, removal.start(), removal.slotId(), dropped, missed));
+        upserts.forEach(entry -> drop(current, entry.start(), entry.slotId(), dropped, missed));
+        if (!missed.isEmpty()) {
+            current.markIds(missed, dropped);
+        }
+        dropped.stream().forEach(i -> changedStarts.accept(current.starts[i]));
+
+        Entry[] added = upserts.toArray(new Entry[0]);
+        Arrays.sort(added, ENTRY_ORDER);
+        Builder builder = new Builder(current.size() - dropped.cardinality() + added.length);
+        int next = 0;
+        for (int i = 0; i < current.size(); i++) {
+            if (dropped.get(i)) {
+                continue;
+            }
+            while (next < added.length && current.compare(i, added[next].start(),
+                    added[next].slotId().getMostSignificantBits(), added[next].slotId().getLeastSignificantBits()) > 0) {
+                builder.add(added[next++]);
+            }
+            builder.add(current, i);
+        }
+        while (next < added.length) {
+            builder.add(added[next++]);
+        }
+        for (Entry entry : added) {
+            changedStarts.accept(entry.start());
+        }
+        snapshot = builder.build();
+    }
+
+    /**
+     * Returns the slot's start minute, or -1 when the slot is not here at {@code start} or
+     * already had the status.
+     */
+    synchronized int updateStatus(UUID slotId, int start, byte status) {
+        Snapshot current = snapshot;
+        int i = current.indexOf(start, slotId);
+        if (i < 0 || current.statuses[i] == status) {
+            return -1;
+        }
+        byte[] statuses = current.statuses.clone();
+        statuses[i] = status;
+        snapshot = new Snapshot(current.starts, current.ends, statuses, current.attributes,
+                current.idHigh, current.idLow);
+        return start;
+    }
+
+    /**
+     * Drops every slot that starts before {@code minute}.
+     */
+    synchronized void evictBefore(int minute) {
+        Snapshot current = snapshot;
+        int from = current.firstStartingAtOrAfter(minute);
+        if (from > 0) {
+            int to = current.size();
+            snapshot = new Snapshot(Arrays.copyOfRange(current.starts, from, to),
+                    Arrays.copyOfRange(current.ends, from, to),
+                    Arrays.copyOfRange(current.statuses, from, to),
+                    Arrays.copyOfRange(current.attributes, from, to),
+                    Arrays.copyOfRange(current.idHigh, from, to),
+                    Arrays.copyOfRange(current.idLow, from, to));
+        }
+    }
+
+    int size() {
+        return snapshot.size();
+    }
+
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator.comparingInt(Entry::start)
+            .thenComparing(Entry::slotId, SlotTimeline::compareIds);
+
+    private static void drop(Snapshot current, int start, UUID slotId, BitSet dropped, List<UUID> missed) {
+        int i = current.indexOf(start, slotId);
+        if (i >= 0) {
+            dropped.set(i);
+        } else {
+            missed.add(slotId);
+        }
+    }
+
+    // Signed comparison of both halves, the order the timeline keeps ids in
+    private static int compareIds(UUID a, UUID b) {
+        int byHigh = Long.compare(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return byHigh != 0 ? byHigh : Long.compare(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    record Entry(UUID slotId, int start, int end, byte status, int attributes) {
+    }
+
+    /**
+     * A slot to drop and the start minute it was last indexed at.
+     */
+    record Removal(UUID slotId, int start) {
+    }
+
+    /**
+     * An immutable, sorted set of slots. Arrays are sized exactly and never written after
+     * construction.
+     */
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new int[0], new int[0], new byte[0], new int[0], new long[0], new long[0]);
+
+        final int[] starts;
+        final int[] ends;
+        final byte[] statuses;
+        final int[] attributes;
+        final long[] idHigh;
+        final long[] idLow;
+
+        private Snapshot(int[] starts, int[] ends, byte[] statuses, int[] attributes, long[] idHigh, long[] idLow) {
+            this.starts = starts;
+            this.ends = ends;
+            this.statuses = statuses;
+            this.attributes = attributes;
+            this.idHigh = idHigh;
+            this.idLow = idLow;
+        }
+
+        int size() {
+            return starts.length;
+        }
+
+        UUID slotId(int i) {
+            return new UUID(idHigh[i], idLow[i]);
+        }
+
+        int firstStartingAtOrAfter(int minute) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < minute) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * First slot ordered after (minute, slotId).
+         */
+        int firstAfter(int minute, UUID slotId) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(mid, minute, slotId.getMostSignificantBits(), slotId.getLeastSignificantBits()) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int compare(int i, int minute, long high, long low) {
+            int byStart = Integer.compare(starts[i], minute);
+            if (byStart != 0) {
+                return byStart;
+            }
+            int byHigh = Long.compare(idHigh[i], high);
+            return byHigh != 0 ? byHigh : Long.compare(idLow[i], low);
+        }
+
+        /**
+         * Position of the slot at (minute, slotId), or -1.
+         */
+        int indexOf(int minute, UUID slotId) {
+            int i = firstAfter(minute, slotId) - 1;
+            return i >= 0 && compare(i, minute, slotId.getMostSignificantBits(), slotId.getLeastSignificantBits()) == 0 ? i : -1;
+        }
+
+        /**
+         * Sets the position of every slot with one of the ids, wherever it starts.
+         */
+        void markIds(List<UUID> slotIds, BitSet positions) {
+            UUID[] sorted = slotIds.toArray(new UUID[0]);
+            Arrays.sort(sorted, SlotTimeline::compareIds);
+            long[] high = new long[sorted.length];
+            long[] low = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                high[i] = sorted[i].getMostSignificantBits();
+                low[i] = sorted[i].getLeastSignificantBits();
+            }
+            for (int i = 0; i < idHigh.length; i++) {
+                if (containsId(high, low, idHigh[i], idLow[i])) {
+                    positions.set(i);
+                }
+            }
+        }
+
+        private static boolean containsId(long[] high, long[] low, long idHigh, long idLow) {
+            int from = 0;
+            int to = high.length - 1;
+            while (from <= to) {
+                int mid = (from + to) >>> 1;
+                int byHigh = Long.compare(high[mid], idHigh);
+                int cmp = byHigh != 0 ? byHigh : Long.compare(low[mid], idLow);
+                if (cmp < 0) {
+                    from = mid + 1;
+                } else if (cmp > 0) {
+                    to = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Collects slots in any order and sorts them once in {@link #build()}, unless they were
+     * added in order already.
+     */
+    static final class Builder {
+        private int size;
+        private boolean sorted = true;
+        private int[] starts;
+        private int[] ends;
+        private byte[] statuses;
+        private int[] attributes;
+        private long[] idHigh;
+        private long[] idLow;
+
+        Builder(int capacity) {
+            int initial = Math.max(capacity, 8);
+            starts = new int[initial];
+            ends = new int[initial];
+            statuses = new byte[initial];
+            attributes = new int[initial];
+            idHigh = new long[initial];
+            idLow = new long[initial];
+        }
+
+        void add(Entry entry) {
+            add(entry.start(), entry.end(), entry.status(), entry.attributes(),
+                    entry.slotId().getMostSignificantBits(), entry.slotId().getLeastSignificantBits());
+        }
+
+        void add(Snapshot source, int i) {
+            add(source.starts[i], source.ends[i], source.statuses[i], source.attributes[i],
+                    source.idHigh[i], source.idLow[i]);
+        }
+
+        void add(int start, int end, byte status, int attribute, long high, long low) {
+            if (size == starts.length) {
+                int capacity = size + (size >> 1);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                attributes = Arrays.copyOf(attributes, capacity);
+                idHigh = Arrays.copyOf(idHigh, capacity);
+                idLow = Arrays.copyOf(idLow, capacity);
+            }
+            if (sorted && size > 0) {
+                int byStart = Integer.compare(starts[size - 1], start);
+                int byHigh = Long.compare(idHigh[size - 1], high);
+                sorted = byStart < 0 || (byStart == 0 && (byHigh < 0 || (byHigh == 0 && idLow[size - 1] < low)));
+            }
+            starts[size] = start;
+            ends[size] = end;
+            statuses[size] = status;
+            attributes[size] = attribute;
+            idHigh[size] = high;
+            idLow[size] = low;
+            size++;
+        }
+
+        Snapshot build() {
+            if (size == 0) {
+                return Snapshot.EMPTY;
+            }
+            if (sorted) {
+                // Arrays sized exactly, as apply() sizes them, are handed over without a copy
+                return size == starts.length
+                        ? new Snapshot(starts, ends, statuses, attributes, idHigh, idLow)
+                        : new Snapshot(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+                                Arrays.copyOf(statuses, size), Arrays.copyOf(attributes, size),
+                                Arrays.copyOf(idHigh, size), Arrays.copyOf(idLow, size));
+            }
+            int[] order = sortedOrder();
+            int[] sortedStarts = new int[size];
+            int[] sortedEnds = new int[size];
+            byte[] sortedStatuses = new byte[size];
+            int[] sortedAttributes = new int[size];
+            long[] sortedHigh = new long[size];
+            long[] sortedLow = new long[size];
+            for (int i = 0; i < size; i++) {
+                int from = order[i];
+                sortedStarts[i] = starts[from];
+                sortedEnds[i] = ends[from];
+                sortedStatuses[i] = statuses[from];
+                sortedAttributes[i] = attributes[from];
+                sortedHigh[i] = idHigh[from];
+                sortedLow[i] = idLow[from];
+            }
+            return new Snapshot(sortedStarts, sortedEnds, sortedStatuses, sortedAttributes, sortedHigh, sortedLow);
+        }
+
+        // Sorts (start, position) pairs packed into longs, then orders equal starts by slot id
+        private int[] sortedOrder() {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = ((long) starts[i] << 32) | i;
+            }
+            Arrays.sort(keys);
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = (int) keys[i];
+            }
+
+            for (int i = 1; i < size; i++) {
+                int current = order[i];
+                int j = i - 1;
+                while (j >= 0 && starts[order[j]] == starts[current] && compareIds(order[j], current) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = current;
+            }
+            return order;
+        }
+
+        private int compareIds(int a, int b) {
+            int byHigh = Long.compare(idHigh[a], idHigh[b]);
+            return byHigh != 0 ? byHigh : Long.compare(idLow[a], idLow[b]);
+        }
+    }
+}
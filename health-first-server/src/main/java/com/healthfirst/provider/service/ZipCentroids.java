@@ -0,0 +1,74 @@
+package com.healthfirst.provider.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline ZIP code to centroid lookup, loaded once from a bundled CSV of
+ * {@code zip,latitude,longitude} rows. Lines starting with '#' are comments.
+ */
+@Component
+@Slf4j
+public class ZipCentroids {
+
+    // The Census ZCTA gazetteer lists about 33,000 ZIP codes; far fewer means a sample table
+    private static final int FULL_TABLE_SIZE = 30_000;
+
+    private final Map<String, GeoPoint> centroids;
+
+    public ZipCentroids(@Value("${geo.zip-centroids:classpath:geo/zip-centroids.csv}") Resource resource) {
+        this.centroids = load(resource);
+        log.info("Loaded {} ZIP code centroids from {}", centroids.size(), resource.getDescription());
+        if (centroids.size() < FULL_TABLE_SIZE) {
+            log.warn("Only {} ZIP code centroids loaded; clinics elsewhere get no coordinates and are left out of "
+                    + "distance searches. Point geo.zip-centroids at the full Census ZCTA gazetteer for production",
+                    centroids.size());
+        }
+    }
+
+    /**
+     * The centroid of a 5-digit ZIP code; ZIP+4 codes use their first five digits.
+     */
+    public Optional<GeoPoint> find(String zip) {
+        if (zip == null) {
+            return Optional.empty();
+        }
+        String trimmed = zip.trim();
+        return Optional.ofNullable(centroids.get(trimmed.length() > 5 ? trimmed.substring(0, 5) : trimmed));
+    }
+
+    private static Map<String, GeoPoint> load(Resource resource) {
+        Map<String, GeoPoint> centroids = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            boolean header = true;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                String[] fields = line.split(",");
+                centroids.put(fields[0].trim(),
+                        new GeoPoint(Double.parseDouble(fields[1].trim()), Double.parseDouble(fields[2].trim())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read ZIP code centroids from " + resource.getDescription(), e);
+        }
+        return centroids;
+    }
+}
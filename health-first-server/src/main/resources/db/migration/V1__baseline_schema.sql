@@ -0,0 +1,111 @@
+-- Schema as previously created by hibernate ddl-auto=update
+
+create table providers (
+    id uuid not null,
+    first_name varchar(50) not null,
+    last_name varchar(50) not null,
+    email varchar(100) not null,
+    phone_number varchar(20) not null,
+    password_hash varchar(255) not null,
+    specialization varchar(100) not null,
+    license_number varchar(50) not null,
+    years_of_experience integer,
+    street varchar(255),
+    city varchar(255),
+    state varchar(255),
+    zip varchar(255),
+    verification_status enum ('PENDING','REJECTED','VERIFIED') not null,
+    is_active boolean not null,
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone,
+    constraint pk_providers primary key (id),
+    constraint uk_providers_email unique (email),
+    constraint uk_providers_phone_number unique (phone_number),
+    constraint uk_providers_license_number unique (license_number)
+);
+
+create table patients (
+    id uuid not null,
+    first_name varchar(50) not null,
+    last_name varchar(50) not null,
+    email varchar(255) not null,
+    phone_number varchar(255) not null,
+    password_hash varchar(255) not null,
+    date_of_birth date not null,
+    gender enum ('FEMALE','MALE','OTHER','PREFER_NOT_TO_SAY') not null,
+    street varchar(200) not null,
+    city varchar(100) not null,
+    state varchar(50) not null,
+    zip varchar(20) not null,
+    emergency_contact_name varchar(255),
+    emergency_contact_phone varchar(255),
+    emergency_contact_relationship varchar(255),
+    insurance_provider varchar(255),
+    insurance_policy_number varchar(255),
+    email_verified boolean not null,
+    phone_verified boolean not null,
+    is_active boolean not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    constraint pk_patients primary key (id),
+    constraint uk_patients_email unique (email),
+    constraint uk_patients_phone_number unique (phone_number)
+);
+
+create table patient_medical_history (
+    patient_id uuid not null,
+    medical_condition varchar(255),
+    constraint fk_medical_history_patient foreign key (patient_id) references patients (id)
+);
+
+create table provider_availability (
+    id uuid not null,
+    provider_id uuid not null,
+    date date not null,
+    start_time time(6) not null,
+    end_time time(6) not null,
+    timezone varchar(255) not null,
+    is_recurring boolean not null,
+    recurrence_pattern enum ('DAILY','MONTHLY','WEEKLY'),
+    recurrence_end_date date,
+    slot_duration integer not null,
+    break_duration integer not null,
+    status enum ('AVAILABLE','BLOCKED','BOOKED','CANCELLED','MAINTENANCE') not null,
+    max_appointments_per_slot integer not null,
+    current_appointments integer not null,
+    appointment_type enum ('CONSULTATION','EMERGENCY','FOLLOW_UP','TELEMEDICINE') not null,
+    location_type enum ('CLINIC','HOME_VISIT','HOSPITAL','TELEMEDICINE'),
+    location_address varchar(255),
+    room_number varchar(255),
+    base_fee numeric(10,2),
+    insurance_accepted boolean,
+    currency varchar(3),
+    notes varchar(500),
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null,
+    constraint pk_provider_availability primary key (id),
+    constraint fk_availability_provider foreign key (provider_id) references providers (id)
+);
+
+create table availability_special_requirements (
+    availability_id uuid not null,
+    requirement varchar(255),
+    constraint fk_special_requirements_availability foreign key (availability_id) references provider_availability (id)
+);
+
+create table appointment_slots (
+    id uuid not null,
+    availability_id uuid not null,
+    provider_id uuid not null,
+    slot_start_time timestamp(6) with time zone not null,
+    slot_end_time timestamp(6) with time zone not null,
+    status enum ('AVAILABLE','BLOCKED','BOOKED','CANCELLED') not null,
+    patient_id uuid,
+    appointment_type varchar(255) not null,
+    booking_reference varchar(255),
+    constraint pk_appointment_slots primary key (id),
+    constraint uk_appointment_slots_booking_reference unique (booking_reference),
+    constraint fk_slots_availability foreign key (availability_id) references provider_availability (id),
+    constraint fk_slots_provider foreign key (provider_id) references providers (id),
+    constraint fk_slots_patient foreign key (patient_id) references patients (id)
+);
@@ -0,0 +1,16 @@
+-- Per-provider calendar reads and slot moves: provider_id = ? AND slot_start_time range
+create index idx_slots_provider_start on appointment_slots (provider_id, slot_start_time);
+
+-- Search and index rebuild: status = 'AVAILABLE' AND slot_start_time range.
+-- H2 has no partial indexes, so status leads the key to keep AVAILABLE rows contiguous.
+create index idx_slots_status_start on appointment_slots (status, slot_start_time);
+
+-- Slots of one availability block (recurring deletes, joins from provider_availability)
+create index idx_slots_availability on appointment_slots (availability_id);
+
+-- Overlap checks and calendar reads: provider_id = ? AND date = ? / date range, then time window
+create index idx_availability_provider_date_time on provider_availability (provider_id, date, start_time, end_time);
+
+create index idx_special_requirements_availability on availability_special_requirements (availability_id);
+
+create index idx_medical_history_patient on patient_medical_history (patient_id);
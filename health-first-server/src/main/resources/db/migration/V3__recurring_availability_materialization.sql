@@ -0,0 +1,16 @@
+-- Recurring availability is stored once as a rule; slots are generated up to materialized_through
+alter table provider_availability add column materialized_through date;
+update provider_availability set materialized_through = date;
+alter table provider_availability alter column materialized_through set not null;
+
+-- Provider-local calendar date of each slot, so occurrences of a recurring rule group by their own day
+alter table appointment_slots add column slot_date date;
+update appointment_slots s set slot_date = (
+    select a.date from provider_availability a where a.id = s.availability_id);
+alter table appointment_slots alter column slot_date set not null;
+
+-- Calendar reads: provider_id = ? AND slot_date range
+create index idx_slots_provider_date on appointment_slots (provider_id, slot_date);
+
+-- Rules that still need slots generated: is_recurring = true AND materialized_through < ?
+create index idx_availability_recurring on provider_availability (is_recurring, materialized_through);
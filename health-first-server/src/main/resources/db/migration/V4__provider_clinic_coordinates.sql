@@ -0,0 +1,4 @@
+-- Clinic coordinates for distance search; geocoded from the ZIP centroid table when a
+-- provider registers, and backfilled at startup for rows that predate this column
+alter table providers add column latitude double precision;
+alter table providers add column longitude double precision;
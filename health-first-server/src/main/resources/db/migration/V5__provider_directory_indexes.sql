@@ -0,0 +1,5 @@
+-- Provider directory: keyset pages in each sort order, optionally within one specialization.
+-- Sorting by email uses the existing unique constraint on email.
+create index idx_providers_name on providers (last_name, first_name, id);
+create index idx_providers_created on providers (created_at, id);
+create index idx_providers_specialization_name on providers (specialization, last_name, first_name, id);
@@ -0,0 +1,45 @@
+package com.healthfirst.provider;
+
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.entity.Provider;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unsaved providers for tests. Email, phone and license number are unique within the JVM, so
+ * tests and benchmarks sharing the in-memory database never collide.
+ */
+public final class TestProviders {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private TestProviders() {
+    }
+
+    /**
+     * A pending cardiologist in Springfield, IL; {@code name} is a single word naming the test.
+     */
+    public static Provider provider(String name) {
+        long n = SEQUENCE.incrementAndGet();
+        Provider provider = new Provider();
+        provider.setFirstName("Test");
+        provider.setLastName(name);
+        provider.setEmail(name.toLowerCase() + "-" + n + "@example.com");
+        // Ten digits below 1000000000, a range the import tests' random numbers stay out of
+        provider.setPhoneNumber("+1" + String.format("%010d", n));
+        provider.setPasswordHash("hash");
+        provider.setSpecialization("Cardiology");
+        provider.setLicenseNumber(name.toUpperCase() + n);
+        provider.setClinicAddress(new ClinicAddress("1 Main St", "Springfield", "IL", "62701"));
+        return provider;
+    }
+
+    /**
+     * Like {@link #provider(String)}, verified so its tokens authenticate.
+     */
+    public static Provider verifiedProvider(String name) {
+        Provider provider = provider(name);
+        provider.setVerificationStatus(Provider.VerificationStatus.VERIFIED);
+        return provider;
+    }
+}
@@ -0,0 +1,160 @@
+package com.healthfirst.provider.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrency ceiling of the request pipeline when every request waits on a slow JDBC call.
+ * Run once per mode, the virtual one on a Java 21 runtime:
+ * <pre>
+ * mvn test -Dbenchmark=true -Dtest=RequestThreadingLoadTests
+ * mvn test -Dbenchmark=true -Dtest=RequestThreadingLoadTests -Dspring.threads.virtual.enabled=true
+ * </pre>
+ * Add {@code -Dload.pin=true} to see what pinning costs and how VirtualThreadDiagnostics reports it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.maximum-pool-size=${load.pool-size:500}",
+        "spring.datasource.hikari.connection-timeout=60000"
+})
+@Slf4j
+class RequestThreadingLoadTests {
+
+    private static final int CONCURRENT_REQUESTS = Integer.getInteger("load.requests", 1_000);
+    private static final int QUERY_MILLIS = Integer.getInteger("load.query-millis", 5_000);
+    // Holds a monitor around the JDBC call, the pattern that pins a virtual thread to its carrier
+    private static final boolean PIN = Boolean.getBoolean("load.pin");
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peakInFlight = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void concurrencyCeilingUnderSlowJdbc() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        URI uri = URI.create("http://localhost:" + port + "/load-test/slow-query?millis=" + QUERY_MILLIS);
+
+        // A full round first, so connections, threads and JIT are warm for the measured one
+        runRound(client, uri);
+        peakInFlight.set(0);
+
+        long start = System.nanoTime();
+        int ok = runRound(client, uri);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        log.info("{} threads{}, Java {}: {} requests of {} ms each in {} s, peak {} in flight, {} req/s",
+                Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform", PIN ? " (pinned)" : "",
+                Runtime.version().feature(), CONCURRENT_REQUESTS, QUERY_MILLIS, String.format("%.2f", seconds),
+                peakInFlight.get(), String.format("%.0f", CONCURRENT_REQUESTS / seconds));
+        assertThat(ok).isEqualTo(CONCURRENT_REQUESTS);
+    }
+
+    private static int runRound(HttpClient client, URI uri) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri).timeout(Duration.ofMinutes(2)).build(),
+                    HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Stands in for a slow statement: the calling thread blocks inside the JDBC call. Public,
+     * unlike the test, because H2 calls it reflectively.
+     */
+    public static final class SlowStatement {
+
+        private SlowStatement() {
+        }
+
+        public static int pause(int millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return millis;
+        }
+    }
+
+    @TestConfiguration
+    static class SlowQueryConfig {
+
+        @Bean
+        @Order(0)
+        SecurityFilterChain loadTestSecurity(HttpSecurity http) throws Exception {
+            return http.securityMatcher("/load-test/**")
+                    .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                    .build();
+        }
+
+        @Bean
+        SlowQueryController slowQueryController(JdbcTemplate jdbcTemplate) {
+            jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS PAUSE FOR \""
+                    + SlowStatement.class.getName() + ".pause\"");
+            return new SlowQueryController(jdbcTemplate);
+        }
+    }
+
+    @RestController
+    static class SlowQueryController {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        SlowQueryController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @GetMapping("/load-test/slow-query")
+        Integer slowQuery(@RequestParam int millis) {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                if (PIN) {
+                    synchronized (new Object()) {
+                        return jdbcTemplate.queryForObject("SELECT PAUSE(?)", Integer.class, millis);
+                    }
+                }
+                return jdbcTemplate.queryForObject("SELECT PAUSE(?)", Integer.class, millis);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
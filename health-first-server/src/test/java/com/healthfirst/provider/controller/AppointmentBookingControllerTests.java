@@ -0,0 +1,144 @@
+package com.healthfirst.provider.controller;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.dto.CreateAvailabilityRequest;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.AvailabilityLocation;
+import com.healthfirst.provider.entity.Gender;
+import com.healthfirst.provider.entity.Patient;
+import com.healthfirst.provider.entity.PatientAddress;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.PatientRepository;
+import com.healthfirst.provider.repository.ProviderRepository;
+import com.healthfirst.provider.security.JwtUtil;
+import com.healthfirst.provider.service.ProviderAvailabilityService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentBookingControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private ProviderAvailabilityService availabilityService;
+
+    @Test
+    void anonymousCallersCannotBookOrCancel() throws Exception {
+        mockMvc.perform(post("/api/v1/appointments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"slotId\":\"" + UUID.randomUUID() + "\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/v1/appointments/HF-ABCDEFGHJK/cancel"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void bookingIsMadeForThePatientInTheToken() throws Exception {
+        Provider provider = provider();
+        UUID slotId = createSlot(provider);
+        Patient patient = patient();
+        String body = "{\"slotId\":\"" + slotId + "\",\"patientId\":\"" + UUID.randomUUID() + "\"}";
+
+        // A provider token authenticates but may not book
+        mockMvc.perform(post("/api/v1/appointments")
+                        .header("Authorization", "Bearer " + providerToken(provider))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/v1/appointments")
+                        .header("Authorization", "Bearer " + patientToken(patient))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.patientId").value(patient.getId().toString()));
+
+        AppointmentSlot slot = slotRepository.findById(slotId).orElseThrow();
+        assertThat(slot.getPatient().getId()).isEqualTo(patient.getId());
+
+        mockMvc.perform(post("/api/v1/appointments/" + slot.getBookingReference() + "/cancel")
+                        .header("Authorization", "Bearer " + patientToken(patient())))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/v1/appointments/" + slot.getBookingReference() + "/cancel")
+                        .header("Authorization", "Bearer " + patientToken(patient)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("AVAILABLE"));
+    }
+
+    private String patientToken(Patient patient) {
+        return jwtUtil.generateToken(Map.of("patient_id", patient.getId().toString(), "role", "PATIENT"), 300);
+    }
+
+    private String providerToken(Provider provider) {
+        return jwtUtil.generateToken(Map.of("provider_id", provider.getId().toString()), provider.getEmail());
+    }
+
+    private Provider provider() {
+        return providerRepository.save(TestProviders.verifiedProvider("Booking"));
+    }
+
+    private Patient patient() {
+        String suffix = UUID.randomUUID().toString().substring(0, 12);
+        Patient patient = new Patient();
+        patient.setFirstName("Patient");
+        patient.setLastName("Controller");
+        patient.setEmail("patient-controller-" + suffix + "@example.com");
+        patient.setPhoneNumber("+5" + suffix);
+        patient.setPasswordHash("hash");
+        patient.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        patient.setGender(Gender.OTHER);
+        patient.setAddress(new PatientAddress("2 Elm St", "Springfield", "IL", "62701"));
+        patient.setEmailVerified(true);
+        return patientRepository.save(patient);
+    }
+
+    private UUID createSlot(Provider provider) {
+        CreateAvailabilityRequest.LocationDTO location = new CreateAvailabilityRequest.LocationDTO();
+        location.setType(AvailabilityLocation.LocationType.CLINIC);
+        location.setAddress("1 Main St");
+
+        CreateAvailabilityRequest availability = new CreateAvailabilityRequest();
+        availability.setDate(LocalDate.now().plusDays(3));
+        availability.setStartTime("09:00");
+        availability.setEndTime("09:30");
+        availability.setTimezone("America/New_York");
+        availability.setSlotDuration(30);
+        availability.setLocation(location);
+        availabilityService.createAvailability(provider.getId(), availability);
+
+        ZonedDateTime from = availability.getDate().atStartOfDay(ZoneOffset.UTC);
+        return slotRepository.findByProviderIdAndSlotStartTimeBetweenOrderBySlotStartTimeAsc(
+                provider.getId(), from, from.plusDays(2)).get(0).getId();
+    }
+}
@@ -0,0 +1,77 @@
+package com.healthfirst.provider.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AvailabilitySearchControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void aMatchingEtagGetsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/availability/search")
+                        .param("specialization", "Cardiology")
+                        .param("date", "2031-03-04"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/availability/search")
+                        .param("specialization", "Cardiology")
+                        .param("date", "2031-03-04")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/v1/availability/search")
+                        .param("specialization", "Cardiology")
+                        .param("date", "2031-03-04")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void badStreamRequestsGetABadRequestInsteadOfAStream() throws Exception {
+        MvcResult badCursor = mockMvc.perform(get("/api/v1/availability/search")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(badCursor))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.success").value(false));
+
+        mockMvc.perform(get("/api/v1/availability/search")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("latitude", "42.35"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void anUnknownTimezoneIsABadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/availability/search")
+                        .param("timezone", "Mars/Olympus_Mons"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/availability/search")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("timezone", "Mars/Olympus_Mons"))
+                .andExpect(status().isBadRequest());
+    }
+}
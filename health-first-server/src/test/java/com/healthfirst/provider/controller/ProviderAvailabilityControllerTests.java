@@ -0,0 +1,72 @@
+package com.healthfirst.provider.controller;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderRepository;
+import com.healthfirst.provider.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProviderAvailabilityControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Test
+    void bulkImportNeedsTheOwningProvidersToken() throws Exception {
+        Provider owner = provider();
+        String body = bulkBody(owner.getId());
+
+        mockMvc.perform(post("/api/v1/provider/availability/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/v1/provider/availability/bulk")
+                        .header("Authorization", "Bearer " + token(provider()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/v1/provider/availability/bulk")
+                        .header("Authorization", "Bearer " + token(owner))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.blocksCreated").value(1));
+    }
+
+    private String token(Provider provider) {
+        return jwtUtil.generateToken(Map.of("provider_id", provider.getId().toString()), provider.getEmail());
+    }
+
+    private static String bulkBody(UUID providerId) {
+        return """
+                {"blocks":[{"providerId":"%s","date":"%s","startTime":"09:00","endTime":"10:00",
+                  "timezone":"America/New_York","slotDuration":30,
+                  "location":{"type":"CLINIC","address":"1 Main St"}}]}
+                """.formatted(providerId, LocalDate.now().plusDays(9));
+    }
+
+    private Provider provider() {
+        return providerRepository.save(TestProviders.verifiedProvider("Roster"));
+    }
+}
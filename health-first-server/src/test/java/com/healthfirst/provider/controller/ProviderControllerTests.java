@@ -0,0 +1,71 @@
+package com.healthfirst.provider.controller;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderRepository;
+import com.healthfirst.provider.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProviderControllerTests {
+
+    private static final String HEADER =
+            "firstName,lastName,email,phoneNumber,password,specialization,licenseNumber,street,city,state,zip\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Test
+    void bulkImportNeedsAVerifiedProvidersToken() throws Exception {
+        String patientToken = jwtUtil.generateToken(Map.of("patient_id", UUID.randomUUID().toString(), "role", "PATIENT"), 300);
+
+        mockMvc.perform(post("/api/v1/provider/bulk-import")
+                        .contentType("text/csv")
+                        .content(HEADER))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/v1/provider/bulk-import")
+                        .header("Authorization", "Bearer " + patientToken)
+                        .contentType("text/csv")
+                        .content(HEADER))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/v1/provider/bulk-import")
+                        .header("Authorization", "Bearer " + token(provider(Provider.VerificationStatus.PENDING)))
+                        .contentType("text/csv")
+                        .content(HEADER))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/v1/provider/bulk-import")
+                        .header("Authorization", "Bearer " + token(provider(Provider.VerificationStatus.VERIFIED)))
+                        .contentType("text/csv")
+                        .content(HEADER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    private String token(Provider provider) {
+        return jwtUtil.generateToken(Map.of("provider_id", provider.getId().toString()), provider.getEmail());
+    }
+
+    private Provider provider(Provider.VerificationStatus verificationStatus) {
+        Provider provider = TestProviders.provider("Onboarding");
+        provider.setVerificationStatus(verificationStatus);
+        return providerRepository.save(provider);
+    }
+}
@@ -0,0 +1,75 @@
+package com.healthfirst.provider.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderRepository;
+import com.healthfirst.provider.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProviderDirectoryControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void anonymousCallersCannotReadTheDirectory() throws Exception {
+        mockMvc.perform(get("/api/v1/provider/directory"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void aCursorFromAnotherSortIsRejected() throws Exception {
+        String token = "Bearer " + token(provider());
+        provider();
+        String body = mockMvc.perform(get("/api/v1/provider/directory")
+                        .header("Authorization", token)
+                        .param("sort", "email")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(body).at("/data/nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/provider/directory")
+                        .header("Authorization", token)
+                        .param("sort", "name")
+                        .param("cursor", cursor))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor does not match the requested sort"));
+        mockMvc.perform(get("/api/v1/provider/directory")
+                        .header("Authorization", token)
+                        .param("sort", "email")
+                        .param("direction", "desc")
+                        .param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String token(Provider provider) {
+        return jwtUtil.generateToken(Map.of("provider_id", provider.getId().toString()), provider.getEmail());
+    }
+
+    private Provider provider() {
+        return providerRepository.save(TestProviders.verifiedProvider("Directory"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares per-entity saveAll against the batched JDBC writer for a month of
+ * 10-minute slots across 50 providers. Run with -Dbenchmark=true.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class AppointmentSlotBatchWriterBenchmarkTests {
+
+    private static final int PROVIDERS = 50;
+    private static final int DAYS = 30;
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private AppointmentSlotBatchWriter slotBatchWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void batchedInsertsOutperformSaveAll() {
+        List<AppointmentSlot> entitySlots = generateSlots("Entity");
+        long start = System.nanoTime();
+        slotRepository.saveAll(entitySlots);
+        entityManager.flush();
+        long saveAllNanos = System.nanoTime() - start;
+        entityManager.clear();
+
+        List<AppointmentSlot> batchedSlots = generateSlots("Batch");
+        start = System.nanoTime();
+        slotBatchWriter.insertAll(batchedSlots);
+        long batchNanos = System.nanoTime() - start;
+
+        log.info("saveAll:     {} slots, {} rows/sec", entitySlots.size(),
+                String.format("%.0f", rowsPerSecond(entitySlots.size(), saveAllNanos)));
+        log.info("batch write: {} slots, {} rows/sec", batchedSlots.size(),
+                String.format("%.0f", rowsPerSecond(batchedSlots.size(), batchNanos)));
+
+        assertThat(slotRepository.count()).isGreaterThanOrEqualTo(entitySlots.size() + batchedSlots.size());
+    }
+
+    private List<AppointmentSlot> generateSlots(String name) {
+        List<AppointmentSlot> slots = new ArrayList<>();
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        for (int p = 0; p < PROVIDERS; p++) {
+            Provider provider = providerRepository.save(TestProviders.provider(name));
+            for (int d = 0; d < DAYS; d++) {
+                LocalDate date = firstDay.plusDays(d);
+                ProviderAvailability availability = availabilityRepository.save(ProviderAvailability.builder()
+                        .provider(provider)
+                        .date(date)
+                        .startTime(LocalTime.of(9, 0))
+                        .endTime(LocalTime.of(17, 0))
+                        .timezone(ZONE.getId())
+                        .slotDuration(10)
+                        .materializedThrough(date)
+                        .build());
+                for (LocalTime time = LocalTime.of(9, 0); time.isBefore(LocalTime.of(17, 0)); time = time.plusMinutes(10)) {
+                    ZonedDateTime slotStart = date.atTime(time).atZone(ZONE);
+                    slots.add(AppointmentSlot.builder()
+                            .availability(availability)
+                            .provider(provider)
+                            .slotDate(date)
+                            .slotStartTime(slotStart)
+                            .slotEndTime(slotStart.plusMinutes(10))
+                            .appointmentType(availability.getAppointmentType().name())
+                            .build());
+                }
+            }
+        }
+        entityManager.flush();
+        return slots;
+    }
+
+
+    private static double rowsPerSecond(int rows, long nanos) {
+        return rows / (nanos / 1_000_000_000.0);
+    }
+}
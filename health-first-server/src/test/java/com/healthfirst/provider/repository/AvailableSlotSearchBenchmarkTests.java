@@ -0,0 +1,186 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.AvailabilityPricing;
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtered availability search over 1M seeded slots: the old load-then-filter path, which
+ * reads every slot in the window and lazily loads each availability's pricing, against the
+ * criteria query that filters and projects in SQL. Run with -Dbenchmark=true -DargLine=-Xmx4g
+ * (H2 holds the uncommitted seed in memory); -Dbenchmark.slots changes the size.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class AvailableSlotSearchBenchmarkTests {
+
+    private static final int PROVIDERS = 250;
+    private static final int SLOTS_PER_DAY = 100;
+    private static final int SLOT_MINUTES = 5;
+    private static final int RUNS = 5;
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+    private static final String[] SPECIALIZATIONS = {"Cardiology", "Dermatology", "Pediatrics", "Neurology", "Oncology"};
+    private static final String[] CITIES = {"Boston", "Springfield", "Worcester", "Cambridge", "Lowell"};
+    // The search's old window query, kept here as the baseline
+    private static final String LEGACY_WINDOW_QUERY = "SELECT s FROM AppointmentSlot s " +
+            "WHERE s.slotStartTime >= :startTime AND s.slotStartTime < :endTime AND s.status = 'AVAILABLE'";
+
+    @Autowired
+    private ProviderBatchWriter providerBatchWriter;
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private AppointmentSlotBatchWriter slotBatchWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void filtersInSqlInsteadOfAfterLoading() {
+        int slots = Integer.getInteger("benchmark.slots", 1_000_000);
+        LocalDate firstDay = LocalDate.now(ZONE).plusDays(1);
+        seed(slots, firstDay);
+
+        ZonedDateTime dayStart = firstDay.plusDays(3).atStartOfDay(ZONE);
+        ZonedDateTime dayEnd = dayStart.plusDays(1);
+        BigDecimal maxPrice = BigDecimal.valueOf(150);
+
+        // What the search used to do: every slot in the window, then pricing one availability at a time
+        List<AppointmentSlot> legacy = time("load then filter, 1 day", () -> {
+            entityManager.clear();
+            return entityManager.createQuery(LEGACY_WINDOW_QUERY, AppointmentSlot.class)
+                    .setParameter("startTime", dayStart)
+                    .setParameter("endTime", dayEnd)
+                    .getResultStream()
+                    .filter(slot -> "CONSULTATION".equals(slot.getAppointmentType()))
+                    .filter(slot -> Boolean.TRUE.equals(slot.getAvailability().getPricing().getInsuranceAccepted()))
+                    .filter(slot -> slot.getAvailability().getPricing().getBaseFee().compareTo(maxPrice) <= 0)
+                    .toList();
+        });
+
+        AvailableSlotSearchRepository.SlotSearchFilter filter = AvailableSlotSearchRepository.SlotSearchFilter.builder()
+                .startTime(dayStart)
+                .endTime(dayEnd)
+                .appointmentType("CONSULTATION")
+                .insuranceAccepted(true)
+                .maxPrice(maxPrice)
+                .build();
+        List<AvailableSlotSearchRepository.AvailableSlotRow> all = time("criteria, 1 day, all rows",
+                () -> slotRepository.searchAvailableSlots(filter, Integer.MAX_VALUE));
+        assertThat(all).hasSize(legacy.size());
+
+        List<AvailableSlotSearchRepository.AvailableSlotRow> page = time("criteria, 1 day, page of 50",
+                () -> slotRepository.searchAvailableSlots(filter, 50));
+        assertThat(page).hasSize(50);
+        AvailableSlotSearchRepository.AvailableSlotRow last = page.get(page.size() - 1);
+        time("criteria, 1 day, next page", () -> slotRepository.searchAvailableSlots(filter.toBuilder()
+                .afterStartTime(last.slotStartTime()).afterSlotId(last.slotId()).build(), 50));
+
+        AvailableSlotSearchRepository.SlotSearchFilter narrow = filter.toBuilder()
+                .endTime(dayStart.plusDays(7))
+                .specialization("cardiology")
+                .city("boston")
+                .build();
+        List<AvailableSlotSearchRepository.AvailableSlotRow> narrowPage = time("criteria, 7 days, specialization + city, page of 50",
+                () -> slotRepository.searchAvailableSlots(narrow, 50));
+        assertThat(narrowPage).allMatch(row -> row.specialization().equals("Cardiology") && row.city().equals("Boston"));
+    }
+
+    private <T extends List<?>> T time(String label, Supplier<T> search) {
+        T result = search.get();
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            result = search.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        log.info(String.format("%-55s %8d rows %10.1f ms", label, result.size(), best / 1_000_000.0));
+        return result;
+    }
+
+    private void seed(int slots, LocalDate firstDay) {
+        List<Provider> providers = new ArrayList<>();
+        for (int p = 0; p < PROVIDERS; p++) {
+            providers.add(provider(p));
+        }
+        providerBatchWriter.insertAll(providers);
+
+        int days = (slots + PROVIDERS * SLOTS_PER_DAY - 1) / (PROVIDERS * SLOTS_PER_DAY);
+        int remaining = slots;
+        for (int d = 0; d < days && remaining > 0; d++) {
+            LocalDate date = firstDay.plusDays(d);
+            List<AppointmentSlot> batch = new ArrayList<>(PROVIDERS * SLOTS_PER_DAY);
+            for (int p = 0; p < PROVIDERS && remaining > 0; p++) {
+                Provider provider = entityManager.getReference(Provider.class, providers.get(p).getId());
+                ProviderAvailability availability = availabilityRepository.save(availability(provider, date, p + d));
+                for (int s = 0; s < SLOTS_PER_DAY && remaining > 0; s++, remaining--) {
+                    ZonedDateTime start = date.atTime(LocalTime.of(9, 0)).plusMinutes((long) s * SLOT_MINUTES).atZone(ZONE);
+                    batch.add(AppointmentSlot.builder()
+                            .availability(availability)
+                            .provider(provider)
+                            .slotDate(date)
+                            .slotStartTime(start)
+                            .slotEndTime(start.plusMinutes(SLOT_MINUTES))
+                            .appointmentType(availability.getAppointmentType().name())
+                            .build());
+                }
+            }
+            entityManager.flush();
+            slotBatchWriter.insertAll(batch);
+            entityManager.clear();
+        }
+        log.info("seeded {} slots over {} days for {} providers", slots, days, PROVIDERS);
+    }
+
+    private static ProviderAvailability availability(Provider provider, LocalDate date, int n) {
+        return ProviderAvailability.builder()
+                .provider(provider)
+                .date(date)
+                .startTime(LocalTime.of(9, 0))
+                .endTime(LocalTime.of(9, 0).plusMinutes((long) SLOTS_PER_DAY * SLOT_MINUTES))
+                .timezone(ZONE.getId())
+                .slotDuration(SLOT_MINUTES)
+                .materializedThrough(date)
+                .appointmentType(ProviderAvailability.AppointmentType.values()[n % ProviderAvailability.AppointmentType.values().length])
+                .pricing(AvailabilityPricing.builder()
+                        .baseFee(BigDecimal.valueOf(100 + (n % 4) * 25))
+                        .insuranceAccepted(n % 3 != 0)
+                        .build())
+                .build();
+    }
+
+    private static Provider provider(int n) {
+        Provider provider = TestProviders.provider("Search");
+        provider.setSpecialization(SPECIALIZATIONS[n % SPECIALIZATIONS.length]);
+        provider.setClinicAddress(new ClinicAddress("1 Main St", CITIES[n / SPECIALIZATIONS.length % CITIES.length], "MA", "02108"));
+        return provider;
+    }
+}
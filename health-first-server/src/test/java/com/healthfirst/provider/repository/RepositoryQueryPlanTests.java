@@ -0,0 +1,247 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.healthfirst.provider.repository.RepositoryQueryPlanTests$CapturingStatementInspector")
+@Transactional
+class RepositoryQueryPlanTests {
+
+    private static final List<String> capturedSql = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Queries that read whole tables on purpose, and why; any other query planned as a table scan fails
+    private static final Map<String, String> SCANS_BY_DESIGN = Map.of(
+            "ProviderAvailabilityRepository.streamOverlapRowsFrom", "rebuilds the overlap index at startup",
+            "ProviderRepository.streamIdentities", "rebuilds the registration identity filter at startup",
+            "PatientRepository.streamIdentities", "rebuilds the registration identity filter at startup",
+            "ProviderRepository.streamDirectory", "the directory export reads every provider",
+            "ProviderRepository.findAllSummaries", "backs the unpaged provider listing",
+            "ProviderRepository.findZipsWithoutCoordinates", "feeds the startup geocoding backfill");
+
+    private final Map<String, List<String>> sqlByQuery = new LinkedHashMap<>();
+
+    @BeforeEach
+    void clearCapturedSql() {
+        capturedSql.clear();
+    }
+
+    @Test
+    void repositoryQueriesDoNotFallBackToTableScans() throws Exception {
+        UUID id = UUID.randomUUID();
+        ZonedDateTime now = ZonedDateTime.now();
+        LocalDate today = LocalDate.now();
+
+        run("AppointmentSlotRepository.findByProviderIdAndSlotStartTimeBetweenOrderBySlotStartTimeAsc", () ->
+                slotRepository.findByProviderIdAndSlotStartTimeBetweenOrderBySlotStartTimeAsc(id, now, now.plusDays(1)));
+        run("AppointmentSlotRepository.findByProviderIdAndStatus", () ->
+                slotRepository.findByProviderIdAndStatus(id, AppointmentSlot.SlotStatus.AVAILABLE));
+        run("AppointmentSlotRepository.findByBookingReference", () -> slotRepository.findByBookingReference("REF"));
+        run("AppointmentSlotRepository.countBookedSlotsInTimeRange", () ->
+                slotRepository.countBookedSlotsInTimeRange(id, now, now.plusDays(1)));
+        run("AppointmentSlotRepository.existsByProviderIdAndSlotStartTimeAndSlotEndTimeAndStatusNot", () ->
+                slotRepository.existsByProviderIdAndSlotStartTimeAndSlotEndTimeAndStatusNot(
+                        id, now, now.plusMinutes(30), AppointmentSlot.SlotStatus.CANCELLED));
+        run("AppointmentSlotRepository.findAllForSearchByIdIn", () -> slotRepository.findAllForSearchByIdIn(List.of(id)));
+        run("AppointmentSlotRepository.findByAvailabilityIdStartingFrom", () ->
+                slotRepository.findByAvailabilityIdStartingFrom(id, now));
+        run("AppointmentSlotRepository.deleteUnbookedByIdIn", () -> slotRepository.deleteUnbookedByIdIn(List.of(id)));
+        run("AppointmentSlotRepository.findBookedIdsByIdIn", () -> slotRepository.findBookedIdsByIdIn(List.of(id)));
+        run("AppointmentSlotRepository.bookIfAvailable", () ->
+                slotRepository.bookIfAvailable(id, id, "REF", now.toOffsetDateTime()));
+        run("AppointmentSlotRepository.releaseBooking", () -> slotRepository.releaseBooking(id, "REF", id));
+        run("AppointmentSlotRepository.existsById", () -> slotRepository.existsById(id));
+        run("AppointmentSlotRepository.streamIndexRowsStartingFrom", () -> {
+            try (var rows = slotRepository.streamIndexRowsStartingFrom(now)) {
+                rows.count();
+            }
+        });
+        AvailableSlotSearchRepository.SlotSearchFilter window = AvailableSlotSearchRepository.SlotSearchFilter.builder()
+                .startTime(now).endTime(now.plusDays(7)).build();
+        run("AppointmentSlotRepository.searchAvailableSlots", () -> {
+            slotRepository.searchAvailableSlots(window, 50);
+            slotRepository.searchAvailableSlots(window.toBuilder()
+                    .appointmentType("CONSULTATION").specialization("Cardiology").city("Boston").state("MA").zip("02108")
+                    .location("boston").insuranceAccepted(true).maxPrice(BigDecimal.valueOf(200))
+                    .minLatitude(42.0).maxLatitude(43.0).minLongitude(-72.0).maxLongitude(-71.0)
+                    .afterStartTime(now).afterSlotId(id).build(), 50);
+            slotRepository.searchAvailableSlots(window.toBuilder().slotIds(List.of(id)).build(), 50);
+        });
+        run("AppointmentSlotRepository.findCalendarSlots", () ->
+                slotRepository.findCalendarSlots(id, today, today.plusDays(30), null, null));
+        run("AppointmentSlotRepository.countCalendarSlotsByStatus", () ->
+                slotRepository.countCalendarSlotsByStatus(id, today, today.plusDays(30), null, null));
+
+        run("ProviderAvailabilityRepository.findByProviderIdAndDateBetweenOrderByDateAscStartTimeAsc", () ->
+                availabilityRepository.findByProviderIdAndDateBetweenOrderByDateAscStartTimeAsc(id, today, today.plusDays(30)));
+        run("ProviderAvailabilityRepository.findByProviderIdAndDateAndStatus", () ->
+                availabilityRepository.findByProviderIdAndDateAndStatus(id, today, ProviderAvailability.AvailabilityStatus.AVAILABLE));
+        run("ProviderAvailabilityRepository.findAvailabilityWithFilters", () ->
+                availabilityRepository.findAvailabilityWithFilters(id, today, today.plusDays(30), null, null));
+        run("ProviderAvailabilityRepository.existsByProviderIdAndDateAndStartTimeAndEndTimeAndStatusNot", () ->
+                availabilityRepository.existsByProviderIdAndDateAndStartTimeAndEndTimeAndStatusNot(
+                        id, today, LocalTime.of(9, 0), LocalTime.of(10, 0), ProviderAvailability.AvailabilityStatus.CANCELLED));
+        run("ProviderAvailabilityRepository.findRecurringIdsDueForMaterialization", () ->
+                availabilityRepository.findRecurringIdsDueForMaterialization(today.plusDays(30)));
+        run("ProviderAvailabilityRepository.findRecurringIdsDueForMaterializationIn", () ->
+                availabilityRepository.findRecurringIdsDueForMaterializationIn(List.of(id), today.plusDays(30)));
+        run("ProviderAvailabilityRepository.findWithProviderById", () -> availabilityRepository.findWithProviderById(id));
+        run("ProviderAvailabilityRepository.findMaterializedThroughById", () ->
+                availabilityRepository.findMaterializedThroughById(id));
+        run("ProviderAvailabilityRepository.findSpecialRequirementsByIdIn", () ->
+                availabilityRepository.findSpecialRequirementsByIdIn(List.of(id)));
+        run("ProviderAvailabilityRepository.findOverlapRows", () ->
+                availabilityRepository.findOverlapRows(List.of(id), today, today.plusDays(30)));
+        run("ProviderAvailabilityRepository.streamOverlapRowsFrom", () -> {
+            try (var rows = availabilityRepository.streamOverlapRowsFrom(today)) {
+                rows.count();
+            }
+        });
+
+        run("ProviderRepository.findByEmail", () -> providerRepository.findByEmail("someone@example.com"));
+        run("ProviderRepository.findByPhoneNumber", () -> providerRepository.findByPhoneNumber("+15550000000"));
+        run("ProviderRepository.findByLicenseNumber", () -> providerRepository.findByLicenseNumber("LIC0"));
+        run("ProviderRepository.findIndexRowsWithAvailableSlotsFrom", () ->
+                providerRepository.findIndexRowsWithAvailableSlotsFrom(now));
+        ProviderDirectoryRepository.ProviderDirectoryRow position = new ProviderDirectoryRepository.ProviderDirectoryRow(
+                id, "Ann", "Lee", "ann@example.com", null, null, true, Instant.now());
+        run("ProviderRepository.findDirectoryPage", () -> {
+            for (ProviderDirectoryRepository.SortField sort : ProviderDirectoryRepository.SortField.values()) {
+                for (boolean descending : new boolean[] {false, true}) {
+                    ProviderDirectoryRepository.DirectoryQuery query = ProviderDirectoryRepository.DirectoryQuery.builder()
+                            .sort(sort).descending(descending).build();
+                    providerRepository.findDirectoryPage(query, 51);
+                    providerRepository.findDirectoryPage(query.toBuilder().after(position).build(), 51);
+                    providerRepository.findDirectoryPage(query.toBuilder().specialization("Cardiology")
+                            .verificationStatus(Provider.VerificationStatus.VERIFIED).after(position).build(), 51);
+                }
+            }
+        });
+        run("ProviderRepository.streamDirectory", () -> {
+            try (var rows = providerRepository.streamDirectory(null, null)) {
+                rows.count();
+            }
+        });
+        run("ProviderRepository.findAllSummaries", () -> providerRepository.findAllSummaries());
+        run("ProviderRepository.findZipsWithoutCoordinates", () -> providerRepository.findZipsWithoutCoordinates());
+        run("ProviderRepository.streamIdentities", () -> {
+            try (var rows = providerRepository.streamIdentities()) {
+                rows.count();
+            }
+        });
+        run("ProviderRepository.lockAllById", () -> providerRepository.lockAllById(List.of(id)));
+        run("ProviderRepository.updatePasswordHash", () -> providerRepository.updatePasswordHash(id, "old", "new"));
+        run("ProviderRepository.findIdentityConflicts", () ->
+                providerRepository.findIdentityConflicts("someone@example.com", "+15550000000", "LIC0"));
+        run("ProviderRepository.findIdentityConflictsIn", () ->
+                providerRepository.findIdentityConflictsIn(List.of("a@example.com", "b@example.com"),
+                        List.of("+15550000000", "+15550000001"), List.of("LIC0", "LIC1")));
+
+        run("PatientRepository.findById", () -> patientRepository.findById(id));
+        run("PatientRepository.findByEmail", () -> patientRepository.findByEmail("someone@example.com"));
+        run("PatientRepository.findByPhoneNumber", () -> patientRepository.findByPhoneNumber("+15550000000"));
+        run("PatientRepository.updatePasswordHash", () -> patientRepository.updatePasswordHash(id, "old", "new"));
+        run("PatientRepository.findIdentityConflicts", () ->
+                patientRepository.findIdentityConflicts("someone@example.com", "+15550000000"));
+        run("PatientRepository.streamIdentities", () -> {
+            try (var rows = patientRepository.streamIdentities()) {
+                rows.count();
+            }
+        });
+
+        assertThat(sqlByQuery.keySet()).containsAll(SCANS_BY_DESIGN.keySet());
+        sqlByQuery.forEach((query, sql) -> assertThat(sql).as("SQL captured for %s", query).isNotEmpty());
+
+        List<String> tableScans = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (Map.Entry<String, List<String>> query : sqlByQuery.entrySet()) {
+                if (SCANS_BY_DESIGN.containsKey(query.getKey())) {
+                    continue;
+                }
+                for (String sql : Set.copyOf(query.getValue())) {
+                    String plan = explain(connection, sql);
+                    if (plan.contains(".tableScan")) {
+                        tableScans.add(query.getKey() + ":\n" + plan);
+                    }
+                }
+            }
+        }
+
+        assertThat(tableScans).as("queries planned as full table scans").isEmpty();
+    }
+
+    private void run(String query, Runnable call) {
+        capturedSql.clear();
+        call.run();
+        sqlByQuery.computeIfAbsent(query, key -> new ArrayList<>()).addAll(capturedSql);
+    }
+
+    private static String explain(Connection connection, String sql) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameterCount = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            // Native queries are written in upper case
+            if (sql.regionMatches(true, 0, "select", 0, 6) || sql.regionMatches(true, 0, "update", 0, 6)
+                    || sql.regionMatches(true, 0, "delete", 0, 6)) {
+                capturedSql.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.entity.Provider;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SecondLevelCacheEvictorTests {
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ProviderBatchWriter providerBatchWriter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void jdbcCoordinateBackfillEvictsCachedProviders() {
+        Provider provider = providerRepository.save(TestProviders.provider("Cache"));
+        assertThat(entityManagerFactory.getCache().contains(Provider.class, provider.getId())).isTrue();
+
+        providerBatchWriter.updateCoordinates(List.of(new ProviderBatchWriter.Coordinates(provider.getId(), 42.36, -71.06)));
+
+        assertThat(entityManagerFactory.getCache().contains(Provider.class, provider.getId())).isFalse();
+        assertThat(providerRepository.findById(provider.getId()).orElseThrow().getClinicAddress().getLatitude()).isEqualTo(42.36);
+    }
+
+    @Test
+    void jdbcInsertIsVisibleToCachedLookups() {
+        Provider provider = TestProviders.provider("Cache");
+        // Caches the empty result
+        assertThat(providerRepository.findByEmail(provider.getEmail())).isEmpty();
+
+        providerBatchWriter.insertAll(List.of(provider));
+
+        assertThat(providerRepository.findByEmail(provider.getEmail())).isPresent();
+    }
+}
@@ -0,0 +1,68 @@
+package com.healthfirst.provider.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationCacheTests {
+
+    private final JwtAuthenticationCache cache = new JwtAuthenticationCache(100);
+
+    @Test
+    void invalidatingAProviderDropsOnlyItsTokens() {
+        UUID provider = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        put("a1", provider, null);
+        put("a2", provider, null);
+        put("b1", other, null);
+        put("p1", null, UUID.randomUUID());
+
+        cache.invalidateProvider(provider);
+
+        assertThat(cache.get("a1")).isNull();
+        assertThat(cache.get("a2")).isNull();
+        assertThat(cache.get("b1")).isNotNull();
+        assertThat(cache.get("p1")).isNotNull();
+
+        // Tokens cached afterwards are indexed afresh
+        put("a3", provider, null);
+        cache.invalidateProvider(provider);
+        assertThat(cache.get("a3")).isNull();
+    }
+
+    @Test
+    void invalidatingAPatientDropsOnlyTheirTokens() {
+        UUID patient = UUID.randomUUID();
+        put("p1", null, patient);
+        put("p2", null, UUID.randomUUID());
+        put("a1", UUID.randomUUID(), null);
+
+        cache.invalidatePatient(patient);
+
+        assertThat(cache.get("p1")).isNull();
+        assertThat(cache.get("p2")).isNotNull();
+        assertThat(cache.get("a1")).isNotNull();
+    }
+
+    @Test
+    void aTokenLoadedBeforeAnInvalidationIsNotCached() {
+        UUID provider = UUID.randomUUID();
+        long loadedAt = cache.generation();
+
+        cache.invalidateProvider(provider);
+        cache.put("stale", token(provider, null), loadedAt);
+
+        assertThat(cache.get("stale")).isNull();
+    }
+
+    private void put(String token, UUID providerId, UUID patientId) {
+        cache.put(token, token(providerId, patientId), cache.generation());
+    }
+
+    private static JwtAuthenticationCache.CachedToken token(UUID providerId, UUID patientId) {
+        return new JwtAuthenticationCache.CachedToken(providerId, patientId, null, null, Instant.now().plusSeconds(300));
+    }
+}
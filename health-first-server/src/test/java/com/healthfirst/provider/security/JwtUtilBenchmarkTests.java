@@ -0,0 +1,63 @@
+package com.healthfirst.provider.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded token validation throughput: a parser built per call, as JwtUtil used to
+ * do, against the shared parser. Run with -Dbenchmark=true.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class JwtUtilBenchmarkTests {
+
+    private static final String SECRET = "benchmark-secret-key-for-provider-jwt-auth-at-least-32-bytes";
+
+    private JwtUtil jwtUtil;
+    private SecretKey key;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 3_600_000);
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        token = jwtUtil.generateToken(Map.of("provider_id", "00000000-0000-0000-0000-000000000001", "role", "PROVIDER"),
+                "provider@example.com");
+    }
+
+    @Benchmark
+    public Claims parserPerCall() {
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Claims sharedParser() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void runBenchmarks() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(JwtUtilBenchmarkTests.class.getName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,44 @@
+package com.healthfirst.provider.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginAttemptLimiterTests {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final LoginAttemptLimiter limiter = new LoginAttemptLimiter(3, Duration.ofMinutes(15), 100, nanos::get);
+
+    @Test
+    void locksAccountAfterMaxFailuresUntilWindowEnds() {
+        for (int i = 0; i < 3; i++) {
+            limiter.checkAllowed("PROVIDER", "john@x.com");
+            limiter.recordFailure("PROVIDER", "John@X.com ");
+        }
+
+        assertThatThrownBy(() -> limiter.checkAllowed("PROVIDER", "john@x.com"))
+                .isInstanceOf(LoginRateLimitedException.class)
+                .extracting("retryAfterSeconds").isEqualTo(900L);
+        // Other roles and accounts are unaffected
+        assertThatCode(() -> limiter.checkAllowed("PATIENT", "john@x.com")).doesNotThrowAnyException();
+        assertThatCode(() -> limiter.checkAllowed("PROVIDER", "jane@x.com")).doesNotThrowAnyException();
+
+        nanos.addAndGet(Duration.ofMinutes(15).toNanos());
+        assertThatCode(() -> limiter.checkAllowed("PROVIDER", "john@x.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void successfulLoginClearsFailures() {
+        limiter.recordFailure("PATIENT", "jane@x.com");
+        limiter.recordFailure("PATIENT", "jane@x.com");
+        limiter.recordSuccess("PATIENT", "jane@x.com");
+        limiter.recordFailure("PATIENT", "jane@x.com");
+        limiter.recordFailure("PATIENT", "jane@x.com");
+
+        assertThatCode(() -> limiter.checkAllowed("PATIENT", "jane@x.com")).doesNotThrowAnyException();
+    }
+}
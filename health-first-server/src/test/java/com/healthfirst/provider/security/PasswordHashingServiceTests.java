@@ -0,0 +1,92 @@
+package com.healthfirst.provider.security;
+
+import com.healthfirst.provider.config.SecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingServiceTests {
+
+    @Test
+    void saturatedExecutorRejectsImmediately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingService service = new PasswordHashingService(
+                blockingEncoder(started, release), registry, 1, 1, 10_000, 2);
+
+        // One task running, one queued: the executor is full
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"));
+        while (registry.get("password.hashing.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> service.encode("third"))
+                .isInstanceOf(PasswordHashingRejectedException.class)
+                .extracting("retryAfterSeconds").isEqualTo(2L);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+        assertThat(registry.get("password.hashing.rejected").counter().count()).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+        assertThat(registry.get("password.hashing.duration").tag("operation", "encode").timer().count()).isEqualTo(2);
+        service.shutdown();
+    }
+
+    @Test
+    void legacyAndWeakerHashesAreRehashedWithTheConfiguredEncoder() {
+        PasswordEncoder encoder = new SecurityConfig(null).passwordEncoder("bcrypt", 5, 1024, 1, 1);
+        PasswordHashingService service = new PasswordHashingService(encoder, new SimpleMeterRegistry(), 1, 1, 10_000, 1);
+
+        // Unprefixed BCrypt as stored before the delegating encoder, and a prefixed hash at a lower cost
+        String legacy = new BCryptPasswordEncoder(4).encode("Passw0rd!");
+        String weaker = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("Passw0rd!");
+        String current = service.encode("Passw0rd!");
+
+        assertThat(service.matches("Passw0rd!", legacy)).isTrue();
+        String upgraded = service.rehashIfOutdated("Passw0rd!", legacy).orElseThrow();
+        assertThat(upgraded).startsWith("{bcrypt}$2a$05$");
+        assertThat(service.matches("Passw0rd!", upgraded)).isTrue();
+        assertThat(service.rehashIfOutdated("Passw0rd!", weaker)).isPresent();
+        assertThat(service.rehashIfOutdated("Passw0rd!", current)).isEmpty();
+
+        // Switching to Argon2id upgrades BCrypt hashes but keeps verifying them
+        PasswordEncoder argon2 = new SecurityConfig(null).passwordEncoder("argon2", 5, 1024, 1, 1);
+        assertThat(argon2.matches("Passw0rd!", current)).isTrue();
+        assertThat(argon2.upgradeEncoding(current)).isTrue();
+        assertThat(argon2.encode("Passw0rd!")).startsWith("{argon2}$argon2id$");
+        service.shutdown();
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+}
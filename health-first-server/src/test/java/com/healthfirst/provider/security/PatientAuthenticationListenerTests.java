@@ -0,0 +1,63 @@
+package com.healthfirst.provider.security;
+
+import com.healthfirst.provider.entity.Gender;
+import com.healthfirst.provider.entity.Patient;
+import com.healthfirst.provider.entity.PatientAddress;
+import com.healthfirst.provider.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PatientAuthenticationListenerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void deactivatedPatientIsRefusedOnTheNextRequest() throws Exception {
+        Patient patient = patientRepository.save(patient());
+        String token = jwtUtil.generateToken(Map.of("patient_id", patient.getId().toString(), "role", "PATIENT"), 300);
+
+        // Authenticates, and caches the token; there is simply no such booking
+        mockMvc.perform(post("/api/v1/appointments/HF-ABCDEFGHJK/cancel").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+
+        patient.setActive(false);
+        patientRepository.save(patient);
+
+        mockMvc.perform(post("/api/v1/appointments/HF-ABCDEFGHJK/cancel").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    private static Patient patient() {
+        String suffix = UUID.randomUUID().toString().substring(0, 12);
+        Patient patient = new Patient();
+        patient.setFirstName("Listener");
+        patient.setLastName("Patient");
+        patient.setEmail("patient-listener-" + suffix + "@example.com");
+        patient.setPhoneNumber("+8" + suffix);
+        patient.setPasswordHash("hash");
+        patient.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        patient.setGender(Gender.OTHER);
+        patient.setAddress(new PatientAddress("2 Elm St", "Springfield", "IL", "62701"));
+        patient.setEmailVerified(true);
+        return patient;
+    }
+}
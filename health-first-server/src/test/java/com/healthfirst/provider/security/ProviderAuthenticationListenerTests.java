@@ -0,0 +1,62 @@
+package com.healthfirst.provider.security;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderBatchWriter;
+import com.healthfirst.provider.repository.ProviderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProviderAuthenticationListenerTests {
+
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ProviderBatchWriter providerBatchWriter;
+
+    @Test
+    void deactivatingAProviderDropsItsCachedTokens() {
+        Provider provider = providerRepository.save(TestProviders.provider("Listener"));
+        String token = cache(provider);
+
+        provider.setIsActive(false);
+        providerRepository.save(provider);
+
+        assertThat(authenticationCache.get(token)).isNull();
+    }
+
+    @Test
+    void jdbcWritesDropCachedTokensToo() {
+        Provider provider = TestProviders.provider("Listener");
+        provider.setId(UUID.randomUUID());
+        // Cached before the provider existed, as a token nobody may authenticate with
+        String token = cache(provider);
+
+        providerBatchWriter.insertAll(List.of(provider));
+        assertThat(authenticationCache.get(token)).isNull();
+
+        token = cache(provider);
+        providerBatchWriter.updateCoordinates(List.of(new ProviderBatchWriter.Coordinates(provider.getId(), 42.36, -71.06)));
+        assertThat(authenticationCache.get(token)).isNull();
+    }
+
+    private String cache(Provider provider) {
+        String token = "token-" + UUID.randomUUID();
+        authenticationCache.put(token, new JwtAuthenticationCache.CachedToken(provider.getId(), null, null, null,
+                Instant.now().plusSeconds(300)), authenticationCache.generation());
+        assertThat(authenticationCache.get(token)).isNotNull();
+        return token;
+    }
+}
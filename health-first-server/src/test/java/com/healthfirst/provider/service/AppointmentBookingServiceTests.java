@@ -0,0 +1,257 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.dto.BookAppointmentRequest;
+import com.healthfirst.provider.dto.BookingResponse;
+import com.healthfirst.provider.dto.CreateAvailabilityRequest;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.AvailabilityLocation;
+import com.healthfirst.provider.entity.Gender;
+import com.healthfirst.provider.entity.Patient;
+import com.healthfirst.provider.entity.PatientAddress;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.PatientRepository;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import com.healthfirst.provider.repository.ProviderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Slf4j
+class AppointmentBookingServiceTests {
+
+    @Autowired
+    private AppointmentBookingService bookingService;
+
+    @Autowired
+    private ProviderAvailabilityService availabilityService;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void concurrentAttemptsOnOneSlotProduceExactlyOneBooking() throws Exception {
+        List<UUID> slotIds = createSlots(1);
+        List<UUID> patientIds = createPatients(32);
+
+        BookingOutcome outcome = bookConcurrently(slotIds, patientIds, patientIds.size(), patientIds.size());
+
+        assertThat(outcome.booked.get()).isEqualTo(1);
+        assertThat(outcome.conflicts.get()).isEqualTo(patientIds.size() - 1);
+        AppointmentSlot slot = slotRepository.findById(slotIds.get(0)).orElseThrow();
+        assertThat(slot.getStatus()).isEqualTo(AppointmentSlot.SlotStatus.BOOKED);
+        assertThat(slot.getBookingReference()).isNotNull();
+    }
+
+    @Test
+    void cancelledBookingMakesTheSlotBookableAgain() {
+        UUID slotId = createSlots(1).get(0);
+        List<UUID> patientIds = createPatients(2);
+
+        String reference = bookingService.bookSlot(request(slotId), patientIds.get(0)).getData().getBookingReference();
+        assertThatThrownBy(() -> bookingService.bookSlot(request(slotId), patientIds.get(1)))
+                .isInstanceOf(IllegalStateException.class);
+
+        BookingResponse cancelled = bookingService.cancelBooking(reference, patientIds.get(0));
+        assertThat(cancelled.getData().getStatus()).isEqualTo(AppointmentSlot.SlotStatus.AVAILABLE.name());
+
+        assertThat(bookingService.bookSlot(request(slotId), patientIds.get(1)).getSuccess()).isTrue();
+    }
+
+    @Test
+    void bookingForAnUnknownPatientIsRejected() {
+        UUID slotId = createSlots(1).get(0);
+
+        assertThatThrownBy(() -> bookingService.bookSlot(request(slotId), UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Patient not found");
+        assertThat(slotRepository.findById(slotId).orElseThrow().getStatus()).isEqualTo(AppointmentSlot.SlotStatus.AVAILABLE);
+    }
+
+    @Test
+    void bookedSlotsAreNotDeletedWithTheirAvailability() {
+        List<UUID> slotIds = createSlots(2);
+        bookingService.bookSlot(request(slotIds.get(0)), createPatients(1).get(0));
+
+        assertThatThrownBy(() -> availabilityService.deleteAvailabilitySlot(slotIds.get(0), false, null))
+                .isInstanceOf(BookedSlotsException.class)
+                .extracting(e -> ((BookedSlotsException) e).getSlotIds())
+                .isEqualTo(List.of(slotIds.get(0)));
+        assertThat(slotRepository.findById(slotIds.get(0))).isPresent();
+
+        availabilityService.deleteAvailabilitySlot(slotIds.get(1), false, null);
+        assertThat(slotRepository.findById(slotIds.get(1))).isEmpty();
+    }
+
+    @Test
+    void recurringDeleteIsRefusedWhileALaterOccurrenceIsBooked() {
+        // One slot a day for three days; the last day is booked
+        List<UUID> slotIds = createSlots(3, true);
+        bookingService.bookSlot(request(slotIds.get(2)), createPatients(1).get(0));
+
+        assertThatThrownBy(() -> availabilityService.deleteAvailabilitySlot(slotIds.get(0), true, null))
+                .isInstanceOf(BookedSlotsException.class)
+                .extracting(e -> ((BookedSlotsException) e).getSlotIds())
+                .isEqualTo(List.of(slotIds.get(2)));
+        assertThat(slotRepository.findAllById(slotIds)).hasSize(3);
+        UUID availabilityId = slotRepository.findById(slotIds.get(0)).orElseThrow().getAvailability().getId();
+        assertThat(availabilityRepository.findById(availabilityId).orElseThrow().getRecurrenceEndDate())
+                .isEqualTo(LocalDate.now().plusDays(5));
+    }
+
+    @Test
+    void bookingLeavesCachedProvidersInPlace() {
+        UUID slotId = createSlots(1).get(0);
+        UUID providerId = slotRepository.findById(slotId).orElseThrow().getProvider().getId();
+        assertThat(entityManagerFactory.getCache().contains(Provider.class, providerId)).isTrue();
+
+        bookingService.bookSlot(request(slotId), createPatients(1).get(0));
+
+        // Native DML without declared tables would have cleared every region
+        assertThat(entityManagerFactory.getCache().contains(Provider.class, providerId)).isTrue();
+    }
+
+    /**
+     * Many threads competing for a handful of popular slots. Run with -Dbenchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void contentionBenchmark() throws Exception {
+        List<UUID> patientIds = createPatients(200);
+        int attempts = 5_000;
+
+        // Warm up the JIT and the connection pool on a separate set of slots
+        bookConcurrently(createSlots(16), patientIds, attempts, 64);
+
+        List<UUID> slotIds = createSlots(16);
+        long start = System.nanoTime();
+        BookingOutcome outcome = bookConcurrently(slotIds, patientIds, attempts, 64);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        log.info("{} attempts on {} slots with 64 threads: {} attempts/sec, {} booked, {} conflicts",
+                attempts, slotIds.size(), String.format("%.0f", attempts / seconds), outcome.booked.get(), outcome.conflicts.get());
+        assertThat(outcome.booked.get()).isEqualTo(slotIds.size());
+    }
+
+    private BookingOutcome bookConcurrently(List<UUID> slotIds, List<UUID> patientIds,
+                                            int attempts, int threads) throws Exception {
+        BookingOutcome outcome = new BookingOutcome();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < attempts; i++) {
+            BookAppointmentRequest request = request(slotIds.get(i % slotIds.size()));
+            UUID patientId = patientIds.get(i % patientIds.size());
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    bookingService.bookSlot(request, patientId);
+                    outcome.booked.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    outcome.conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        startSignal.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        return outcome;
+    }
+
+    private List<UUID> createSlots(int count) {
+        return createSlots(count, false);
+    }
+
+    // Recurring availability has one slot a day, for count days
+    private List<UUID> createSlots(int count, boolean recurring) {
+        Provider provider = providerRepository.save(TestProviders.provider("Booking"));
+
+        CreateAvailabilityRequest.LocationDTO location = new CreateAvailabilityRequest.LocationDTO();
+        location.setType(AvailabilityLocation.LocationType.CLINIC);
+        location.setAddress("1 Main St");
+
+        CreateAvailabilityRequest availability = new CreateAvailabilityRequest();
+        availability.setDate(LocalDate.now().plusDays(3));
+        availability.setStartTime("09:00");
+        availability.setEndTime(recurring ? "09:30" : String.format("%02d:00", 9 + (count + 1) / 2));
+        if (recurring) {
+            availability.setIsRecurring(true);
+            availability.setRecurrencePattern(ProviderAvailability.RecurrencePattern.DAILY);
+            availability.setRecurrenceEndDate(availability.getDate().plusDays(count - 1));
+        }
+        availability.setTimezone("America/New_York");
+        availability.setSlotDuration(30);
+        availability.setLocation(location);
+        availabilityService.createAvailability(provider.getId(), availability);
+
+        ZonedDateTime from = availability.getDate().atStartOfDay(java.time.ZoneOffset.UTC);
+        return slotRepository.findByProviderIdAndSlotStartTimeBetweenOrderBySlotStartTimeAsc(
+                        provider.getId(), from, from.plusDays(count + 1)).stream()
+                .limit(count)
+                .map(AppointmentSlot::getId)
+                .toList();
+    }
+
+    private List<UUID> createPatients(int count) {
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String suffix = UUID.randomUUID().toString().substring(0, 12);
+            Patient patient = new Patient();
+            patient.setFirstName("Patient");
+            patient.setLastName("Test");
+            patient.setEmail("patient-" + suffix + "@example.com");
+            patient.setPhoneNumber("+2" + suffix);
+            patient.setPasswordHash("hash");
+            patient.setDateOfBirth(LocalDate.of(1990, 1, 1));
+            patient.setGender(Gender.OTHER);
+            patient.setAddress(new PatientAddress("2 Elm St", "Springfield", "IL", "62701"));
+            patients.add(patient);
+        }
+        return patientRepository.saveAll(patients).stream().map(Patient::getId).toList();
+    }
+
+    private static BookAppointmentRequest request(UUID slotId) {
+        BookAppointmentRequest request = new BookAppointmentRequest();
+        request.setSlotId(slotId);
+        return request;
+    }
+
+    private static class BookingOutcome {
+        final AtomicInteger booked = new AtomicInteger();
+        final AtomicInteger conflicts = new AtomicInteger();
+    }
+}
@@ -0,0 +1,86 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.dto.CreateAvailabilityRequest;
+import com.healthfirst.provider.entity.AvailabilityLocation;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import com.healthfirst.provider.repository.ProviderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AvailabilityOverlapIndexTests {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(5);
+
+    @Autowired
+    private AvailabilityOverlapIndex overlapIndex;
+
+    @Autowired
+    private ProviderAvailabilityService availabilityService;
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Test
+    void blocksSavedBehindTheIndexStillConflict() {
+        Provider provider = provider();
+        // As another instance would: saved without this instance's index hearing of it
+        availabilityRepository.save(ProviderAvailability.builder()
+                .provider(provider)
+                .date(DATE)
+                .startTime(LocalTime.of(9, 0))
+                .endTime(LocalTime.of(11, 0))
+                .timezone("America/New_York")
+                .materializedThrough(DATE)
+                .location(AvailabilityLocation.builder().type(AvailabilityLocation.LocationType.CLINIC).address("1 Main St").build())
+                .build());
+
+        assertThatThrownBy(() -> availabilityService.createAvailability(provider.getId(), request("10:00", "12:00")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("overlaps");
+        assertThat(availabilityService.createAvailability(provider.getId(), request("11:00", "12:00")).getSuccess()).isTrue();
+    }
+
+    @Test
+    void rebuildingTwiceHoldsEachBlockOnce() {
+        availabilityService.createAvailability(provider().getId(), request("09:00", "10:00"));
+
+        overlapIndex.rebuild();
+        int size = overlapIndex.size();
+        overlapIndex.rebuild();
+
+        assertThat(overlapIndex.size()).isEqualTo(size);
+    }
+
+    private Provider provider() {
+        return providerRepository.save(TestProviders.provider("Overlap"));
+    }
+
+    private static CreateAvailabilityRequest request(String startTime, String endTime) {
+        CreateAvailabilityRequest.LocationDTO location = new CreateAvailabilityRequest.LocationDTO();
+        location.setType(AvailabilityLocation.LocationType.CLINIC);
+        location.setAddress("1 Main St");
+
+        CreateAvailabilityRequest request = new CreateAvailabilityRequest();
+        request.setDate(DATE);
+        request.setStartTime(startTime);
+        request.setEndTime(endTime);
+        request.setTimezone("America/New_York");
+        request.setSlotDuration(30);
+        request.setLocation(location);
+        return request;
+    }
+}
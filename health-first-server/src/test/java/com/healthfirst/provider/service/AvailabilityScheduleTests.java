@@ -0,0 +1,60 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.ProviderAvailability.RecurrencePattern;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityScheduleTests {
+
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    @Test
+    void findsOverlapsWithOneOffAndRecurringBlocks() {
+        AvailabilitySchedule schedule = new AvailabilitySchedule();
+        schedule.add(block(MONDAY, "09:00", "12:00", RecurrencePattern.WEEKLY, null));
+        schedule.add(block(MONDAY.plusDays(1), "13:00", "14:00", null, null));
+        schedule.add(block(LocalDate.of(2030, 1, 31), "08:00", "09:00", RecurrencePattern.MONTHLY, null));
+
+        // A later Monday hits the weekly rule; touching intervals do not overlap
+        assertThat(conflicts(schedule, block(MONDAY.plusWeeks(5), "11:30", "12:30", null, null))).isTrue();
+        assertThat(conflicts(schedule, block(MONDAY.plusWeeks(5), "12:00", "13:00", null, null))).isFalse();
+        assertThat(conflicts(schedule, block(MONDAY.plusDays(1), "13:30", "15:00", null, null))).isTrue();
+        assertThat(conflicts(schedule, block(MONDAY.plusDays(2), "13:30", "15:00", null, null))).isFalse();
+
+        // The monthly rule on the 31st falls on the last day of February
+        assertThat(conflicts(schedule, block(LocalDate.of(2030, 2, 28), "08:30", "10:00", null, null))).isTrue();
+        assertThat(conflicts(schedule, block(LocalDate.of(2030, 2, 27), "08:30", "10:00", null, null))).isFalse();
+
+        // A daily rule meets the weekly one on its first Monday, unless it ends before then
+        assertThat(conflicts(schedule, block(MONDAY.plusDays(2), "10:00", "11:00", RecurrencePattern.DAILY, null))).isTrue();
+        assertThat(conflicts(schedule,
+                block(MONDAY.plusDays(2), "10:00", "11:00", RecurrencePattern.DAILY, MONDAY.plusDays(6)))).isFalse();
+
+        // Weekly rules on different weekdays never meet
+        assertThat(conflicts(schedule, block(MONDAY.plusDays(3), "09:00", "12:00", RecurrencePattern.WEEKLY, null))).isFalse();
+    }
+
+    @Test
+    void removedBlocksNoLongerConflict() {
+        AvailabilitySchedule schedule = new AvailabilitySchedule();
+        AvailabilitySchedule.Block weekly = block(MONDAY, "09:00", "12:00", RecurrencePattern.WEEKLY, null);
+        schedule.add(weekly);
+        assertThat(schedule.remove(weekly)).isTrue();
+
+        assertThat(conflicts(schedule, block(MONDAY.plusWeeks(1), "09:00", "10:00", null, null))).isFalse();
+        assertThat(schedule.size()).isZero();
+    }
+
+    private static boolean conflicts(AvailabilitySchedule schedule, AvailabilitySchedule.Block candidate) {
+        return schedule.findConflict(candidate, block -> false).isPresent();
+    }
+
+    private static AvailabilitySchedule.Block block(LocalDate date, String start, String end,
+                                                    RecurrencePattern pattern, LocalDate until) {
+        return new AvailabilitySchedule.Block(null, date, LocalTime.parse(start), LocalTime.parse(end), pattern, until);
+    }
+}
@@ -0,0 +1,114 @@
+package com.healthfirst.provider.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.healthfirst.provider.dto.AvailabilitySearchRequest;
+import com.healthfirst.provider.dto.AvailabilitySearchResponse;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilitySearchCacheTests {
+
+    private static final ZonedDateTime NINE = ZonedDateTime.of(2030, 1, 7, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    private final AvailabilitySlotIndex index = new AvailabilitySlotIndex(null, null);
+    private final AvailabilitySearchCache cache = new AvailabilitySearchCache(index, JsonMapper.builder().findAndAddModules().build(),
+            null, 100, Duration.ofMinutes(1));
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @Test
+    void repeatedSearchesShareOneResponseAndEtag() {
+        AvailabilitySearchCache.CachedSearch first = search(request("Cardiology", NINE.toLocalDate()));
+        AvailabilitySearchCache.CachedSearch second = search(request(" Cardiology ", NINE.toLocalDate()));
+
+        assertThat(searches).hasValue(1);
+        assertThat(second.etag()).isEqualTo(first.etag()).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void slotChangesDropOnlyEntriesThatCouldShowThem() {
+        AvailabilitySearchRequest cardiology = request("Cardiology", NINE.toLocalDate());
+        AvailabilitySearchRequest dermatology = request("Dermatology", NINE.toLocalDate());
+        AvailabilitySearchRequest nextDay = request("Cardiology", NINE.toLocalDate().plusDays(1));
+        String cardiologyEtag = search(cardiology).etag();
+        search(dermatology);
+        search(nextDay);
+
+        index.put(slot(cardiologist()));
+
+        assertThat(search(cardiology).etag()).isNotEqualTo(cardiologyEtag);
+        search(dermatology);
+        search(nextDay);
+        assertThat(searches).hasValue(4);
+    }
+
+    @Test
+    void aSearchThatRacedWithAChangeIsServedButNotCached() throws Exception {
+        AvailabilitySearchRequest cardiology = request("Cardiology", NINE.toLocalDate());
+
+        cache.search(cardiology, r -> {
+            // A booking commits on another thread while this search is reading the index
+            Thread writer = new Thread(() -> index.put(slot(cardiologist())));
+            writer.start();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return AvailabilitySearchResponse.builder().success(true).build();
+        });
+        search(cardiology);
+
+        assertThat(searches).hasValue(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    private AvailabilitySearchCache.CachedSearch search(AvailabilitySearchRequest request) {
+        return cache.search(request, r -> AvailabilitySearchResponse.builder()
+                .success(true)
+                .data(AvailabilitySearchResponse.SearchData.builder().totalResults(searches.incrementAndGet()).build())
+                .build());
+    }
+
+    private static AvailabilitySearchRequest request(String specialization, LocalDate date) {
+        AvailabilitySearchRequest request = new AvailabilitySearchRequest();
+        request.setSpecialization(specialization);
+        request.setDate(date);
+        request.setTimezone("UTC");
+        return request;
+    }
+
+    private static ProviderAvailability cardiologist() {
+        Provider provider = new Provider();
+        provider.setId(UUID.randomUUID());
+        provider.setSpecialization("Cardiology");
+        provider.setClinicAddress(new ClinicAddress("1 Main St", "Boston", "MA", "02108"));
+        return ProviderAvailability.builder()
+                .id(UUID.randomUUID())
+                .provider(provider)
+                .build();
+    }
+
+    private static AppointmentSlot slot(ProviderAvailability availability) {
+        return AppointmentSlot.builder()
+                .id(UUID.randomUUID())
+                .availability(availability)
+                .provider(availability.getProvider())
+                .slotDate(NINE.toLocalDate())
+                .slotStartTime(NINE)
+                .slotEndTime(NINE.plusMinutes(30))
+                .appointmentType("CONSULTATION")
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.dto.AvailabilitySearchRequest;
+import com.healthfirst.provider.dto.AvailabilitySearchResponse;
+import com.healthfirst.provider.dto.CreateAvailabilityRequest;
+import com.healthfirst.provider.entity.AvailabilityLocation;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AvailabilitySearchServiceTests {
+
+    @Autowired
+    private AvailabilitySearchService searchService;
+
+    @Autowired
+    private ProviderAvailabilityService availabilityService;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void pagingWithTheCursorReturnsEverySlotOnce() {
+        // Three providers with the same hours: every start time is shared by three slots
+        String specialization = "Paging " + UUID.randomUUID().toString().substring(0, 8);
+        LocalDate date = LocalDate.now().plusDays(5);
+        for (int i = 0; i < 3; i++) {
+            availabilityService.createAvailability(provider(specialization).getId(), availability(date));
+        }
+
+        List<UUID> everything = slotIds(search(specialization, date, null, 200));
+        assertThat(everything).hasSize(12);
+
+        List<UUID> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            AvailabilitySearchResponse.SearchData page = search(specialization, date, cursor, 5);
+            paged.addAll(slotIds(page));
+            cursor = page.getNextCursor();
+            assertThat(page.getHasMore()).isEqualTo(cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(paged).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(everything);
+    }
+
+    @Test
+    void distanceSearchesAreRefusedWhileTheIndexIsLoading() {
+        AvailabilitySearchService loading = new AvailabilitySearchService(null, null, new AvailabilitySlotIndex(null, null),
+                null, null, transactionManager);
+        AvailabilitySearchRequest request = new AvailabilitySearchRequest();
+        request.setLatitude(42.36);
+        request.setLongitude(-71.06);
+
+        assertThatThrownBy(() -> loading.searchAvailability(request)).isInstanceOf(SlotIndexNotReadyException.class);
+        assertThatThrownBy(() -> loading.streamAvailability(request)).isInstanceOf(SlotIndexNotReadyException.class);
+    }
+
+    private AvailabilitySearchResponse.SearchData search(String specialization, LocalDate date, String cursor, int limit) {
+        AvailabilitySearchRequest request = new AvailabilitySearchRequest();
+        request.setSpecialization(specialization);
+        request.setDate(date);
+        request.setTimezone("America/New_York");
+        request.setCursor(cursor);
+        request.setLimit(limit);
+        return searchService.searchAvailability(request).getData();
+    }
+
+    private static List<UUID> slotIds(AvailabilitySearchResponse.SearchData page) {
+        return page.getResults().stream()
+                .flatMap(result -> result.getAvailableSlots().stream())
+                .map(AvailabilitySearchResponse.AvailableSlot::getSlotId)
+                .toList();
+    }
+
+    // Four 30-minute slots from 09:00
+    private static CreateAvailabilityRequest availability(LocalDate date) {
+        CreateAvailabilityRequest.LocationDTO location = new CreateAvailabilityRequest.LocationDTO();
+        location.setType(AvailabilityLocation.LocationType.CLINIC);
+        location.setAddress("1 Main St");
+
+        CreateAvailabilityRequest availability = new CreateAvailabilityRequest();
+        availability.setDate(date);
+        availability.setStartTime("09:00");
+        availability.setEndTime("11:00");
+        availability.setTimezone("America/New_York");
+        availability.setSlotDuration(30);
+        availability.setLocation(location);
+        return availability;
+    }
+
+    private Provider provider(String specialization) {
+        Provider provider = TestProviders.verifiedProvider("Paging");
+        provider.setSpecialization(specialization);
+        return providerRepository.save(provider);
+    }
+}
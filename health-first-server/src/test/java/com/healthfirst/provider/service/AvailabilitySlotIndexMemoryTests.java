@@ -0,0 +1,118 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.AvailabilityPricing;
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retained heap of the slot index at 1M and 10M slots, spread over 2,000 providers with
+ * 10-minute slots from 08:00. Run with -Dbenchmark=true; -Dbenchmark.slots=1000000 picks sizes.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class AvailabilitySlotIndexMemoryTests {
+
+    private static final int PROVIDERS = 2_000;
+    private static final int BATCH = 10_000;
+    private static final int SLOTS_PER_DAY = 60;
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+    @Test
+    void retainedHeapPerSlot() {
+        int[] sizes = Arrays.stream(System.getProperty("benchmark.slots", "1000000,10000000").split(","))
+                .mapToInt(size -> Integer.parseInt(size.trim()))
+                .toArray();
+        for (int size : sizes) {
+            measure(size);
+        }
+    }
+
+    private static void measure(int slots) {
+        List<ProviderAvailability> availabilities = new ArrayList<>();
+        for (int i = 0; i < PROVIDERS; i++) {
+            availabilities.add(availability(i));
+        }
+        LocalDate firstDay = LocalDate.now(ZONE).plusDays(1);
+
+        long before = usedHeap();
+        AvailabilitySlotIndex index = new AvailabilitySlotIndex(null, null);
+        List<AppointmentSlot> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < slots; i++) {
+            // Fill provider by provider, a day of slots at a time
+            int perProvider = (slots + PROVIDERS - 1) / PROVIDERS;
+            ProviderAvailability availability = availabilities.get(i / perProvider);
+            int n = i % perProvider;
+            ZonedDateTime start = firstDay.plusDays(n / SLOTS_PER_DAY).atTime(8, 0).atZone(ZONE)
+                    .plusMinutes(10L * (n % SLOTS_PER_DAY));
+            batch.add(AppointmentSlot.builder()
+                    .id(UUID.randomUUID())
+                    .availability(availability)
+                    .provider(availability.getProvider())
+                    .slotDate(start.toLocalDate())
+                    .slotStartTime(start)
+                    .slotEndTime(start.plusMinutes(10))
+                    .appointmentType(availability.getAppointmentType().name())
+                    .build());
+            if (batch.size() == BATCH) {
+                index.putAll(batch);
+                batch.clear();
+            }
+        }
+        index.putAll(batch);
+        batch.clear();
+        long after = usedHeap();
+
+        assertThat(index.size()).isEqualTo(slots);
+        log.info(String.format("%,d slots: %,.1f MB retained, %.1f bytes/slot",
+                slots, (after - before) / 1_048_576.0, (after - before) / (double) slots));
+        Reference.reachabilityFence(index);
+    }
+
+    private static ProviderAvailability availability(int i) {
+        Provider provider = new Provider();
+        provider.setId(UUID.randomUUID());
+        provider.setSpecialization(i % 2 == 0 ? "Cardiology" : "Dermatology");
+        ClinicAddress address = new ClinicAddress();
+        address.setCity("Boston");
+        address.setState("MA");
+        address.setZip(String.format("%05d", 2100 + i % 50));
+        provider.setClinicAddress(address);
+        return ProviderAvailability.builder()
+                .id(UUID.randomUUID())
+                .provider(provider)
+                .appointmentType(ProviderAvailability.AppointmentType.CONSULTATION)
+                .pricing(AvailabilityPricing.builder()
+                        .baseFee(BigDecimal.valueOf(100 + i % 5 * 25))
+                        .insuranceAccepted(i % 3 != 0)
+                        .currency("USD")
+                        .build())
+                .build();
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,226 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.AvailabilityPricing;
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilitySlotIndexTests {
+
+    private static final ZonedDateTime NINE = ZonedDateTime.of(2030, 1, 7, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    private final AvailabilitySlotIndex index = new AvailabilitySlotIndex(null, null);
+
+    @Test
+    void mergesProviderTimelinesInStartOrderAndPagesWithCursor() {
+        ProviderAvailability first = availability(true);
+        ProviderAvailability second = availability(false);
+        AppointmentSlot a = slot(first, 0);
+        AppointmentSlot b = slot(second, 30);
+        AppointmentSlot c = slot(first, 60);
+        AppointmentSlot d = slot(second, 60);
+        index.putAll(List.of(c, a, d, b));
+
+        List<AvailabilitySlotIndex.IndexedSlot> all = find(null, 10);
+        assertThat(all).extracting(AvailabilitySlotIndex.IndexedSlot::getStartTime).containsExactly(
+                NINE.toInstant(), NINE.plusMinutes(30).toInstant(), NINE.plusHours(1).toInstant(), NINE.plusHours(1).toInstant());
+
+        List<AvailabilitySlotIndex.IndexedSlot> page = find(null, 2);
+        List<AvailabilitySlotIndex.IndexedSlot> rest = find(page.get(1), 10);
+        assertThat(rest).extracting(AvailabilitySlotIndex.IndexedSlot::getSlotId)
+                .containsExactlyElementsOf(all.subList(2, 4).stream().map(AvailabilitySlotIndex.IndexedSlot::getSlotId).toList());
+
+        List<AvailabilitySlotIndex.IndexedSlot> insured = index.findAvailableSlots(NINE.toInstant(), NINE.plusDays(1).toInstant(),
+                provider -> true, attributes -> Boolean.TRUE.equals(attributes.getInsuranceAccepted()), null, 10);
+        assertThat(insured).extracting(AvailabilitySlotIndex.IndexedSlot::getSlotId).containsExactly(a.getId(), c.getId());
+    }
+
+    @Test
+    void bookedSlotsStayIndexedButAreNotReturned() {
+        ProviderAvailability availability = availability(true);
+        AppointmentSlot slot = slot(availability, 0);
+        index.put(slot);
+
+        index.updateStatus(availability.getProvider().getId(), slot.getId(), slot.getSlotStartTime().toInstant(),
+                AppointmentSlot.SlotStatus.BOOKED);
+        assertThat(find(null, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+
+        slot.setStatus(AppointmentSlot.SlotStatus.AVAILABLE);
+        index.put(slot);
+        assertThat(find(null, 10)).hasSize(1);
+
+        index.remove(slot);
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void movedAddedAndRemovedSlotsKeepTheTimelineInOrder() {
+        ProviderAvailability availability = availability(true);
+        AppointmentSlot early = slot(availability, 0);
+        AppointmentSlot middle = slot(availability, 60);
+        AppointmentSlot late = slot(availability, 120);
+        index.putAll(List.of(late, early, middle));
+
+        // Moved past the late slot: only found by id, not at its new start
+        early.setSlotStartTime(NINE.plusMinutes(150));
+        early.setSlotEndTime(NINE.plusMinutes(180));
+        AppointmentSlot added = slot(availability, 30);
+        index.putAll(List.of(early, added));
+        index.remove(middle);
+        // A stale start misses the slot instead of booking another one
+        index.updateStatus(availability.getProvider().getId(), late.getId(), NINE.toInstant(), AppointmentSlot.SlotStatus.BOOKED);
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(find(null, 10)).extracting(AvailabilitySlotIndex.IndexedSlot::getSlotId)
+                .containsExactly(added.getId(), late.getId(), early.getId());
+    }
+
+    @Test
+    void findsProvidersByDistanceAndPagesThemInOrder() {
+        // Boston Common, Cambridge and New York
+        ProviderAvailability boston = availabilityAt(42.3550, -71.0656);
+        ProviderAvailability cambridge = availabilityAt(42.3736, -71.1097);
+        ProviderAvailability newYork = availabilityAt(40.7506, -73.9972);
+        AppointmentSlot bostonLate = slot(boston, 60);
+        AppointmentSlot bostonEarly = slot(boston, 0);
+        AppointmentSlot cambridgeSlot = slot(cambridge, 0);
+        index.putAll(List.of(bostonLate, bostonEarly, cambridgeSlot, slot(newYork, 0)));
+
+        GeoPoint downtown = new GeoPoint(42.3576, -71.0636);
+        List<AvailabilitySlotIndex.NearbyProvider> nearby = index.findProvidersNear(downtown, 10);
+        assertThat(nearby).extracting(AvailabilitySlotIndex.NearbyProvider::getProviderId)
+                .containsExactly(boston.getProvider().getId(), cambridge.getProvider().getId());
+        assertThat(nearby.get(1).getDistanceMiles()).isBetween(2.0, 3.0);
+        assertThat(index.findProvidersWithin(new GeoBox(40, -75, 41, -73)))
+                .containsExactly(newYork.getProvider().getId());
+
+        List<UUID> order = nearby.stream().map(AvailabilitySlotIndex.NearbyProvider::getProviderId).toList();
+        Instant from = NINE.toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = from.plusSeconds(86_400);
+        List<AvailabilitySlotIndex.IndexedSlot> page = index.findAvailableSlotsInProviderOrder(
+                order, from, to, provider -> true, attributes -> true, null, 2);
+        assertThat(page).extracting(AvailabilitySlotIndex.IndexedSlot::getSlotId)
+                .containsExactly(bostonEarly.getId(), bostonLate.getId());
+        assertThat(index.findAvailableSlotsInProviderOrder(order, from, to, provider -> true, attributes -> true, page.get(1), 2))
+                .extracting(AvailabilitySlotIndex.IndexedSlot::getSlotId).containsExactly(cambridgeSlot.getId());
+    }
+
+    @Test
+    void narrowsProvidersThroughFacetsAndCountsMatchingOnes() {
+        ProviderAvailability cardiology = availabilityIn("Cardiology", "Boston", "02108", true);
+        ProviderAvailability dermatology = availabilityIn("Dermatology", "Cambridge", "02139", false);
+        ProviderAvailability booked = availabilityIn("cardiology", "Boston", "02115", true);
+        AppointmentSlot bookedSlot = slot(booked, 0);
+        bookedSlot.setStatus(AppointmentSlot.SlotStatus.BOOKED);
+        index.putAll(List.of(slot(cardiology, 0), slot(cardiology, 30), slot(dermatology, 0), bookedSlot));
+
+        UUID cardiologyId = cardiology.getProvider().getId();
+        UUID bookedId = booked.getProvider().getId();
+        assertThat(index.findProviderIds(AvailabilitySlotIndex.ProviderQuery.builder().specialization("CARDIOLOGY").build()))
+                .containsExactlyInAnyOrder(cardiologyId, bookedId);
+        assertThat(index.findProviderIds(AvailabilitySlotIndex.ProviderQuery.builder().location("boston, ma 0210").build()))
+                .containsExactly(cardiologyId);
+        assertThat(index.findProviderIds(AvailabilitySlotIndex.ProviderQuery.builder()
+                .city("cambridge").insuranceAccepted(true).build())).isEmpty();
+
+        Instant from = NINE.toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant();
+        Map<String, Map<String, Integer>> facets = index.countFacets(
+                index.findProviderIds(AvailabilitySlotIndex.ProviderQuery.builder().build()),
+                from, from.plusSeconds(86_400), attributes -> true);
+        // The provider whose only slot is booked has nothing to offer and is not counted
+        assertThat(facets.get("specialization")).containsExactly(Map.entry("Cardiology", 1), Map.entry("Dermatology", 1));
+        assertThat(facets.get("insuranceAccepted")).containsOnly(Map.entry("true", 1), Map.entry("false", 1));
+        assertThat(facets.get("appointmentType")).containsExactly(Map.entry("CONSULTATION", 2));
+    }
+
+    @Test
+    void providerMovedToNewFacetsAndCellWhenReindexed() {
+        ProviderAvailability availability = availabilityIn("Cardiology", "Boston", "02108", true);
+        availability.getProvider().getClinicAddress().setLatitude(42.3576);
+        availability.getProvider().getClinicAddress().setLongitude(-71.0646);
+        index.put(slot(availability, 0));
+
+        Provider provider = availability.getProvider();
+        provider.setSpecialization("Neurology");
+        ClinicAddress moved = new ClinicAddress("2 Side St", "New York", "NY", "10001");
+        moved.setLatitude(40.7506);
+        moved.setLongitude(-73.9972);
+        provider.setClinicAddress(moved);
+        index.put(slot(availability, 30));
+
+        UUID providerId = provider.getId();
+        assertThat(index.findProviderIds(AvailabilitySlotIndex.ProviderQuery.builder().specialization("Cardiology").build())).isEmpty();
+        assertThat(index.findProviderIds(AvailabilitySlotIndex.ProviderQuery.builder().specialization("Neurology").build()))
+                .containsExactly(providerId);
+        assertThat(index.findProviderIds(AvailabilitySlotIndex.ProviderQuery.builder().location("boston").build())).isEmpty();
+        assertThat(index.findProvidersNear(new GeoPoint(42.3576, -71.0646), 10)).isEmpty();
+        assertThat(index.findProvidersWithin(new GeoBox(40, -75, 41, -73))).containsExactly(providerId);
+
+        Instant from = NINE.toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant();
+        Map<String, Map<String, Integer>> facets = index.countFacets(List.of(providerId), from, from.plusSeconds(86_400),
+                attributes -> true);
+        assertThat(facets.get("specialization")).containsExactly(Map.entry("Neurology", 1));
+        assertThat(facets.get("city")).containsExactly(Map.entry("New York", 1));
+    }
+
+    private List<AvailabilitySlotIndex.IndexedSlot> find(AvailabilitySlotIndex.IndexedSlot after, int limit) {
+        Instant from = NINE.toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant();
+        return index.findAvailableSlots(from, from.plusSeconds(86_400), provider -> true, attributes -> true, after, limit);
+    }
+
+    private static ProviderAvailability availability(boolean insuranceAccepted) {
+        Provider provider = new Provider();
+        provider.setId(UUID.randomUUID());
+        return ProviderAvailability.builder()
+                .id(UUID.randomUUID())
+                .provider(provider)
+                .pricing(AvailabilityPricing.builder()
+                        .baseFee(BigDecimal.valueOf(150))
+                        .insuranceAccepted(insuranceAccepted)
+                        .build())
+                .build();
+    }
+
+    private static ProviderAvailability availabilityAt(double latitude, double longitude) {
+        ProviderAvailability availability = availability(true);
+        ClinicAddress address = new ClinicAddress("1 Main St", "City", "ST", "00000");
+        address.setLatitude(latitude);
+        address.setLongitude(longitude);
+        availability.getProvider().setClinicAddress(address);
+        return availability;
+    }
+
+    private static ProviderAvailability availabilityIn(String specialization, String city, String zip,
+                                                       boolean insuranceAccepted) {
+        ProviderAvailability availability = availability(insuranceAccepted);
+        availability.getProvider().setSpecialization(specialization);
+        availability.getProvider().setClinicAddress(new ClinicAddress("1 Main St", city, "MA", zip));
+        return availability;
+    }
+
+    private static AppointmentSlot slot(ProviderAvailability availability, int minutesAfterNine) {
+        ZonedDateTime start = NINE.plusMinutes(minutesAfterNine);
+        return AppointmentSlot.builder()
+                .id(UUID.randomUUID())
+                .availability(availability)
+                .provider(availability.getProvider())
+                .slotDate(start.toLocalDate())
+                .slotStartTime(start)
+                .slotEndTime(start.plusMinutes(30))
+                .appointmentType("CONSULTATION")
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.healthfirst.provider.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTests {
+
+    @Test
+    void neverMissesAddedValuesAndKeepsFalsePositivesNearTheTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("e:provider" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("e:provider" + i + "@example.com")).isTrue();
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("e:someone-else" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.isSaturated()).isFalse();
+
+        filter.put("e:one-more@example.com");
+        assertThat(filter.isSaturated()).isTrue();
+    }
+}
@@ -0,0 +1,110 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.dto.FreeBusyRequest;
+import com.healthfirst.provider.dto.FreeBusyResponse;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FreeBusyServiceTests {
+
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+
+    @Test
+    void marksOverlappedBucketsAndLetsBusyWin() {
+        AvailabilitySlotIndex index = new AvailabilitySlotIndex(null, null);
+        Provider provider = new Provider();
+        provider.setId(UUID.randomUUID());
+        ProviderAvailability availability = ProviderAvailability.builder().provider(provider).build();
+        // 2030-03-10 is the spring-forward day in New York
+        LocalDate day = LocalDate.of(2030, 3, 10);
+        index.putAll(List.of(
+                slot(availability, day.atTime(9, 0).atZone(ZONE), 30, AppointmentSlot.SlotStatus.AVAILABLE),
+                slot(availability, day.atTime(9, 20).atZone(ZONE), 20, AppointmentSlot.SlotStatus.BOOKED)));
+
+        int[] dayStarts = {
+                AvailabilitySlotIndex.epochMinute(day.atStartOfDay(ZONE).toInstant()),
+                AvailabilitySlotIndex.epochMinute(day.plusDays(1).atStartOfDay(ZONE).toInstant())};
+        FreeBusyResponse.DayFreeBusy bitmap = new FreeBusyService(index, null)
+                .freeBusyFor(provider.getId(), day, dayStarts, 15).getDays().get(0);
+
+        assertThat(bitmap.getBuckets()).isEqualTo(92);
+        // Buckets count elapsed time: 09:00 is only 8 hours after midnight on this day
+        int nine = 8 * 4;
+        assertThat(bits(bitmap.getFree()).stream().boxed().toList()).containsExactly(nine);
+        assertThat(bits(bitmap.getBusy()).stream().boxed().toList()).containsExactly(nine + 1, nine + 2);
+        assertThat(Base64.getDecoder().decode(bitmap.getFree())).hasSize(12);
+    }
+
+    @Test
+    void materializesOnlyTheRequestedProvidersAndDefaultsToUtc() {
+        List<Collection<UUID>> materialized = new ArrayList<>();
+        RecurringAvailabilityMaterializer materializer = new RecurringAvailabilityMaterializer(null, null, null, null, 30, 366) {
+            @Override
+            public void ensureMaterializedThrough(Collection<UUID> providerIds, LocalDate through) {
+                materialized.add(providerIds);
+            }
+        };
+        FreeBusyRequest request = new FreeBusyRequest();
+        UUID providerId = UUID.randomUUID();
+        request.setProviderIds(List.of(providerId));
+
+        FreeBusyResponse response = new FreeBusyService(readyIndex(), materializer).getFreeBusy(request);
+
+        assertThat(materialized).containsExactly(List.of(providerId));
+        assertThat(response.getData().getTimezone()).isEqualTo("Z");
+        assertThat(response.getData().getStartDate()).isEqualTo(LocalDate.now(ZoneOffset.UTC));
+    }
+
+    @Test
+    void refusesWhileTheIndexIsLoading() {
+        FreeBusyRequest request = new FreeBusyRequest();
+        request.setProviderIds(List.of(UUID.randomUUID()));
+
+        // Empty timelines would report every provider as entirely unavailable
+        assertThatThrownBy(() -> new FreeBusyService(new AvailabilitySlotIndex(null, null), null).getFreeBusy(request))
+                .isInstanceOf(SlotIndexNotReadyException.class);
+    }
+
+    private static AvailabilitySlotIndex readyIndex() {
+        return new AvailabilitySlotIndex(null, null) {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+        };
+    }
+
+    private static BitSet bits(String encoded) {
+        return BitSet.valueOf(Base64.getDecoder().decode(encoded));
+    }
+
+    private static AppointmentSlot slot(ProviderAvailability availability, ZonedDateTime start, int minutes,
+                                        AppointmentSlot.SlotStatus status) {
+        return AppointmentSlot.builder()
+                .id(UUID.randomUUID())
+                .availability(availability)
+                .provider(availability.getProvider())
+                .slotDate(start.toLocalDate())
+                .slotStartTime(start)
+                .slotEndTime(start.plusMinutes(minutes))
+                .status(status)
+                .appointmentType("CONSULTATION")
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.dto.BulkAvailabilityRequest;
+import com.healthfirst.provider.dto.BulkAvailabilityResponse;
+import com.healthfirst.provider.dto.CreateAvailabilityRequest;
+import com.healthfirst.provider.entity.AvailabilityLocation;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "availability-import.chunk-size=2")
+class ProviderAvailabilityImportServiceTests {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(7);
+
+    @Autowired
+    private ProviderAvailabilityImportService importService;
+
+    @Autowired
+    private ProviderAvailabilityService availabilityService;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Test
+    void blocksAcrossChunksAreSavedAndCheckedAgainstEarlierChunks() {
+        UUID providerId = provider().getId();
+
+        BulkAvailabilityResponse response = importService.importAvailability(request(
+                block(providerId, DATE, "09:00", "10:00"),
+                block(providerId, DATE, "10:00", "11:00"),
+                block(providerId, DATE.plusDays(1), "09:00", "10:00"),
+                block(providerId, DATE.plusDays(2), "09:00", "10:00"),
+                // Third chunk, overlapping the first block
+                block(providerId, DATE, "09:30", "10:30")));
+
+        assertThat(response.getData().getBlocksCreated()).isEqualTo(4);
+        assertThat(response.getData().getSlotsCreated()).isEqualTo(8);
+        assertThat(response.getData().getCreated()).extracting(BulkAvailabilityResponse.CreatedBlock::getIndex)
+                .containsExactly(0, 1, 2, 3);
+        assertThat(response.getData().getRejected()).singleElement().satisfies(rejected -> {
+            assertThat(rejected.getIndex()).isEqualTo(4);
+            assertThat(rejected.getReasons()).containsExactly("Time slot overlaps with another block in this import");
+        });
+    }
+
+    @Test
+    void badRowsAreRejectedOneByOne() {
+        UUID providerId = provider().getId();
+        BulkAvailabilityRequest.Block badTime = block(providerId, DATE, "9am", "10:00");
+        BulkAvailabilityRequest.Block backwards = block(providerId, DATE, "11:00", "10:00");
+        BulkAvailabilityRequest.Block unknownProvider = block(UUID.randomUUID(), DATE, "09:00", "10:00");
+
+        BulkAvailabilityResponse response = importService.importAvailability(request(
+                badTime, null, block(providerId, DATE, "09:00", "10:00"), backwards, unknownProvider));
+
+        assertThat(response.getSuccess()).isFalse();
+        assertThat(response.getData().getBlocksCreated()).isEqualTo(1);
+        assertThat(response.getData().getRejected()).extracting(BulkAvailabilityResponse.RejectedBlock::getIndex)
+                .containsExactly(0, 1, 3, 4);
+        assertThat(response.getData().getRejected()).extracting(rejected -> rejected.getReasons().get(0)).containsExactly(
+                "Start time must be in HH:mm format",
+                "Block is empty",
+                "End time must be after start time",
+                "Provider not found");
+    }
+
+    @Test
+    void blocksOverlappingSavedAvailabilityAreRejected() {
+        UUID providerId = provider().getId();
+        availabilityService.createAvailability(providerId, block(providerId, DATE, "09:00", "10:00"));
+
+        BulkAvailabilityResponse response = importService.importAvailability(request(
+                block(providerId, DATE, "09:30", "10:30"),
+                block(providerId, DATE, "10:00", "11:00")));
+
+        assertThat(response.getData().getCreated()).extracting(BulkAvailabilityResponse.CreatedBlock::getIndex)
+                .containsExactly(1);
+        assertThat(response.getData().getRejected()).singleElement().satisfies(rejected ->
+                assertThat(rejected.getReasons()).containsExactly("Time slot overlaps with existing availability"));
+    }
+
+    private Provider provider() {
+        return providerRepository.save(TestProviders.provider("Roster"));
+    }
+
+    private static BulkAvailabilityRequest request(BulkAvailabilityRequest.Block... blocks) {
+        BulkAvailabilityRequest request = new BulkAvailabilityRequest();
+        request.setBlocks(new ArrayList<>(Arrays.asList(blocks)));
+        return request;
+    }
+
+    private static BulkAvailabilityRequest.Block block(UUID providerId, LocalDate date, String startTime, String endTime) {
+        CreateAvailabilityRequest.LocationDTO location = new CreateAvailabilityRequest.LocationDTO();
+        location.setType(AvailabilityLocation.LocationType.CLINIC);
+        location.setAddress("1 Main St");
+
+        BulkAvailabilityRequest.Block block = new BulkAvailabilityRequest.Block();
+        block.setProviderId(providerId);
+        block.setDate(date);
+        block.setStartTime(startTime);
+        block.setEndTime(endTime);
+        block.setTimezone("America/New_York");
+        block.setSlotDuration(30);
+        block.setLocation(location);
+        return block;
+    }
+}
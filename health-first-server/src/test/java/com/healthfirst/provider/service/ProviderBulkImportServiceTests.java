@@ -0,0 +1,134 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.dto.ProviderImportResponse;
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProviderBulkImportServiceTests {
+
+    private static final String HEADER =
+            "firstName,lastName,email,phoneNumber,password,specialization,licenseNumber,street,city,state,zip\n";
+
+    @Autowired
+    private ProviderBulkImportService importService;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Test
+    void laterDuplicatesWithinTheFileAreRejected() throws Exception {
+        Row first = new Row();
+        Row sameEmail = new Row().withEmail(first.email);
+        Row sameLicense = new Row().withLicense(first.license);
+
+        ProviderImportResponse response = importCsv(first, sameEmail, sameLicense);
+
+        assertThat(response.getData().getImported()).isEqualTo(1);
+        assertThat(response.getData().getErrors()).extracting(ProviderImportResponse.RowError::getRow).containsExactly(3L, 4L);
+        assertThat(response.getData().getErrors().get(0).getMessages()).containsExactly("Email appears earlier in the file");
+        assertThat(response.getData().getErrors().get(1).getMessages()).containsExactly("License number appears earlier in the file");
+        assertThat(providerRepository.findByEmail(first.email)).isPresent();
+    }
+
+    @Test
+    void rowsClashingWithRegisteredProvidersAreRejected() throws Exception {
+        Row registered = new Row();
+        importCsv(registered);
+
+        Row samePhone = new Row().withPhone(registered.phone);
+        Row fresh = new Row();
+        ProviderImportResponse response = importCsv(samePhone, fresh);
+
+        assertThat(response.getData().getImported()).isEqualTo(1);
+        assertThat(response.getData().getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessages()).containsExactly("Phone number already exists"));
+        assertThat(providerRepository.findByEmail(fresh.email)).isPresent();
+        assertThat(providerRepository.findByEmail(samePhone.email)).isEmpty();
+    }
+
+    @Test
+    void aClashTheFilterMissedFallsBackToRowByRow() throws Exception {
+        // Saved directly, as another instance would, so the identity filter has not seen it
+        Row elsewhere = new Row();
+        providerRepository.save(elsewhere.toProvider());
+
+        Row before = new Row();
+        Row clashing = new Row().withLicense(elsewhere.license);
+        Row after = new Row();
+        ProviderImportResponse response = importCsv(before, clashing, after);
+
+        assertThat(response.getData().getImported()).isEqualTo(2);
+        assertThat(response.getData().getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(3L);
+            assertThat(error.getMessages()).containsExactly("License number already exists");
+        });
+        assertThat(providerRepository.findByEmail(before.email)).isPresent();
+        assertThat(providerRepository.findByEmail(after.email)).isPresent();
+    }
+
+    private ProviderImportResponse importCsv(Row... rows) throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        List.of(rows).forEach(row -> csv.append(row.toCsv()));
+        return importService.importProviders(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                ProviderBulkImportService.Format.CSV);
+    }
+
+    private static final class Row {
+        private String email;
+        private String phone;
+        private String license;
+
+        private Row() {
+            String suffix = UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+            this.email = "import-" + suffix + "@example.com";
+            this.phone = "+1" + ThreadLocalRandom.current().nextLong(1_000_000_000L, 10_000_000_000L);
+            this.license = "IMP" + suffix;
+        }
+
+        private Row withEmail(String email) {
+            this.email = email;
+            return this;
+        }
+
+        private Row withPhone(String phone) {
+            this.phone = phone;
+            return this;
+        }
+
+        private Row withLicense(String license) {
+            this.license = license;
+            return this;
+        }
+
+        private String toCsv() {
+            return String.join(",", "Ann", "Lee", email, phone, "Passw0rd!", "Cardiology", license,
+                    "1 Main St", "Boston", "MA", "02108") + "\n";
+        }
+
+        private Provider toProvider() {
+            Provider provider = new Provider();
+            provider.setFirstName("Ann");
+            provider.setLastName("Lee");
+            provider.setEmail(email);
+            provider.setPhoneNumber(phone);
+            provider.setPasswordHash("hash");
+            provider.setSpecialization("Cardiology");
+            provider.setLicenseNumber(license);
+            provider.setClinicAddress(new ClinicAddress("1 Main St", "Boston", "MA", "02108"));
+            return provider;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.healthfirst.provider.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.dto.ProviderDirectoryRequest;
+import com.healthfirst.provider.dto.ProviderDirectoryResponse;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderBatchWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Directory export over 1M seeded providers: heap is sampled after a GC every 100k rows
+ * written and must not grow with the rows exported. Run with -Dbenchmark=true
+ * -DargLine=-Xmx4g (H2 holds the uncommitted seed in memory); -Dbenchmark.providers
+ * changes the size.
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class ProviderDirectoryExportBenchmarkTests {
+
+    private static final int BATCH = 10_000;
+    private static final int SAMPLE_EVERY = 100_000;
+    private static final String[] SPECIALIZATIONS = {"Cardiology", "Dermatology", "Pediatrics", "Neurology", "Oncology"};
+
+    @Autowired
+    private ProviderBatchWriter providerBatchWriter;
+
+    @Autowired
+    private ProviderDirectoryService providerDirectoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportsAtConstantMemory() throws IOException {
+        int providers = Integer.getInteger("benchmark.providers", 1_000_000);
+        seed(providers);
+
+        ObjectWriter entryWriter = objectMapper.writerFor(ProviderDirectoryResponse.DirectoryEntry.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        List<Long> samples = new ArrayList<>();
+        long[] written = {0};
+        long start = System.nanoTime();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            providerDirectoryService.exportDirectory(new ProviderDirectoryRequest()).forEach(entry -> {
+                try {
+                    entryWriter.writeValue(generator, entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++written[0] % SAMPLE_EVERY == 0) {
+                    samples.add(usedHeap());
+                }
+            });
+            generator.writeEndArray();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        log.info("exported {} providers in {} ms", written[0], String.format("%.1f", elapsed / 1_000_000.0));
+        for (int i = 0; i < samples.size(); i++) {
+            log.info(String.format("  after %8d rows %8.1f MB used", (i + 1L) * SAMPLE_EVERY, samples.get(i) / 1_048_576.0));
+        }
+        assertThat(written[0]).isEqualTo(providers);
+        // Holding every exported entry would add hundreds of megabytes between the first and last sample
+        long growth = samples.get(samples.size() - 1) - samples.get(0);
+        assertThat(growth).isLessThan(32L * 1024 * 1024);
+    }
+
+    private void seed(int count) {
+        List<Provider> batch = new ArrayList<>(BATCH);
+        for (int n = 0; n < count; n++) {
+            batch.add(provider(n));
+            if (batch.size() == BATCH) {
+                providerBatchWriter.insertAll(batch);
+                batch.clear();
+            }
+        }
+        providerBatchWriter.insertAll(batch);
+        log.info("seeded {} providers", count);
+    }
+
+    private static Provider provider(int n) {
+        Provider provider = TestProviders.provider("Directory");
+        provider.setSpecialization(SPECIALIZATIONS[n % SPECIALIZATIONS.length]);
+        return provider;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,105 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.dto.ProviderDirectoryRequest;
+import com.healthfirst.provider.dto.ProviderDirectoryResponse;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProviderDirectoryServiceTests {
+
+    // Not an allowed specialization, so only this class's providers match it
+    private final String specialization = "Keyset " + UUID.randomUUID().toString().substring(0, 8);
+    private final Set<UUID> providerIds = new HashSet<>();
+
+    @Autowired
+    private ProviderDirectoryService directoryService;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @BeforeAll
+    void createProviders() {
+        Instant created = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        String[][] names = {{"Ann", "Lee"}, {"Ann", "Lee"}, {"Ann", "Lee"}, {"Bob", "Lee"}, {"Cy", "Adams"},
+                {"Cy", "Adams"}, {"Di", "Zhu"}};
+        for (int i = 0; i < names.length; i++) {
+            // Pairs share a creation time, so every sort has ties the id has to break
+            providerIds.add(provider(names[i][0], names[i][1], created.plusSeconds(i / 2)).getId());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"name,asc", "name,desc", "email,asc", "email,desc", "createdAt,asc", "createdAt,desc"})
+    void pagingVisitsEveryProviderOnceInOrder(String sort, String direction) {
+        List<UUID> inOnePage = page(sort, direction, null, 200).getProviders().stream()
+                .map(ProviderDirectoryResponse.DirectoryEntry::getId)
+                .toList();
+
+        List<UUID> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProviderDirectoryResponse.DirectoryData page = page(sort, direction, cursor, 2);
+            page.getProviders().forEach(entry -> paged.add(entry.getId()));
+            cursor = page.getNextCursor();
+            assertThat(page.getHasMore()).isEqualTo(cursor != null);
+        } while (cursor != null);
+
+        assertThat(Set.copyOf(inOnePage)).isEqualTo(providerIds);
+        assertThat(paged).containsExactlyElementsOf(inOnePage);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"name,asc", "name,desc"})
+    void nameOrderIsLastThenFirstName(String sort, String direction) {
+        List<String> names = page(sort, direction, null, 200).getProviders().stream()
+                .map(entry -> entry.getLastName() + " " + entry.getFirstName())
+                .collect(Collectors.toList());
+
+        List<String> expected = new ArrayList<>(
+                List.of("Adams Cy", "Adams Cy", "Lee Ann", "Lee Ann", "Lee Ann", "Lee Bob", "Zhu Di"));
+        if (direction.equals("desc")) {
+            Collections.reverse(expected);
+        }
+        assertThat(names).containsExactlyElementsOf(expected);
+    }
+
+    private ProviderDirectoryResponse.DirectoryData page(String sort, String direction, String cursor, int limit) {
+        ProviderDirectoryRequest request = new ProviderDirectoryRequest();
+        request.setSpecialization(specialization);
+        request.setSort(sort);
+        request.setDirection(direction);
+        request.setCursor(cursor);
+        request.setLimit(limit);
+        return directoryService.getDirectory(request).getData();
+    }
+
+    private Provider provider(String firstName, String lastName, Instant createdAt) {
+        Provider provider = TestProviders.provider("Directory");
+        provider.setFirstName(firstName);
+        provider.setLastName(lastName);
+        provider.setSpecialization(specialization);
+        provider.setCreatedAt(createdAt);
+        return providerRepository.save(provider);
+    }
+}
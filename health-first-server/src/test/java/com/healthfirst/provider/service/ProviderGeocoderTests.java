@@ -0,0 +1,41 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.ClinicAddress;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProviderGeocoderTests {
+
+    private final ProviderGeocoder geocoder = new ProviderGeocoder(new ZipCentroids(new ByteArrayResource((
+            "zip,latitude,longitude\n02108,42.3576,-71.0646\n10001,40.7506,-73.9972\n").getBytes(StandardCharsets.UTF_8))),
+            null, null);
+
+    @Test
+    void changingTheZipPlacesTheAddressAgain() {
+        ClinicAddress address = new ClinicAddress("1 Main St", "Boston", "MA", "02108");
+        geocoder.geocode(address);
+        assertThat(address.getLatitude()).isEqualTo(42.3576);
+
+        address.setZip("10001");
+        assertThat(address.getLatitude()).isNull();
+        geocoder.geocode(address);
+        assertThat(address.getLatitude()).isEqualTo(40.7506);
+        assertThat(address.getLongitude()).isEqualTo(-73.9972);
+    }
+
+    @Test
+    void unknownZipLeavesNoStaleCoordinates() {
+        ClinicAddress address = new ClinicAddress("1 Main St", "Boston", "MA", "02108");
+        geocoder.geocode(address);
+
+        address.setZip("99999");
+        geocoder.geocode(address);
+
+        assertThat(address.getLatitude()).isNull();
+        assertThat(address.getLongitude()).isNull();
+    }
+}
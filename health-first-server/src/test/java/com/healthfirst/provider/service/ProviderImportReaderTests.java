@@ -0,0 +1,35 @@
+package com.healthfirst.provider.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProviderImportReaderTests {
+
+    @Test
+    void readsQuotedCsvFieldsAndNumbersRowsByFileLine() throws Exception {
+        String csv = "firstName,lastName,email,phoneNumber,password,specialization,licenseNumber,street,city,state,zip\n"
+                + "Ann,Lee,ann@example.com,+15550000001,Passw0rd!,Cardiology,LIC1,\"1 Main St, \"\"Suite\"\" 2\nRear\",Boston,MA,02108\n"
+                + "\n"
+                + "Bob,Ray,bob@example.com,+15550000002,Passw0rd!,Neurology,LIC2,2 Side St,Boston,MA,02108\n";
+
+        try (ProviderImportReader reader = new ProviderImportReader(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                ProviderBulkImportService.Format.CSV, new ObjectMapper())) {
+            ProviderImportReader.Entry first = reader.next();
+            assertThat(first.row()).isEqualTo(2);
+            assertThat(first.request().getClinicAddress().getStreet()).isEqualTo("1 Main St, \"Suite\" 2\nRear");
+            assertThat(first.request().getConfirmPassword()).isEqualTo("Passw0rd!");
+
+            ProviderImportReader.Entry second = reader.next();
+            assertThat(second.row()).isEqualTo(5);
+            assertThat(second.request().getSpecialization()).isEqualTo("Neurology");
+
+            assertThat(reader.next()).isNull();
+        }
+    }
+}
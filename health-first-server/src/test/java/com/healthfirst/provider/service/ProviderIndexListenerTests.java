@@ -0,0 +1,66 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.dto.CreateAvailabilityRequest;
+import com.healthfirst.provider.entity.AvailabilityLocation;
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.repository.ProviderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProviderIndexListenerTests {
+
+    @Autowired
+    private AvailabilitySlotIndex slotIndex;
+
+    @Autowired
+    private ProviderAvailabilityService availabilityService;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Test
+    void savingAProviderRefreshesItsIndexedProfile() {
+        Provider provider = provider();
+        availabilityService.createAvailability(provider.getId(), request());
+        String city = "Town" + UUID.randomUUID().toString().substring(0, 6);
+        assertThat(slotIndex.findProviderIds(AvailabilitySlotIndex.ProviderQuery.builder().city("Springfield").build()))
+                .contains(provider.getId());
+
+        Provider saved = providerRepository.findById(provider.getId()).orElseThrow();
+        saved.setClinicAddress(new ClinicAddress("9 New Rd", city, "IL", "62702"));
+        providerRepository.save(saved);
+
+        assertThat(slotIndex.findProviderIds(AvailabilitySlotIndex.ProviderQuery.builder().city(city).build()))
+                .containsExactly(provider.getId());
+        assertThat(slotIndex.findProviderIds(AvailabilitySlotIndex.ProviderQuery.builder().city("Springfield").build()))
+                .doesNotContain(provider.getId());
+    }
+
+    private Provider provider() {
+        return providerRepository.save(TestProviders.provider("Indexed"));
+    }
+
+    private static CreateAvailabilityRequest request() {
+        CreateAvailabilityRequest.LocationDTO location = new CreateAvailabilityRequest.LocationDTO();
+        location.setType(AvailabilityLocation.LocationType.CLINIC);
+        location.setAddress("1 Main St");
+
+        CreateAvailabilityRequest request = new CreateAvailabilityRequest();
+        request.setDate(LocalDate.now().plusDays(4));
+        request.setStartTime("09:00");
+        request.setEndTime("10:00");
+        request.setTimezone("America/New_York");
+        request.setSlotDuration(30);
+        request.setLocation(location);
+        return request;
+    }
+}
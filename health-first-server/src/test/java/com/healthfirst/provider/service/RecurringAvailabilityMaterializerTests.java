@@ -0,0 +1,149 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.TestProviders;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.entity.ProviderAvailability.RecurrencePattern;
+import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import com.healthfirst.provider.repository.ProviderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class RecurringAvailabilityMaterializerTests {
+
+    // Horizon the daily job keeps, availability.recurrence.horizon-days
+    private static final int HORIZON_DAYS = 30;
+
+    @Autowired
+    private RecurringAvailabilityMaterializer materializer;
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void occurrencesAreTheRuleDatesAfterTheFirstBoundUpToTheSecond() {
+        ProviderAvailability weekly = rule(null, LocalDate.of(2030, 1, 7), RecurrencePattern.WEEKLY);
+
+        assertThat(RecurringAvailabilityMaterializer.occurrencesBetween(weekly, LocalDate.of(2030, 1, 6), LocalDate.of(2030, 1, 14)))
+                .containsExactly(LocalDate.of(2030, 1, 7), LocalDate.of(2030, 1, 14));
+        assertThat(RecurringAvailabilityMaterializer.occurrencesBetween(weekly, LocalDate.of(2030, 1, 7), LocalDate.of(2030, 1, 28)))
+                .containsExactly(LocalDate.of(2030, 1, 14), LocalDate.of(2030, 1, 21), LocalDate.of(2030, 1, 28));
+        // Resuming between two occurrences
+        assertThat(RecurringAvailabilityMaterializer.occurrencesBetween(weekly, LocalDate.of(2030, 1, 10), LocalDate.of(2030, 1, 20)))
+                .containsExactly(LocalDate.of(2030, 1, 14));
+
+        ProviderAvailability once = rule(null, LocalDate.of(2030, 1, 7), null);
+        assertThat(RecurringAvailabilityMaterializer.occurrencesBetween(once, LocalDate.of(2030, 1, 6), LocalDate.of(2030, 1, 7)))
+                .containsExactly(LocalDate.of(2030, 1, 7));
+        assertThat(RecurringAvailabilityMaterializer.occurrencesBetween(once, LocalDate.of(2030, 1, 7), LocalDate.of(2030, 2, 7)))
+                .isEmpty();
+    }
+
+    @Test
+    void monthlyRulesOnThe31stDoNotDrift() {
+        ProviderAvailability monthly = rule(null, LocalDate.of(2030, 1, 31), RecurrencePattern.MONTHLY);
+
+        assertThat(RecurringAvailabilityMaterializer.occurrencesBetween(monthly, LocalDate.of(2030, 1, 31), LocalDate.of(2030, 5, 31)))
+                .containsExactly(LocalDate.of(2030, 2, 28), LocalDate.of(2030, 3, 31),
+                        LocalDate.of(2030, 4, 30), LocalDate.of(2030, 5, 31));
+        // Continuing after a short month still lands on the 31st
+        assertThat(RecurringAvailabilityMaterializer.occurrencesBetween(monthly, LocalDate.of(2030, 2, 28), LocalDate.of(2030, 3, 31)))
+                .containsExactly(LocalDate.of(2030, 3, 31));
+    }
+
+    @Test
+    void plannedRulesStopAtTheirEndDateOrTheHorizon() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        ProviderAvailability ending = rule(null, today.plusDays(1), RecurrencePattern.DAILY);
+        ending.setRecurrenceEndDate(today.plusDays(3));
+        ProviderAvailability open = rule(null, today.plusDays(1), RecurrencePattern.DAILY);
+        // Starts beyond the horizon: only its first day
+        ProviderAvailability later = rule(null, today.plusDays(HORIZON_DAYS + 10), RecurrencePattern.DAILY);
+
+        List<AppointmentSlot> slots = materializer.planInitialSlots(List.of(ending, open, later));
+
+        assertThat(ending.getMaterializedThrough()).isEqualTo(today.plusDays(3));
+        assertThat(open.getMaterializedThrough()).isEqualTo(today.plusDays(HORIZON_DAYS));
+        assertThat(later.getMaterializedThrough()).isEqualTo(today.plusDays(HORIZON_DAYS + 10));
+        assertThat(slots).filteredOn(slot -> slot.getAvailability() == ending).hasSize(3);
+        assertThat(slots).filteredOn(slot -> slot.getAvailability() == open).hasSize(HORIZON_DAYS);
+        assertThat(slots).filteredOn(slot -> slot.getAvailability() == later)
+                .extracting(AppointmentSlot::getSlotDate)
+                .containsExactly(today.plusDays(HORIZON_DAYS + 10));
+    }
+
+    @Test
+    void aRuleAdvancedByAnotherReaderIsContinuedWhereTheyStopped() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = today.plusDays(1);
+        ProviderAvailability rule = availabilityRepository.save(rule(provider(), start, RecurrencePattern.DAILY));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Someone else claims the first ten days after this copy of the rule was read
+        transaction.executeWithoutResult(status ->
+                availabilityRepository.advanceMaterializedThrough(rule.getId(), start.minusDays(1), start.plusDays(9)));
+        List<AppointmentSlot> slots = transaction.execute(status -> materializer.materializeNew(rule));
+
+        assertThat(slots).extracting(AppointmentSlot::getSlotDate)
+                .first().isEqualTo(start.plusDays(10));
+        assertThat(slots).hasSize(HORIZON_DAYS - 10);
+        assertThat(availabilityRepository.findMaterializedThroughById(rule.getId())).contains(today.plusDays(HORIZON_DAYS));
+    }
+
+    @Test
+    void readsPastTheHorizonExtendTheProvidersRules() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        Provider provider = provider();
+        ProviderAvailability rule = rule(provider, today.plusDays(1), RecurrencePattern.DAILY);
+        rule.setMaterializedThrough(today.plusDays(HORIZON_DAYS));
+        availabilityRepository.save(rule);
+
+        materializer.ensureMaterializedThrough(List.of(provider.getId()), today.plusDays(HORIZON_DAYS + 15));
+
+        assertThat(availabilityRepository.findMaterializedThroughById(rule.getId())).contains(today.plusDays(HORIZON_DAYS + 15));
+        ZonedDateTime from = today.plusDays(HORIZON_DAYS + 1).atStartOfDay(ZoneOffset.UTC);
+        assertThat(slotRepository.findByProviderIdAndSlotStartTimeBetweenOrderBySlotStartTimeAsc(
+                provider.getId(), from, from.plusDays(16))).hasSize(15);
+    }
+
+    // One 30-minute slot a day at 09:00 UTC, not materialized yet
+    private static ProviderAvailability rule(Provider provider, LocalDate date, RecurrencePattern pattern) {
+        return ProviderAvailability.builder()
+                .provider(provider)
+                .date(date)
+                .startTime(LocalTime.of(9, 0))
+                .endTime(LocalTime.of(9, 30))
+                .timezone("UTC")
+                .isRecurring(pattern != null)
+                .recurrencePattern(pattern)
+                .materializedThrough(date.minusDays(1))
+                .build();
+    }
+
+    private Provider provider() {
+        return providerRepository.save(TestProviders.provider("Recurring"));
+    }
+}